@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of huge attribute line (embedded image) by the model parser compared
+ * with the regular expressions used before the single pass attribute parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeLineBenchmark {
+
+  private static final Pattern PATTERN_ATTRIBUTES = Pattern.compile("^\\s*\\>\\s(.+)$"); //NOI18N
+  private static final Pattern PATTERN_ATTRIBUTE = Pattern.compile("[,]?\\s*([\\S]+?)\\s*=\\s*(\\`+)(.*?)\\2"); //NOI18N
+
+  private static final String BASE64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"; //NOI18N
+
+  @Param({"65536", "4194304"})
+  public int valueSize;
+
+  private String text;
+  private String attributeLine;
+
+  @Setup
+  public void setup() throws IOException {
+    final Random rnd = new Random(777L);
+    final StringBuilder image = new StringBuilder(this.valueSize + 2);
+    for (int i = 0; i < this.valueSize; i++) {
+      image.append(BASE64_CHARS.charAt(rnd.nextInt(BASE64_CHARS.length())));
+    }
+    image.append("=="); //NOI18N
+
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    root.setText("root"); //NOI18N
+    root.setAttribute("mmd.image", image.toString()); //NOI18N
+    root.setAttribute("mmd.image.name", "some.png"); //NOI18N
+    this.text = map.write(new StringWriter()).toString();
+
+    final int lineStart = this.text.indexOf("\n> mmd.image") + 1; //NOI18N
+    this.attributeLine = this.text.substring(lineStart, this.text.indexOf('\n', lineStart) + 1);
+  }
+
+  @Benchmark
+  @Nonnull
+  public MindMap parser() throws IOException {
+    return new MindMap(new StringReader(this.text));
+  }
+
+  @Benchmark
+  @Nonnull
+  public Map<String, String> regex() {
+    final Map<String, String> result = new HashMap<>();
+    final Matcher attrmatcher = PATTERN_ATTRIBUTES.matcher(this.attributeLine);
+    if (attrmatcher.find()) {
+      final Matcher attrParser = PATTERN_ATTRIBUTE.matcher(attrmatcher.group(1));
+      while (attrParser.find()) {
+        result.put(attrParser.group(1), attrParser.group(3));
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.plugins.api.ExternallyExecutedPlugin;
+import com.igormaznitsa.mindmap.plugins.api.PluginContext;
+import com.igormaznitsa.mindmap.swing.panel.DialogProvider;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelController;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
+import java.awt.Component;
+import java.awt.Point;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.JComponent;
+import javax.swing.JPopupMenu;
+import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileFilter;
+
+/**
+ * Non-interactive plugin context with mind map panel, it allows to call
+ * exporters outside of any IDE or application. Any attempt to show dialog
+ * is reported as error.
+ */
+public final class BenchmarkPluginContext implements PluginContext, MindMapPanelController, DialogProvider {
+
+  private final MindMapPanelConfig config;
+  private final MindMapPanel panel;
+
+  public BenchmarkPluginContext(@Nonnull final MindMap map, @Nonnull final MindMapPanelConfig config) throws InvocationTargetException, InterruptedException {
+    this.config = config;
+    this.panel = new MindMapPanel(this);
+    // model must be set in swing thread because panel makes layout through invokeAndWait under its lock
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+        panel.setModel(map);
+      }
+    });
+  }
+
+  @Override
+  @Nonnull
+  public MindMapPanelConfig getPanelConfig() {
+    return this.panel.getConfiguration();
+  }
+
+  @Override
+  @Nonnull
+  public MindMapPanel getPanel() {
+    return this.panel;
+  }
+
+  @Override
+  @Nonnull
+  public DialogProvider getDialogProvider() {
+    return this;
+  }
+
+  @Override
+  @Nullable
+  public File getProjectFolder() {
+    return null;
+  }
+
+  @Override
+  @Nullable
+  public File getMindMapFile() {
+    return null;
+  }
+
+  @Override
+  @Nullable
+  @MustNotContainNull
+  public Topic[] getSelectedTopics() {
+    return new Topic[0];
+  }
+
+  @Override
+  public void openFile(@Nonnull final File file, final boolean preferSystemBrowser) {
+    throw new UnsupportedOperationException("Not supported in benchmarks"); //NOI18N
+  }
+
+  @Override
+  public void processPluginActivation(@Nonnull final ExternallyExecutedPlugin plugin, @Nullable final Topic activeTopic) {
+    throw new UnsupportedOperationException("Not supported in benchmarks"); //NOI18N
+  }
+
+  @Override
+  public boolean isUnfoldCollapsedTopicDropTarget(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isCopyColorInfoFromParentToNewChildAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isTrimTopicTextBeforeSet(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isSelectionAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isElementDragAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isMouseMoveProcessingAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isMouseWheelProcessingAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean isMouseClickProcessingAllowed(@Nonnull final MindMapPanel source) {
+    return false;
+  }
+
+  @Override
+  public boolean canTopicBeDeleted(@Nonnull final MindMapPanel source, @Nonnull final Topic topic) {
+    return false;
+  }
+
+  @Override
+  @Nonnull
+  public PluginContext makePluginContext(@Nonnull final MindMapPanel source) {
+    return this;
+  }
+
+  @Override
+  @Nonnull
+  public MindMapPanelConfig provideConfigForMindMapPanel(@Nonnull final MindMapPanel source) {
+    return this.config;
+  }
+
+  @Override
+  @Nullable
+  public JPopupMenu makePopUpForMindMapPanel(@Nonnull final MindMapPanel source, @Nonnull final Point point, @Nullable final AbstractElement elementUnderMouse, @Nullable final ElementPart elementPartUnderMouse) {
+    return null;
+  }
+
+  @Override
+  @Nonnull
+  public DialogProvider getDialogProvider(@Nonnull final MindMapPanel source) {
+    return this;
+  }
+
+  @Override
+  public boolean processDropTopicToAnotherTopic(@Nonnull final MindMapPanel source, @Nonnull final Point dropPoint, @Nonnull final Topic draggedTopic, @Nullable final Topic destinationTopic) {
+    return false;
+  }
+
+  @Override
+  public void msgError(@Nullable final Component parentComponent, @Nonnull final String text) {
+    throw new IllegalStateException("Error message during benchmark: " + text); //NOI18N
+  }
+
+  @Override
+  public void msgInfo(@Nullable final Component parentComponent, @Nonnull final String text) {
+  }
+
+  @Override
+  public void msgWarn(@Nullable final Component parentComponent, @Nonnull final String text) {
+  }
+
+  @Override
+  public boolean msgConfirmOkCancel(@Nullable final Component parentComponent, @Nonnull final String title, @Nonnull final String question) {
+    return true;
+  }
+
+  @Override
+  public boolean msgOkCancel(@Nullable final Component parentComponent, @Nonnull final String title, @Nonnull final JComponent component) {
+    return true;
+  }
+
+  @Override
+  public boolean msgConfirmYesNo(@Nullable final Component parentComponent, @Nonnull final String title, @Nonnull final String question) {
+    return true;
+  }
+
+  @Override
+  @Nullable
+  public Boolean msgConfirmYesNoCancel(@Nullable final Component parentComponent, @Nonnull final String title, @Nonnull final String question) {
+    return Boolean.TRUE;
+  }
+
+  @Override
+  @Nullable
+  public File msgSaveFileDialog(@Nullable final Component parentComponent, @Nonnull final String id, @Nonnull final String title, @Nullable final File defaultFolder, final boolean filesOnly, @Nonnull @MustNotContainNull final FileFilter[] fileFilter, @Nonnull final String approveButtonText) {
+    throw new UnsupportedOperationException("File dialogs are not supported in benchmarks"); //NOI18N
+  }
+
+  @Override
+  @Nullable
+  public File msgOpenFileDialog(@Nullable final Component parentComponent, @Nonnull final String id, @Nonnull final String title, @Nullable final File defaultFolder, final boolean filesOnly, @Nonnull @MustNotContainNull final FileFilter[] fileFilter, @Nonnull final String approveButtonText) {
+    throw new UnsupportedOperationException("File dialogs are not supported in benchmarks"); //NOI18N
+  }
+}
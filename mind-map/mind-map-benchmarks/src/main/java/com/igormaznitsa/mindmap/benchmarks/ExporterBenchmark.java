@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.plugins.api.AbstractExporter;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Export of mind map by every exporter from standard plugin set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class ExporterBenchmark {
+
+  private static final String EXPORTER_PACKAGE = "com.igormaznitsa.mindmap.plugins.exporters."; //NOI18N
+
+  @Param({
+      "ASCIIDocExporter",
+      "FreeMindExporter",
+      "MDExporter",
+      "MindmupExporter",
+      "ORGMODEExporter",
+      "PNGImageExporter",
+      "SVGImageExporter",
+      "TextExporter"
+  })
+  public String exporter;
+
+  @Param({"3"})
+  public int depth;
+
+  @Param({"6"})
+  public int fanOut;
+
+  @Param({"256"})
+  public int noteSize;
+
+  @Param({"0", "64"})
+  public int imageSize;
+
+  @Param({"7"})
+  public int jumpEvery;
+
+  private AbstractExporter exporterInstance;
+  private BenchmarkPluginContext context;
+  private JComponent options;
+
+  @Setup
+  public void setup() throws Exception {
+    this.exporterInstance = (AbstractExporter) Class.forName(EXPORTER_PACKAGE + this.exporter).newInstance();
+    this.context = new BenchmarkPluginContext(new SyntheticMindMapGenerator(this.depth, this.fanOut, this.noteSize, this.imageSize, this.jumpEvery, 12345L).generate(), new MindMapPanelConfig());
+    this.options = this.exporterInstance.makeOptions(this.context);
+  }
+
+  @Benchmark
+  public int export() throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(65536);
+    this.exporterInstance.doExport(this.context, this.options, buffer);
+    return buffer.size();
+  }
+}
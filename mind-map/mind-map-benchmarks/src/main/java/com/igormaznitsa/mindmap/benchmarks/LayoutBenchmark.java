@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanel;
+import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measurement and layout of topic elements and rendering of whole map into
+ * image.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class LayoutBenchmark {
+
+  @Param({"2", "4"})
+  public int depth;
+
+  @Param({"6"})
+  public int fanOut;
+
+  @Param({"0", "64"})
+  public int imageSize;
+
+  @Param({"0", "7"})
+  public int jumpEvery;
+
+  private MindMap map;
+  private MindMapPanelConfig config;
+  private BufferedImage graphicsImage;
+  private MMGraphics gfx;
+
+  @Setup
+  public void setup() throws IOException {
+    this.map = new SyntheticMindMapGenerator(this.depth, this.fanOut, 0, this.imageSize, this.jumpEvery, 12345L).generate();
+    this.config = new MindMapPanelConfig();
+    this.graphicsImage = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+    this.gfx = new MMGraphics2DWrapper(this.graphicsImage.createGraphics());
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.gfx.dispose();
+  }
+
+  @Benchmark
+  @Nullable
+  public Dimension2D calculateSizesAndLayout() {
+    MindMapPanel.calculateElementSizes(this.gfx, this.map, this.config);
+    return MindMapPanel.layoutModelElements(this.map, this.config);
+  }
+
+  @Benchmark
+  @Nullable
+  public BufferedImage renderAsImage() {
+    return MindMapPanel.renderMindMapAsImage(this.map, this.config, false, RenderQuality.DEFAULT);
+  }
+}
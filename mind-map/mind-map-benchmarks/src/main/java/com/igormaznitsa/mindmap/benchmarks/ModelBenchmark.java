@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and writing of mind map text. Writing is measured for the streaming
+ * output into byte stream and channel and for the plain writer as baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+  @Param({"3", "5"})
+  public int depth;
+
+  @Param({"6"})
+  public int fanOut;
+
+  @Param({"0", "512"})
+  public int noteSize;
+
+  @Param({"0", "64"})
+  public int imageSize;
+
+  @Param({"0", "7"})
+  public int jumpEvery;
+
+  private String text;
+  private MindMap map;
+
+  @Setup
+  public void setup() throws IOException {
+    this.text = new SyntheticMindMapGenerator(this.depth, this.fanOut, this.noteSize, this.imageSize, this.jumpEvery, 12345L).generateText();
+    this.map = new MindMap(new StringReader(this.text));
+  }
+
+  @Benchmark
+  @Nonnull
+  public MindMap parse() throws IOException {
+    return new MindMap(new StringReader(this.text));
+  }
+
+  @Benchmark
+  @Nonnull
+  public ByteArrayOutputStream writeStream() throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream(this.text.length() * 2);
+    this.map.write(result, StandardCharsets.UTF_8);
+    return result;
+  }
+
+  @Benchmark
+  @Nonnull
+  public ByteArrayOutputStream writeChannel() throws IOException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream(this.text.length() * 2);
+    this.map.write(Channels.newChannel(result), StandardCharsets.UTF_8);
+    return result;
+  }
+
+  @Benchmark
+  @Nonnull
+  public StringWriter writeString() throws IOException {
+    return this.map.write(new StringWriter(this.text.length()));
+  }
+}
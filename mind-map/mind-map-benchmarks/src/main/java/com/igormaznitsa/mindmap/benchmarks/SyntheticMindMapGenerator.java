@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.benchmarks;
+
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.plugins.attributes.images.ImageVisualAttributePlugin;
+import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nonnull;
+
+/**
+ * Generator of synthetic mind maps for benchmarks. Generated maps depend only
+ * on parameters and seed, so that results of different runs are comparable.
+ */
+public final class SyntheticMindMapGenerator {
+
+  private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor incididunt ut labore et dolore magna aliqua"; //NOI18N
+  private static final String[] WORD_LIST = WORDS.split(" "); //NOI18N
+
+  private final int depth;
+  private final int fanOut;
+  private final int noteSize;
+  private final int imageSize;
+  private final int jumpEvery;
+  private final long seed;
+
+  /**
+   * Constructor.
+   *
+   * @param depth     number of topic levels under root
+   * @param fanOut    number of children for every topic which is not leaf
+   * @param noteSize  number of chars in note of every topic, 0 if no notes
+   * @param imageSize size of embedded image in pixels for every tenth topic, 0
+   *                  if no images
+   * @param jumpEvery every topic with index multiple of the value gets jump to
+   *                  random topic, 0 if no jumps
+   * @param seed      seed for random generator
+   */
+  public SyntheticMindMapGenerator(final int depth, final int fanOut, final int noteSize, final int imageSize, final int jumpEvery, final long seed) {
+    if (depth < 0 || fanOut < 0 || noteSize < 0 || imageSize < 0 || jumpEvery < 0) {
+      throw new IllegalArgumentException("Parameters must not be negative"); //NOI18N
+    }
+    this.depth = depth;
+    this.fanOut = fanOut;
+    this.noteSize = noteSize;
+    this.imageSize = imageSize;
+    this.jumpEvery = jumpEvery;
+    this.seed = seed;
+  }
+
+  @Nonnull
+  public MindMap generate() throws IOException {
+    final Random rnd = new Random(this.seed);
+    final MindMap result = new MindMap(true);
+    final Topic root = result.getRoot();
+    root.setText("Synthetic map " + this.depth + 'x' + this.fanOut); //NOI18N
+
+    final List<Topic> allTopics = new ArrayList<>();
+    allTopics.add(root);
+    addChildren(rnd, result, root, 1, allTopics);
+
+    final String image = this.imageSize > 0 ? makeImage(rnd) : null;
+
+    for (int i = 1; i < allTopics.size(); i++) {
+      final Topic topic = allTopics.get(i);
+      if (this.noteSize > 0) {
+        topic.setExtra(new ExtraNote(makeText(rnd, this.noteSize)));
+      }
+      if (image != null && i % 10 == 0) {
+        topic.setAttribute(ImageVisualAttributePlugin.ATTR_KEY, image);
+      }
+      if (this.jumpEvery > 0 && i % this.jumpEvery == 0) {
+        final Topic target = allTopics.get(rnd.nextInt(allTopics.size()));
+        if (target != topic) {
+          topic.setExtra(ExtraTopic.makeLinkTo(result, target));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  @Nonnull
+  public String generateText() throws IOException {
+    return generate().write(new StringWriter(16384)).toString();
+  }
+
+  private void addChildren(@Nonnull final Random rnd, @Nonnull final MindMap map, @Nonnull final Topic parent, final int level, @Nonnull final List<Topic> allTopics) {
+    if (level > this.depth) {
+      return;
+    }
+    for (int i = 0; i < this.fanOut; i++) {
+      final Topic topic = new Topic(map, parent, makeText(rnd, 8 + rnd.nextInt(24)));
+      if (level == 1 && (i & 1) != 0) {
+        topic.setAttribute(StandardTopicAttribute.ATTR_LEFTSIDE.getText(), "true"); //NOI18N
+      }
+      allTopics.add(topic);
+      addChildren(rnd, map, topic, level + 1, allTopics);
+    }
+  }
+
+  @Nonnull
+  private String makeImage(@Nonnull final Random rnd) throws IOException {
+    final BufferedImage image = new BufferedImage(this.imageSize, this.imageSize, BufferedImage.TYPE_INT_RGB);
+    for (int y = 0; y < this.imageSize; y++) {
+      for (int x = 0; x < this.imageSize; x++) {
+        image.setRGB(x, y, rnd.nextInt());
+      }
+    }
+    return Utils.rescaleImageAndEncodeAsBase64(image, this.imageSize);
+  }
+
+  @Nonnull
+  private static String makeText(@Nonnull final Random rnd, final int length) {
+    final StringBuilder result = new StringBuilder(length + 16);
+    while (result.length() < length) {
+      if (result.length() > 0) {
+        result.append(rnd.nextInt(40) == 0 ? '\n' : ' ');
+      }
+      result.append(WORD_LIST[rnd.nextInt(WORD_LIST.length)]);
+    }
+    result.setLength(length);
+    return result.toString().trim();
+  }
+}
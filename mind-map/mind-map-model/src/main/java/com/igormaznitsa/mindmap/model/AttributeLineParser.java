@@ -0,0 +1,200 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Single pass parser of attribute lines like {@code > key=`value`,key2=``val`ue``}.
+ * Values are expected in format produced by {@link ModelUtils#makeMDCodeBlock(String)},
+ * a value is closed by the first backtick run which is not shorter than the
+ * opening one. The last backticks of the run are used as the closing quote and
+ * the opening run can be shortened, so that values starting or ending with
+ * backticks are restored correctly; among possible quote lengths the one which
+ * is followed by the attribute delimiter and would be chosen by the writer for
+ * the value is preferred.
+ *
+ * @since 1.3.1
+ */
+final class AttributeLineParser {
+
+  private AttributeLineParser() {
+  }
+
+  private static boolean isSpace(final char chr) {
+    switch (chr) {
+      case ' ':
+      case '\t':
+      case '\n':
+      case '\u000B':
+      case '\f':
+      case '\r':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isLineTerminator(final char chr) {
+    switch (chr) {
+      case '\n':
+      case '\r':
+      case '\u0085':
+      case '\u2028':
+      case '\u2029':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Parse attribute line and place all found attributes into map.
+   *
+   * @param line line to be parsed, can contain line terminator at the end
+   * @param map  map to get found attributes
+   * @return true if the line is attribute line, false otherwise
+   */
+  static boolean parse(@Nonnull final CharSequence line, @Nonnull final Map<String, String> map) {
+    int end = line.length();
+    if (end > 0 && isLineTerminator(line.charAt(end - 1))) {
+      end--;
+      if (end > 0 && line.charAt(end) == '\n' && line.charAt(end - 1) == '\r') {
+        end--;
+      }
+    }
+
+    int pos = 0;
+    while (pos < end && isSpace(line.charAt(pos))) {
+      pos++;
+    }
+
+    if (pos + 2 >= end || line.charAt(pos) != '>' || !isSpace(line.charAt(pos + 1))) {
+      return false;
+    }
+    pos += 2;
+
+    for (int i = pos; i < end; i++) {
+      if (isLineTerminator(line.charAt(i))) {
+        return false;
+      }
+    }
+
+    while (pos < end) {
+      pos = parseNext(line, pos, end, map);
+    }
+    return true;
+  }
+
+  private static int parseNext(@Nonnull final CharSequence line, final int start, final int end, @Nonnull final Map<String, String> map) {
+    int keyStart = start;
+    if (line.charAt(keyStart) == ',') {
+      keyStart++;
+    }
+    while (keyStart < end && isSpace(line.charAt(keyStart))) {
+      keyStart++;
+    }
+
+    int keyEnd = keyStart;
+    while (keyEnd < end && !isSpace(line.charAt(keyEnd))) {
+      keyEnd++;
+    }
+
+    if (keyEnd == keyStart) {
+      return end;
+    }
+
+    for (int candidate = keyStart + 1; candidate <= keyEnd; candidate++) {
+      int pos = candidate;
+      if (candidate == keyEnd) {
+        while (pos < end && isSpace(line.charAt(pos))) {
+          pos++;
+        }
+      }
+      if (pos >= end || line.charAt(pos) != '=') {
+        continue;
+      }
+      pos++;
+      while (pos < end && isSpace(line.charAt(pos))) {
+        pos++;
+      }
+
+      int quoteEnd = pos;
+      while (quoteEnd < end && line.charAt(quoteEnd) == '`') {
+        quoteEnd++;
+      }
+
+      int selectedQuotes = -1;
+      int selectedRunEnd = -1;
+      int selectedRank = 0;
+      for (int quotes = quoteEnd - pos; quotes > 0 && selectedRank < 3; quotes--) {
+        final int closingRunEnd = findRunEnd(line, pos + quotes, end, quotes);
+        if (closingRunEnd >= 0) {
+          int rank = 1;
+          if (closingRunEnd == end || line.charAt(closingRunEnd) == ',' || isSpace(line.charAt(closingRunEnd))) {
+            rank = calcMaxBacktickRun(line, pos + quotes, closingRunEnd - quotes) == quotes - 1 ? 3 : 2;
+          }
+          if (rank > selectedRank) {
+            selectedRank = rank;
+            selectedQuotes = quotes;
+            selectedRunEnd = closingRunEnd;
+          }
+        }
+      }
+
+      if (selectedQuotes > 0) {
+        map.put(line.subSequence(keyStart, candidate).toString(), line.subSequence(pos + selectedQuotes, selectedRunEnd - selectedQuotes).toString());
+        return selectedRunEnd;
+      }
+    }
+
+    return keyEnd;
+  }
+
+  private static int calcMaxBacktickRun(@Nonnull final CharSequence line, final int start, final int end) {
+    int result = 0;
+    int counter = 0;
+    for (int i = start; i < end; i++) {
+      if (line.charAt(i) == '`') {
+        counter++;
+        result = Math.max(result, counter);
+      } else {
+        counter = 0;
+      }
+    }
+    return result;
+  }
+
+  private static int findRunEnd(@Nonnull final CharSequence line, final int start, final int end, final int minLength) {
+    int pos = start;
+    while (pos < end) {
+      if (line.charAt(pos) == '`') {
+        final int runStart = pos;
+        while (pos < end && line.charAt(pos) == '`') {
+          pos++;
+        }
+        if (pos - runStart >= minLength) {
+          return pos;
+        }
+      } else {
+        pos++;
+      }
+    }
+    return -1;
+  }
+}
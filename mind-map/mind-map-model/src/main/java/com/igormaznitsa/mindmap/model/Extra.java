@@ -58,6 +58,25 @@ public abstract class Extra<T> implements Serializable, Constants, Cloneable {
     TOPIC,
     UNKNOWN;
 
+    private static final ExtraType[] VALUES = values();
+
+    /**
+     * Find extra type for its name.
+     *
+     * @param name name of extra type, case sensitive
+     * @return found extra type or null if not found
+     * @since 1.3.1
+     */
+    @Nullable
+    public static ExtraType findForName(@Nonnull final CharSequence name) {
+      for (final ExtraType t : VALUES) {
+        if (t.name().contentEquals(name)) {
+          return t;
+        }
+      }
+      return null;
+    }
+
     @Nullable
     public String preprocessString(@Nullable final String str) {
       String result = null;
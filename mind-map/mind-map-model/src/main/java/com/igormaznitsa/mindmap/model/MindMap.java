@@ -22,13 +22,23 @@ import com.igormaznitsa.meta.common.utils.GetUtils;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.mindmap.model.parser.MindMapLexer;
+import com.igormaznitsa.mindmap.model.parser.ReaderCharBuffer;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -38,26 +48,27 @@ import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.io.IOUtils;
 
 public final class MindMap implements Serializable, Constants, Iterable<Topic> {
 
   public static final String FORMAT_VERSION = "1.1"; //NOI18N
   private static final long serialVersionUID = 5929181596778047354L;
   private static final Logger LOGGER = LoggerFactory.getLogger(MindMap.class);
-  private static final Pattern PATTERN_ATTRIBUTES = Pattern.compile("^\\s*\\>\\s(.+)$"); //NOI18N
-  private static final Pattern PATTERN_ATTRIBUTE = Pattern.compile("[,]?\\s*([\\S]+?)\\s*=\\s*(\\`+)(.*?)\\2"); //NOI18N
   private static final String GENERATOR_VERSION_NAME = "__version__"; //NOI18N
+  private static final int WRITE_BUFFER_SIZE = 16384;
   private final transient Lock locker = new ReentrantLock();
   private final Map<String, String> attributes = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
   private final transient List<MindMapModelEventListener> modelEventListeners = new CopyOnWriteArrayList<MindMapModelEventListener>();
 
   @Nullable
   private Topic root;
+  @Nullable
+  private transient volatile TopicLinkIndex topicLinkIndex;
+  @Nullable
+  private transient MindMapHistory history;
 
   public MindMap(final boolean makeRoot) {
     if (makeRoot) {
@@ -72,10 +83,12 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
   }
 
   public MindMap(@Nonnull final Reader reader) throws IOException {
-    final String text = IOUtils.toString(Assertions.assertNotNull(reader));
+    this(reader, ReaderCharBuffer.DEFAULT_CHUNK_SIZE);
+  }
 
+  private MindMap(@Nonnull final Reader reader, final int chunkSize) throws IOException {
     final MindMapLexer lexer = new MindMapLexer();
-    lexer.start(text, 0, text.length(), MindMapLexer.TokenType.HEAD_LINE);
+    lexer.start(Assertions.assertNotNull(reader), chunkSize, MindMapLexer.TokenType.HEAD_LINE);
 
     Topic rootTopic = null;
 
@@ -88,13 +101,14 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
 
       final MindMapLexer.TokenType token = lexer.getTokenType();
       if (token == null || lexerPositionWasNotChanged) {
+        lexer.checkStreamError();
         throw new IllegalArgumentException("Wrong format of mind map, end of header is not found");
       }
       switch (token) {
         case HEAD_LINE:
           continue;
         case ATTRIBUTE: {
-          fillMapByAttributes(lexer.getTokenText(), this.attributes);
+          fillMapByAttributes(lexer.getTokenView(), this.attributes);
         }
         break;
         case HEAD_DELIMITER: {
@@ -106,21 +120,32 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
           break;
       }
     }
+    lexer.checkStreamError();
 
     this.root = rootTopic;
     this.attributes.put(GENERATOR_VERSION_NAME, FORMAT_VERSION);
+    invalidateTopicLinkIndex();
+  }
+
+  /**
+   * Read mind map from reader. Text is processed by chunks and topics are
+   * built during reading so that the whole text is never kept in memory.
+   * The reader is not closed.
+   *
+   * @param reader    source of mind map text, must not be null
+   * @param chunkSize number of chars to be read per one read operation
+   * @return loaded mind map
+   * @throws IOException              thrown for transport errors
+   * @throws IllegalArgumentException thrown if the text has wrong format
+   * @since 1.3.1
+   */
+  @Nonnull
+  public static MindMap read(@Nonnull final Reader reader, final int chunkSize) throws IOException {
+    return new MindMap(reader, chunkSize);
   }
 
-  static boolean fillMapByAttributes(@Nonnull final String line, @Nonnull final Map<String, String> map) {
-    final Matcher attrmatcher = PATTERN_ATTRIBUTES.matcher(line);
-    if (attrmatcher.find()) {
-      final Matcher attrParser = PATTERN_ATTRIBUTE.matcher(attrmatcher.group(1));
-      while (attrParser.find()) {
-        map.put(attrParser.group(1), attrParser.group(3));
-      }
-      return true;
-    }
-    return false;
+  static boolean fillMapByAttributes(@Nonnull final CharSequence line, @Nonnull final Map<String, String> map) {
+    return AttributeLineParser.parse(line, map);
   }
 
   @Nonnull
@@ -206,6 +231,7 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
   public void setRoot(@Nullable final Topic newRoot, final boolean makeNotification) {
     this.locker.lock();
     try {
+      final Topic oldRoot = this.root;
       if (newRoot == null) {
         this.root = newRoot;
       } else {
@@ -214,6 +240,10 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
         }
         this.root = newRoot;
       }
+      if (oldRoot != newRoot) {
+        recordChange(new MindMapHistory.RootChange(this, oldRoot, newRoot));
+      }
+      invalidateTopicLinkIndex();
       if (makeNotification) {
         fireModelChanged();
       }
@@ -291,16 +321,71 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
   public void setAttribute(@Nonnull final String name, @Nullable final String value) {
     this.locker.lock();
     try {
+      final String oldValue;
       if (value == null) {
-        this.attributes.remove(name);
+        oldValue = this.attributes.remove(name);
       } else {
-        this.attributes.put(name, value);
+        oldValue = this.attributes.put(name, value);
+      }
+      if (isHistoryRecording() && (value == null ? oldValue != null : !value.equals(oldValue))) {
+        recordChange(new MindMapHistory.MapAttributeChange(this, name, oldValue, value));
       }
     } finally {
       this.locker.unlock();
     }
   }
 
+  /**
+   * Get history which records changes of the map.
+   *
+   * @return attached history or null
+   * @see MindMapHistory#reset(MindMap)
+   * @since 1.3.1
+   */
+  @Nullable
+  public MindMapHistory getHistory() {
+    return this.history;
+  }
+
+  void setHistory(@Nullable final MindMapHistory history) {
+    this.history = history;
+  }
+
+  boolean isHistoryRecording() {
+    return this.history != null;
+  }
+
+  void recordChange(@Nonnull final MindMapHistory.Change change) {
+    final MindMapHistory theHistory = this.history;
+    if (theHistory != null) {
+      theHistory.record(change);
+    }
+  }
+
+  void recordUnsupportedChange() {
+    final MindMapHistory theHistory = this.history;
+    if (theHistory != null) {
+      theHistory.recordUnsupported();
+    }
+  }
+
+  void restoreRoot(@Nullable final Topic topic) {
+    this.root = topic;
+  }
+
+  void restoreAttribute(@Nonnull final String name, @Nullable final String value) {
+    if (value == null) {
+      this.attributes.remove(name);
+    } else {
+      this.attributes.put(name, value);
+    }
+  }
+
+  void notifyRestored() {
+    invalidateTopicLinkIndex();
+    fireModelChanged();
+  }
+
   public void resetPayload() {
     this.locker.lock();
     try {
@@ -405,6 +490,43 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
     return writer.toString();
   }
 
+  /**
+   * Write mind map text directly into output stream, text is encoded through
+   * buffer without making intermediate string for the whole document. The
+   * stream is flushed but not closed.
+   *
+   * @param out     output stream, must not be null
+   * @param charset charset to encode text, must not be null
+   * @throws IOException thrown for transport errors
+   * @since 1.3.1
+   */
+  public void write(@Nonnull final OutputStream out, @Nonnull final Charset charset) throws IOException {
+    writeAndFlush(new OutputStreamWriter(out, charset));
+  }
+
+  /**
+   * Write mind map text directly into channel, text is encoded through
+   * buffer without making intermediate string for the whole document. The
+   * channel is not closed.
+   *
+   * @param channel channel to get data, must not be null
+   * @param charset charset to encode text, must not be null
+   * @throws IOException thrown for transport errors
+   * @since 1.3.1
+   */
+  public void write(@Nonnull final WritableByteChannel channel, @Nonnull final Charset charset) throws IOException {
+    final CharsetEncoder encoder = charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    writeAndFlush(Channels.newWriter(channel, encoder, -1));
+  }
+
+  private void writeAndFlush(@Nonnull final Writer encodingWriter) throws IOException {
+    final Writer writer = new BufferedWriter(encodingWriter, WRITE_BUFFER_SIZE);
+    write(writer);
+    writer.flush();
+  }
+
   @Nonnull
   public <T extends Writer> T write(@Nonnull final T out) throws IOException {
     this.locker.lock();
@@ -447,6 +569,7 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
       }
 
       clonedtopic.removeAttributeFromSubtree(ExtraTopic.TOPIC_UID_ATTR);
+      invalidateTopicLinkIndex();
 
       fireModelChanged();
 
@@ -473,6 +596,7 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
         rootTopic.removeTopic(topic);
         result = rootTopic.removeAllLinksTo(topic);
       }
+      invalidateTopicLinkIndex();
       if (result) {
         fireModelChanged();
       }
@@ -483,19 +607,40 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
     }
   }
 
+  /**
+   * Mark cached index of topic links as outdated, it will be rebuilt during
+   * next request. Must be called for any change of topic tree structure, topic
+   * link UID attributes or topic jump extras.
+   *
+   * @since 1.3.1
+   */
+  void invalidateTopicLinkIndex() {
+    this.topicLinkIndex = null;
+  }
+
+  @Nonnull
+  private TopicLinkIndex getTopicLinkIndex() {
+    TopicLinkIndex result = this.topicLinkIndex;
+    if (result == null) {
+      this.locker.lock();
+      try {
+        result = this.topicLinkIndex;
+        if (result == null) {
+          result = new TopicLinkIndex(this.root);
+          this.topicLinkIndex = result;
+        }
+      } finally {
+        this.locker.unlock();
+      }
+    }
+    return result;
+  }
+
   @Nullable
   public Topic findTopicForLink(@Nullable final ExtraTopic link) {
     Topic result = null;
     if (link != null) {
-      final Topic rootTopic = this.root;
-      if (rootTopic != null) {
-        this.locker.lock();
-        try {
-          result = rootTopic.findForAttribute(ExtraTopic.TOPIC_UID_ATTR, link.getValue());
-        } finally {
-          this.locker.unlock();
-        }
-      }
+      result = getTopicLinkIndex().topicsForUid.get(link.getValue());
     }
     return result;
   }
@@ -503,6 +648,10 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
   @Nonnull
   @MustNotContainNull
   public List<Topic> findAllTopicsForExtraType(@Nonnull final Extra.ExtraType type) {
+    if (type == Extra.ExtraType.TOPIC) {
+      return new ArrayList<Topic>(getTopicLinkIndex().topicsWithJumps);
+    }
+
     final List<Topic> result = new ArrayList<Topic>();
     final Topic rootTopic = this.root;
     if (rootTopic != null) {
@@ -621,4 +770,33 @@ public final class MindMap implements Serializable, Constants, Iterable<Topic> {
     }
   }
 
+
+  /**
+   * Snapshot of topic link UIDs and topics containing jumps, collected in
+   * tree order, the first topic wins for duplicated UIDs.
+   */
+  private static final class TopicLinkIndex {
+
+    private final Map<String, Topic> topicsForUid = new HashMap<String, Topic>();
+    private final List<Topic> topicsWithJumps = new ArrayList<Topic>();
+
+    private TopicLinkIndex(@Nullable final Topic root) {
+      if (root != null) {
+        add(root);
+      }
+    }
+
+    private void add(@Nonnull final Topic topic) {
+      final String uid = topic.getAttribute(ExtraTopic.TOPIC_UID_ATTR);
+      if (uid != null && !this.topicsForUid.containsKey(uid)) {
+        this.topicsForUid.put(uid, topic);
+      }
+      if (topic.getExtras().containsKey(Extra.ExtraType.TOPIC)) {
+        this.topicsWithJumps.add(topic);
+      }
+      for (final Topic c : topic.getChildren()) {
+        add(c);
+      }
+    }
+  }
 }
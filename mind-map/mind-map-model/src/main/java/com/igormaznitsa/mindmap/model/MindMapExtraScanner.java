@@ -0,0 +1,277 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.mindmap.model.parser.MindMapLexer;
+import com.igormaznitsa.mindmap.model.parser.ReaderCharBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Scanner of mind map text which extracts only extras of requested types
+ * without building of topic tree. Topic titles, notes of not requested types,
+ * code snippets and attributes are skipped on lexer level, so that the scanner
+ * is much cheaper than {@link MindMap} for queries like search of file links in
+ * all maps of project. Topics are tracked only as position paths in the same
+ * format as {@link Topic#getPositionPath()}.
+ *
+ * @since 1.3.1
+ */
+public final class MindMapExtraScanner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MindMapExtraScanner.class);
+
+  /**
+   * Visitor of found extras.
+   */
+  public interface ExtraVisitor {
+
+    /**
+     * Called for every found extra, extras of topic are reported in order of
+     * their types.
+     *
+     * @param topicPositionPath position path of topic, the array is owned by
+     *                          visitor
+     * @param extra             found extra
+     * @return true if scanning should be continued, false to stop
+     */
+    boolean onExtra(@Nonnull int[] topicPositionPath, @Nonnull Extra<?> extra);
+  }
+
+  /**
+   * Found extra together with its topic position path.
+   */
+  public static final class FoundExtra {
+
+    private final int[] topicPositionPath;
+    private final Extra<?> extra;
+
+    private FoundExtra(@Nonnull final int[] topicPositionPath, @Nonnull final Extra<?> extra) {
+      this.topicPositionPath = topicPositionPath;
+      this.extra = extra;
+    }
+
+    @Nonnull
+    public int[] getTopicPositionPath() {
+      return this.topicPositionPath.clone();
+    }
+
+    @Nonnull
+    public Extra<?> getExtra() {
+      return this.extra;
+    }
+  }
+
+  private final Set<Extra.ExtraType> types;
+  private final Map<Extra.ExtraType, Extra<?>> topicExtras = new EnumMap<Extra.ExtraType, Extra<?>>(Extra.ExtraType.class);
+
+  private int[] path = new int[16];
+  private int[] childCounters = new int[17];
+  private int pathLength;
+
+  private MindMapExtraScanner(@Nonnull final Set<Extra.ExtraType> types) {
+    this.types = types.isEmpty() ? EnumSet.noneOf(Extra.ExtraType.class) : EnumSet.copyOf(types);
+  }
+
+  /**
+   * Scan mind map text and report extras of requested types. The reader is not
+   * closed.
+   *
+   * @param reader  source of mind map text, must not be null
+   * @param types   types of extras to be reported
+   * @param visitor visitor of found extras
+   * @return true if whole text has been scanned, false if scanning has been
+   * stopped by visitor
+   * @throws IOException              thrown for transport errors
+   * @throws IllegalArgumentException thrown if the text has wrong format
+   */
+  public static boolean scan(@Nonnull final Reader reader, @Nonnull final Set<Extra.ExtraType> types, @Nonnull final ExtraVisitor visitor) throws IOException {
+    return new MindMapExtraScanner(types).process(reader, visitor);
+  }
+
+  /**
+   * Find all extras of requested types in mind map text. The reader is not
+   * closed.
+   *
+   * @param reader source of mind map text, must not be null
+   * @param types  types of extras to be found
+   * @return list of found extras in topic order
+   * @throws IOException              thrown for transport errors
+   * @throws IllegalArgumentException thrown if the text has wrong format
+   */
+  @Nonnull
+  @MustNotContainNull
+  public static List<FoundExtra> findAll(@Nonnull final Reader reader, @Nonnull final Set<Extra.ExtraType> types) throws IOException {
+    final List<FoundExtra> result = new ArrayList<FoundExtra>();
+    scan(reader, types, new ExtraVisitor() {
+      @Override
+      public boolean onExtra(@Nonnull final int[] topicPositionPath, @Nonnull final Extra<?> extra) {
+        result.add(new FoundExtra(topicPositionPath, extra));
+        return true;
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Check that mind map text contains link to file, scanning is stopped on the
+   * first found link. The reader is not closed.
+   *
+   * @param reader     source of mind map text, must not be null
+   * @param baseFolder base folder for relative links
+   * @param file       file to be found
+   * @return true if there is link to the file in the map
+   * @throws IOException              thrown for transport errors
+   * @throws IllegalArgumentException thrown if the text has wrong format
+   * @see MindMap#doesContainFileLink(java.io.File, MMapURI)
+   */
+  public static boolean doesContainFileLink(@Nonnull final Reader reader, @Nonnull final File baseFolder, @Nonnull final MMapURI file) throws IOException {
+    return !scan(reader, EnumSet.of(Extra.ExtraType.FILE), new ExtraVisitor() {
+      @Override
+      public boolean onExtra(@Nonnull final int[] topicPositionPath, @Nonnull final Extra<?> extra) {
+        return !((ExtraFile) extra).isSame(baseFolder, file);
+      }
+    });
+  }
+
+  private boolean process(@Nonnull final Reader reader, @Nonnull final ExtraVisitor visitor) throws IOException {
+    final MindMapLexer lexer = new MindMapLexer();
+    lexer.start(reader, ReaderCharBuffer.DEFAULT_CHUNK_SIZE, MindMapLexer.TokenType.HEAD_LINE);
+
+    boolean header = true;
+    while (header) {
+      final int oldLexerPosition = lexer.getCurrentPosition().getOffset();
+      lexer.advance();
+      final MindMapLexer.TokenType token = lexer.getTokenType();
+      if (token == null || oldLexerPosition == lexer.getCurrentPosition().getOffset()) {
+        lexer.checkStreamError();
+        throw new IllegalArgumentException("Wrong format of mind map, end of header is not found");
+      }
+      header = token != MindMapLexer.TokenType.HEAD_DELIMITER;
+    }
+
+    int depth = 0;
+    int detectedLevel = -1;
+    Extra.ExtraType extraType = null;
+
+    while (true) {
+      final int oldLexerPosition = lexer.getCurrentPosition().getOffset();
+      lexer.advance();
+      final MindMapLexer.TokenType token = lexer.getTokenType();
+      if (token == null || oldLexerPosition == lexer.getCurrentPosition().getOffset()) {
+        break;
+      }
+
+      switch (token) {
+        case TOPIC_LEVEL: {
+          detectedLevel = ModelUtils.calcCharsOnStart('#', lexer.getTokenView());
+        }
+        break;
+        case TOPIC_TITLE: {
+          if (detectedLevel > 0 && detectedLevel <= depth + 1) {
+            if (!flushTopicExtras(visitor)) {
+              return false;
+            }
+            enterTopic(detectedLevel);
+            depth = detectedLevel;
+          }
+        }
+        break;
+        case EXTRA_TYPE: {
+          final CharSequence tokenView = lexer.getTokenView();
+          extraType = Extra.ExtraType.findForName(ModelUtils.trim(tokenView.subSequence(1, tokenView.length())));
+        }
+        break;
+        case EXTRA_TEXT: {
+          if (depth > 0 && extraType != null && this.types.contains(extraType)) {
+            try {
+              final CharSequence tokenView = lexer.getTokenView();
+              final String groupPre = extraType.preprocessString(tokenView.subSequence(5, tokenView.length() - 6).toString());
+              if (groupPre != null) {
+                this.topicExtras.put(extraType, extraType.parseLoaded(groupPre));
+              } else {
+                LOGGER.error("Detected invalid extra data " + extraType);
+              }
+            } catch (Exception ex) {
+              LOGGER.error("Unexpected exception during scan of extra", ex); //NOI18N
+            }
+          }
+          if (depth > 0) {
+            extraType = null;
+          }
+        }
+        break;
+        case ATTRIBUTE: {
+          extraType = null;
+        }
+        break;
+        case UNKNOWN_LINE: {
+          if (depth > 0) {
+            extraType = null;
+          }
+        }
+        break;
+        default:
+          break;
+      }
+    }
+    lexer.checkStreamError();
+
+    return flushTopicExtras(visitor);
+  }
+
+  private void enterTopic(final int level) {
+    if (level >= this.path.length) {
+      final int[] newPath = new int[level * 2];
+      System.arraycopy(this.path, 0, newPath, 0, this.path.length);
+      this.path = newPath;
+      final int[] newCounters = new int[level * 2 + 1];
+      System.arraycopy(this.childCounters, 0, newCounters, 0, this.childCounters.length);
+      this.childCounters = newCounters;
+    }
+    this.path[level - 1] = level == 1 ? 0 : this.childCounters[level - 1]++;
+    this.childCounters[level] = 0;
+    this.pathLength = level;
+  }
+
+  private boolean flushTopicExtras(@Nonnull final ExtraVisitor visitor) {
+    boolean result = true;
+    if (!this.topicExtras.isEmpty()) {
+      for (final Extra<?> e : this.topicExtras.values()) {
+        final int[] topicPath = new int[this.pathLength];
+        System.arraycopy(this.path, 0, topicPath, 0, this.pathLength);
+        if (!visitor.onExtra(topicPath, e)) {
+          result = false;
+          break;
+        }
+      }
+      this.topicExtras.clear();
+    }
+    return result;
+  }
+}
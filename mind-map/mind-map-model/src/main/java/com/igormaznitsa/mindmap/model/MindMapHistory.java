@@ -0,0 +1,615 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Undo/redo history of mind map changes. Every change of attached mind map
+ * (topic text, attributes, code snippets, extras, position of topic in tree,
+ * root and map attributes) is recorded as small reversible command which keeps
+ * only old and new value, so that undo and redo are applied to the same model
+ * in place without serialization and parsing of the whole map. Recorded
+ * changes are collected in pending group which becomes one history step
+ * during {@link #commit()}.
+ * <p>
+ * History is limited by number of steps and by estimated memory, the oldest
+ * steps are dropped if any limit is exceeded. The class is not thread safe, it
+ * should be used in the same thread which makes changes of the map.
+ *
+ * @since 1.3.1
+ */
+public final class MindMapHistory {
+
+  public static final int DEFAULT_MAX_DEPTH = 256;
+  public static final long DEFAULT_MAX_MEMORY = 16L * 1024L * 1024L;
+
+  private static final int CHANGE_OVERHEAD = 48;
+  private static final int TOPIC_SIZE_ESTIMATION = 256;
+  private static final int MAP_ENTRY_OVERHEAD = 40;
+
+  /**
+   * Reversible change of mind map.
+   */
+  abstract static class Change {
+
+    abstract void undo();
+
+    abstract void redo();
+
+    /**
+     * Estimate memory retained by the change.
+     *
+     * @param countedTopics topics already counted in the same step, detached
+     *                      subtree retained by several changes must be counted
+     *                      once
+     * @return estimated size in bytes
+     */
+    abstract long estimateSize(@Nonnull Set<Topic> countedTopics);
+  }
+
+  private static final class Step {
+
+    private final List<Change> changes;
+    private final long size;
+
+    private Step(@Nonnull @MustNotContainNull final List<Change> changes) {
+      this.changes = changes;
+      final Set<Topic> countedTopics = Collections.newSetFromMap(new IdentityHashMap<Topic, Boolean>());
+      long total = 0L;
+      for (final Change c : changes) {
+        total += c.estimateSize(countedTopics);
+      }
+      this.size = total;
+    }
+
+    private void undo() {
+      for (int i = this.changes.size() - 1; i >= 0; i--) {
+        this.changes.get(i).undo();
+      }
+    }
+
+    private void redo() {
+      for (final Change c : this.changes) {
+        c.redo();
+      }
+    }
+  }
+
+  private final int maxDepth;
+  private final long maxMemory;
+
+  private final Deque<Step> undoSteps = new ArrayDeque<Step>();
+  private final Deque<Step> redoSteps = new ArrayDeque<Step>();
+  private final List<Change> pending = new ArrayList<Change>();
+
+  private MindMap map;
+  private long usedMemory;
+  private boolean someStateLost;
+
+  /**
+   * Constructor.
+   *
+   * @param maxDepth  max number of undo steps, must be positive
+   * @param maxMemory max estimated memory in bytes for all steps
+   */
+  public MindMapHistory(final int maxDepth, final long maxMemory) {
+    if (maxDepth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive : " + maxDepth);
+    }
+    this.maxDepth = maxDepth;
+    this.maxMemory = maxMemory;
+  }
+
+  public MindMapHistory() {
+    this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_MEMORY);
+  }
+
+  /**
+   * Get currently attached mind map.
+   *
+   * @return attached mind map or null
+   */
+  @Nullable
+  public MindMap getMap() {
+    return this.map;
+  }
+
+  /**
+   * Drop all recorded changes and attach history to mind map.
+   *
+   * @param newMap mind map to be attached, can be null
+   */
+  public void reset(@Nullable final MindMap newMap) {
+    this.undoSteps.clear();
+    this.redoSteps.clear();
+    this.pending.clear();
+    this.usedMemory = 0L;
+    this.someStateLost = false;
+    attach(newMap);
+  }
+
+  /**
+   * Record replacement of attached mind map by another one and attach history
+   * to the new map. Undo of the change returns the old map.
+   *
+   * @param newMap new mind map, must not be null
+   */
+  public void replaceMap(@Nonnull final MindMap newMap) {
+    final MindMap oldMap = this.map;
+    if (oldMap != newMap) {
+      if (oldMap == null) {
+        attach(newMap);
+      } else {
+        this.pending.add(new MapChange(this, oldMap, newMap));
+        attach(newMap);
+      }
+    }
+  }
+
+  private void attach(@Nullable final MindMap newMap) {
+    if (this.map != null && this.map != newMap) {
+      this.map.setHistory(null);
+    }
+    this.map = newMap;
+    if (newMap != null) {
+      newMap.setHistory(this);
+    }
+  }
+
+  void record(@Nonnull final Change change) {
+    this.pending.add(change);
+  }
+
+  /**
+   * Called for change which can't be recorded, all history is dropped.
+   */
+  void recordUnsupported() {
+    if (!this.undoSteps.isEmpty() || !this.pending.isEmpty()) {
+      this.someStateLost = true;
+    }
+    this.undoSteps.clear();
+    this.redoSteps.clear();
+    this.pending.clear();
+    this.usedMemory = 0L;
+  }
+
+  /**
+   * Make history step from all pending changes. Redo steps are dropped if
+   * there was any change.
+   *
+   * @return true if new step has been added, false if there were not any
+   * pending changes
+   */
+  public boolean commit() {
+    if (this.pending.isEmpty()) {
+      return false;
+    }
+    final Step step = new Step(new ArrayList<Change>(this.pending));
+    this.pending.clear();
+
+    for (final Step s : this.redoSteps) {
+      this.usedMemory -= s.size;
+    }
+    this.redoSteps.clear();
+
+    this.undoSteps.addLast(step);
+    this.usedMemory += step.size;
+
+    while (this.undoSteps.size() > 1 && (this.undoSteps.size() > this.maxDepth || this.usedMemory > this.maxMemory)) {
+      this.usedMemory -= this.undoSteps.removeFirst().size;
+      this.someStateLost = true;
+    }
+    return true;
+  }
+
+  private void mergePendingIntoLastStep() {
+    if (!this.pending.isEmpty() && !this.undoSteps.isEmpty()) {
+      final Step last = this.undoSteps.removeLast();
+      this.usedMemory -= last.size;
+      final List<Change> merged = new ArrayList<Change>(last.changes);
+      merged.addAll(this.pending);
+      this.pending.clear();
+      final Step step = new Step(merged);
+      this.undoSteps.addLast(step);
+      this.usedMemory += step.size;
+    }
+  }
+
+  /**
+   * Get estimated memory retained by all undo and redo steps.
+   *
+   * @return estimated size in bytes
+   */
+  long getUsedMemory() {
+    return this.usedMemory;
+  }
+
+  public boolean hasUndo() {
+    return !this.undoSteps.isEmpty();
+  }
+
+  public boolean hasRedo() {
+    return !this.redoSteps.isEmpty();
+  }
+
+  /**
+   * Check that some states have been dropped from history because of limits or
+   * marked as lost.
+   *
+   * @return true if some state has been lost
+   */
+  public boolean hasLostStates() {
+    return this.someStateLost;
+  }
+
+  public void setFlagThatSomeStateLost() {
+    this.someStateLost = true;
+  }
+
+  /**
+   * Undo the last step. Not committed changes are undone together with the
+   * step.
+   *
+   * @return mind map which is actual after undo (it can differ from the
+   * attached one if replacement of map has been undone), null if there is not
+   * any step to undo
+   */
+  @Nullable
+  public MindMap undo() {
+    mergePendingIntoLastStep();
+    if (this.undoSteps.isEmpty()) {
+      return null;
+    }
+    final Step step = this.undoSteps.removeLast();
+    applyToMap(step, true);
+    this.redoSteps.addLast(step);
+    return this.map;
+  }
+
+  /**
+   * Redo the last undone step. If there are not committed changes then they
+   * are committed and redo steps are dropped.
+   *
+   * @return mind map which is actual after redo, null if there is not any step
+   * to redo
+   */
+  @Nullable
+  public MindMap redo() {
+    if (!this.pending.isEmpty()) {
+      commit();
+    }
+    if (this.redoSteps.isEmpty()) {
+      return null;
+    }
+    final Step step = this.redoSteps.removeLast();
+    applyToMap(step, false);
+    this.undoSteps.addLast(step);
+    return this.map;
+  }
+
+  private void applyToMap(@Nonnull final Step step, final boolean undo) {
+    final MindMap theMap = this.map;
+    if (theMap != null) {
+      theMap.lock();
+    }
+    try {
+      if (undo) {
+        step.undo();
+      } else {
+        step.redo();
+      }
+    } finally {
+      if (theMap != null) {
+        theMap.unlock();
+      }
+    }
+    final MindMap actualMap = this.map;
+    if (actualMap != null) {
+      actualMap.notifyRestored();
+    }
+  }
+
+  private static long estimate(@Nullable final String text) {
+    return text == null ? 0L : 40L + text.length() * 2L;
+  }
+
+  private static long estimate(@Nullable final Extra<?> extra) {
+    return extra == null ? 0L : 32L + extra.getAsString().length() * 2L;
+  }
+
+  /**
+   * Estimate memory retained by topic together with its subtree, detached
+   * subtrees are kept alive only by history so that they must be counted in
+   * memory limit.
+   *
+   * @param topic topic to be estimated, can be null
+   * @return estimated size in bytes
+   */
+  static long estimateSubtree(@Nullable final Topic topic) {
+    return estimateSubtree(topic, Collections.newSetFromMap(new IdentityHashMap<Topic, Boolean>()));
+  }
+
+  /**
+   * Estimate memory retained by topic together with its subtree, topics which
+   * are already counted are skipped together with their subtrees.
+   *
+   * @param topic         topic to be estimated, can be null
+   * @param countedTopics already counted topics, counted topics are added
+   * @return estimated size in bytes
+   */
+  static long estimateSubtree(@Nullable final Topic topic, @Nonnull final Set<Topic> countedTopics) {
+    long result = 0L;
+    if (topic != null) {
+      final Deque<Topic> stack = new ArrayDeque<Topic>();
+      stack.push(topic);
+      while (!stack.isEmpty()) {
+        final Topic t = stack.pop();
+        if (!countedTopics.add(t)) {
+          continue;
+        }
+        result += TOPIC_SIZE_ESTIMATION + estimate(t.getText());
+        for (final Extra<?> e : t.getExtras().values()) {
+          result += estimate(e);
+        }
+        for (final Map.Entry<String, String> e : t.getAttributes().entrySet()) {
+          result += MAP_ENTRY_OVERHEAD + estimate(e.getKey()) + estimate(e.getValue());
+        }
+        for (final Map.Entry<String, String> e : t.getCodeSnippets().entrySet()) {
+          result += MAP_ENTRY_OVERHEAD + estimate(e.getKey()) + estimate(e.getValue());
+        }
+        for (final Topic c : t.getChildren()) {
+          stack.push(c);
+        }
+      }
+    }
+    return result;
+  }
+
+  static final class TextChange extends Change {
+
+    private final Topic topic;
+    private final String oldText;
+    private final String newText;
+
+    TextChange(@Nonnull final Topic topic, @Nonnull final String oldText, @Nonnull final String newText) {
+      this.topic = topic;
+      this.oldText = oldText;
+      this.newText = newText;
+    }
+
+    @Override
+    void undo() {
+      this.topic.restoreText(this.oldText);
+    }
+
+    @Override
+    void redo() {
+      this.topic.restoreText(this.newText);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return CHANGE_OVERHEAD + estimate(this.oldText) + estimate(this.newText);
+    }
+  }
+
+  static final class AttributeChange extends Change {
+
+    private final Topic topic;
+    private final boolean codeSnippet;
+    private final String name;
+    private final String oldValue;
+    private final String newValue;
+
+    AttributeChange(@Nonnull final Topic topic, final boolean codeSnippet, @Nonnull final String name, @Nullable final String oldValue, @Nullable final String newValue) {
+      this.topic = topic;
+      this.codeSnippet = codeSnippet;
+      this.name = name;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    @Override
+    void undo() {
+      this.topic.restoreAttribute(this.codeSnippet, this.name, this.oldValue);
+    }
+
+    @Override
+    void redo() {
+      this.topic.restoreAttribute(this.codeSnippet, this.name, this.newValue);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return CHANGE_OVERHEAD + estimate(this.name) + estimate(this.oldValue) + estimate(this.newValue);
+    }
+  }
+
+  static final class ExtraChange extends Change {
+
+    private final Topic topic;
+    private final Extra.ExtraType type;
+    private final Extra<?> oldExtra;
+    private final Extra<?> newExtra;
+
+    ExtraChange(@Nonnull final Topic topic, @Nonnull final Extra.ExtraType type, @Nullable final Extra<?> oldExtra, @Nullable final Extra<?> newExtra) {
+      this.topic = topic;
+      this.type = type;
+      this.oldExtra = oldExtra;
+      this.newExtra = newExtra;
+    }
+
+    @Override
+    void undo() {
+      this.topic.restoreExtra(this.type, this.oldExtra);
+    }
+
+    @Override
+    void redo() {
+      this.topic.restoreExtra(this.type, this.newExtra);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return CHANGE_OVERHEAD + estimate(this.oldExtra) + estimate(this.newExtra);
+    }
+  }
+
+  /**
+   * Change of topic position in tree. Container is the topic which children
+   * list contains the topic, null container means that the topic is not in
+   * tree.
+   */
+  static final class PlaceChange extends Change {
+
+    private final Topic topic;
+    private final Topic oldParent;
+    private final Topic oldContainer;
+    private final int oldIndex;
+    private final Topic newParent;
+    private final Topic newContainer;
+    private final int newIndex;
+
+    PlaceChange(@Nonnull final Topic topic, @Nullable final Topic oldParent, @Nullable final Topic oldContainer, final int oldIndex, @Nullable final Topic newParent, @Nullable final Topic newContainer, final int newIndex) {
+      this.topic = topic;
+      this.oldParent = oldParent;
+      this.oldContainer = oldContainer;
+      this.oldIndex = oldIndex;
+      this.newParent = newParent;
+      this.newContainer = newContainer;
+      this.newIndex = newIndex;
+    }
+
+    @Override
+    void undo() {
+      this.topic.restorePlace(this.newContainer, this.newIndex, this.oldContainer, this.oldIndex, this.oldParent);
+    }
+
+    @Override
+    void redo() {
+      this.topic.restorePlace(this.oldContainer, this.oldIndex, this.newContainer, this.newIndex, this.newParent);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      long result = CHANGE_OVERHEAD + 16L;
+      if (this.oldContainer == null || this.newContainer == null) {
+        result += estimateSubtree(this.topic, countedTopics);
+      }
+      return result;
+    }
+  }
+
+  static final class RootChange extends Change {
+
+    private final MindMap map;
+    private final Topic oldRoot;
+    private final Topic newRoot;
+
+    RootChange(@Nonnull final MindMap map, @Nullable final Topic oldRoot, @Nullable final Topic newRoot) {
+      this.map = map;
+      this.oldRoot = oldRoot;
+      this.newRoot = newRoot;
+    }
+
+    @Override
+    void undo() {
+      this.map.restoreRoot(this.oldRoot);
+    }
+
+    @Override
+    void redo() {
+      this.map.restoreRoot(this.newRoot);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return CHANGE_OVERHEAD + estimateSubtree(this.oldRoot, countedTopics) + estimateSubtree(this.newRoot, countedTopics);
+    }
+  }
+
+  static final class MapAttributeChange extends Change {
+
+    private final MindMap map;
+    private final String name;
+    private final String oldValue;
+    private final String newValue;
+
+    MapAttributeChange(@Nonnull final MindMap map, @Nonnull final String name, @Nullable final String oldValue, @Nullable final String newValue) {
+      this.map = map;
+      this.name = name;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    @Override
+    void undo() {
+      this.map.restoreAttribute(this.name, this.oldValue);
+    }
+
+    @Override
+    void redo() {
+      this.map.restoreAttribute(this.name, this.newValue);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return CHANGE_OVERHEAD + estimate(this.name) + estimate(this.oldValue) + estimate(this.newValue);
+    }
+  }
+
+  private static final class MapChange extends Change {
+
+    private final MindMapHistory history;
+    private final MindMap oldMap;
+    private final MindMap newMap;
+    private final long size;
+
+    private MapChange(@Nonnull final MindMapHistory history, @Nonnull final MindMap oldMap, @Nonnull final MindMap newMap) {
+      this.history = history;
+      this.oldMap = oldMap;
+      this.newMap = newMap;
+      this.size = CHANGE_OVERHEAD + estimateSubtree(oldMap.getRoot());
+    }
+
+    @Override
+    void undo() {
+      this.history.attach(this.oldMap);
+    }
+
+    @Override
+    void redo() {
+      this.history.attach(this.newMap);
+    }
+
+    @Override
+    long estimateSize(@Nonnull final Set<Topic> countedTopics) {
+      return this.size;
+    }
+  }
+}
@@ -57,6 +57,10 @@ public final class ModelUtils {
   ;
 
   public static int calcCharsOnStart(final char chr, @Nonnull final String text) {
+    return calcCharsOnStart(chr, (CharSequence) text);
+  }
+
+  public static int calcCharsOnStart(final char chr, @Nonnull final CharSequence text) {
     int result = 0;
     for (int i = 0; i < text.length(); i++) {
       if (text.charAt(i) == chr) {
@@ -68,6 +72,27 @@ public final class ModelUtils {
     return result;
   }
 
+  /**
+   * Get sub-sequence without leading and trailing chars with codes less or
+   * equal to space, works like {@link String#trim()} but for any char sequence.
+   *
+   * @param text source sequence
+   * @return trimmed sub-sequence or the same sequence if nothing to trim
+   * @since 1.3.1
+   */
+  @Nonnull
+  public static CharSequence trim(@Nonnull final CharSequence text) {
+    int start = 0;
+    int end = text.length();
+    while (start < end && text.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && text.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return start == 0 && end == text.length() ? text : text.subSequence(start, end);
+  }
+
   public static boolean onlyFromChar(@Nonnull final String line, final char chr) {
     if (line.isEmpty()) {
       return false;
@@ -100,6 +100,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         throw new IllegalArgumentException("Parent must belong to the same mind map");
       }
       parent.children.add(this);
+      map.invalidateTopicLinkIndex();
+      recordPlace(null, null, -1, parent.children.size() - 1);
     }
   }
 
@@ -124,7 +126,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       Extra.ExtraType extraType = null;
 
       String codeSnippetlanguage = null;
-      String codeSnippetBody = null;
+      StringBuilder codeSnippetBody = null;
 
       int detectedLevel = -1;
 
@@ -140,8 +142,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
 
         switch (token) {
           case TOPIC_LEVEL: {
-            final String tokenText = lexer.getTokenText();
-            detectedLevel = ModelUtils.calcCharsOnStart('#', tokenText);
+            detectedLevel = ModelUtils.calcCharsOnStart('#', lexer.getTokenView());
           }
           break;
           case TOPIC_TITLE: {
@@ -164,28 +165,27 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
           }
           break;
           case EXTRA_TYPE: {
-            final String extraName = lexer.getTokenText().substring(1).trim();
-            try {
-              extraType = Extra.ExtraType.valueOf(extraName);
-            } catch (IllegalArgumentException ex) {
-              extraType = null;
-            }
+            final CharSequence tokenView = lexer.getTokenView();
+            extraType = Extra.ExtraType.findForName(ModelUtils.trim(tokenView.subSequence(1, tokenView.length())));
           }
           break;
           case CODE_SNIPPET_START: {
             if (topic != null) {
-              codeSnippetlanguage = lexer.getTokenText().substring(3);
-              codeSnippetBody = "";
+              final CharSequence tokenView = lexer.getTokenView();
+              codeSnippetlanguage = tokenView.subSequence(3, tokenView.length()).toString();
+              codeSnippetBody = new StringBuilder();
             }
           }
           break;
           case CODE_SNIPPET_BODY: {
-            codeSnippetBody += lexer.getTokenText();
+            if (codeSnippetBody != null) {
+              lexer.appendTokenText(codeSnippetBody);
+            }
           }
           break;
           case CODE_SNIPPET_END: {
             if (topic != null && codeSnippetlanguage != null && codeSnippetBody != null) {
-              topic.codeSnippets.put(codeSnippetlanguage.trim(), codeSnippetBody);
+              topic.codeSnippets.put(codeSnippetlanguage.trim(), codeSnippetBody.toString());
             }
             codeSnippetlanguage = null;
             codeSnippetBody = null;
@@ -193,8 +193,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
           break;
           case ATTRIBUTE: {
             if (topic != null) {
-              final String text = lexer.getTokenText().trim();
-              MindMap.fillMapByAttributes(text, topic.attributes);
+              MindMap.fillMapByAttributes(ModelUtils.trim(lexer.getTokenView()), topic.attributes);
             }
             extraType = null;
           }
@@ -202,8 +201,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
           case EXTRA_TEXT: {
             if (topic != null && extraType != null) {
               try {
-                final String text = lexer.getTokenText();
-                final String groupPre = extraType.preprocessString(text.substring(5, text.length() - 6));
+                final CharSequence tokenView = lexer.getTokenView();
+                final String groupPre = extraType.preprocessString(tokenView.subSequence(5, tokenView.length() - 6).toString());
                 if (groupPre != null) {
                   topic.setExtra(extraType.parseLoaded(groupPre));
                 } else {
@@ -227,6 +226,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
             break;
         }
       }
+      map.invalidateTopicLinkIndex();
       return topic == null ? null : topic.getRoot();
     } finally {
       map.unlock();
@@ -405,11 +405,24 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public boolean setAttribute(@Nonnull final String name, @Nullable final String value) {
     this.map.lock();
     try {
+      final String oldValue;
+      final boolean result;
       if (value == null) {
-        return this.attributes.remove(name) != null;
+        oldValue = this.attributes.remove(name);
+        result = oldValue != null;
       } else {
-        return !value.equals(this.attributes.put(name, value));
+        oldValue = this.attributes.put(name, value);
+        result = !value.equals(oldValue);
+      }
+      if (result) {
+        if (ExtraTopic.TOPIC_UID_ATTR.equals(name)) {
+          this.map.invalidateTopicLinkIndex();
+        }
+        if (this.map.isHistoryRecording()) {
+          this.map.recordChange(new MindMapHistory.AttributeChange(this, false, name, oldValue, value));
+        }
       }
+      return result;
     } finally {
       this.map.unlock();
     }
@@ -418,11 +431,12 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public boolean setCodeSnippet(@Nonnull final String language, @Nullable final String text) {
     this.map.lock();
     try {
-      if (text == null) {
-        return this.codeSnippets.remove(language) != null;
-      } else {
-        return !text.equals(this.codeSnippets.put(language, text));
+      final String oldText = text == null ? this.codeSnippets.remove(language) : this.codeSnippets.put(language, text);
+      final boolean result = text == null ? oldText != null : !text.equals(oldText);
+      if (result && this.map.isHistoryRecording()) {
+        this.map.recordChange(new MindMapHistory.AttributeChange(this, true, language, oldText, text));
       }
+      return result;
     } finally {
       this.map.unlock();
     }
@@ -443,7 +457,12 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     try {
       final Topic theParent = this.parent;
       if (theParent != null) {
-        theParent.children.remove(this);
+        final int index = theParent.children.indexOf(this);
+        if (index >= 0) {
+          theParent.children.remove(index);
+          this.map.invalidateTopicLinkIndex();
+          recordPlace(theParent, theParent, index, -1);
+        }
       }
     } finally {
       this.map.unlock();
@@ -463,7 +482,11 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public void setText(@Nonnull final String text) {
     this.map.lock();
     try {
+      final String oldText = this.text;
       this.text = Assertions.assertNotNull(text);
+      if (this.map.isHistoryRecording() && !oldText.equals(text)) {
+        this.map.recordChange(new MindMapHistory.TextChange(this, oldText, text));
+      }
     } finally {
       this.map.unlock();
     }
@@ -482,7 +505,10 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     try {
       boolean result = false;
       for (final Extra.ExtraType e : Assertions.assertDoesntContainNull(types)) {
-        result |= this.extras.remove(e) != null;
+        result |= removeExtraRecorded(e);
+      }
+      if (result) {
+        this.map.invalidateTopicLinkIndex();
       }
       return result;
     } finally {
@@ -494,8 +520,9 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.map.lock();
     try {
       for (final Extra<?> e : Assertions.assertDoesntContainNull(extras)) {
-        this.extras.put(e.getType(), e);
+        putExtraRecorded(e);
       }
+      this.map.invalidateTopicLinkIndex();
     } finally {
       this.map.unlock();
     }
@@ -510,6 +537,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         if (thatIndex > 0) {
           theParent.children.remove(thatIndex);
           theParent.children.add(0, this);
+          this.map.invalidateTopicLinkIndex();
+          recordPlace(theParent, theParent, thatIndex, 0);
           return true;
         }
       }
@@ -539,6 +568,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         if (thatIndex >= 0 && thatIndex != theParent.children.size() - 1) {
           theParent.children.remove(thatIndex);
           theParent.children.add(this);
+          this.map.invalidateTopicLinkIndex();
+          recordPlace(theParent, theParent, thatIndex, theParent.children.size() - 1);
           return true;
         }
       }
@@ -561,8 +592,10 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         }
 
         if (thatIndex >= 0 && thisIndex >= 0) {
-          theParent.children.remove(this);
+          theParent.children.remove(thisIndex);
           theParent.children.add(thatIndex, this);
+          this.map.invalidateTopicLinkIndex();
+          recordPlace(theParent, theParent, thisIndex, thatIndex);
         }
       }
     } finally {
@@ -599,8 +632,10 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
         }
 
         if (thatIndex >= 0 && thisIndex >= 0) {
-          theParent.children.remove(this);
+          theParent.children.remove(thisIndex);
           theParent.children.add(thatIndex + 1, this);
+          this.map.invalidateTopicLinkIndex();
+          recordPlace(theParent, theParent, thisIndex, thatIndex + 1);
         }
       }
     } finally {
@@ -708,11 +743,12 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     if (topic == null) {
       return false;
     }
-    final Iterator<Topic> iterator = this.children.iterator();
-    while (iterator.hasNext()) {
-      final Topic t = iterator.next();
+    for (int i = 0; i < this.children.size(); i++) {
+      final Topic t = this.children.get(i);
       if (t == topic) {
-        iterator.remove();
+        this.children.remove(i);
+        this.map.invalidateTopicLinkIndex();
+        t.recordPlace(t.parent, this, i, -1);
         return true;
       } else if (t.removeTopic(topic)) {
         return true;
@@ -722,7 +758,11 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void removeAllChildren() {
-    this.children.clear();
+    for (int i = this.children.size() - 1; i >= 0; i--) {
+      final Topic child = this.children.remove(i);
+      child.recordPlace(child.parent, this, i, -1);
+    }
+    this.map.invalidateTopicLinkIndex();
   }
 
   public boolean moveToNewParent(@Nullable final Topic newParent) {
@@ -733,11 +773,14 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       }
 
       final Topic theParent = this.parent;
-      if (theParent != null) {
-        theParent.children.remove(this);
+      final int oldIndex = theParent == null ? -1 : theParent.children.indexOf(this);
+      if (oldIndex >= 0) {
+        theParent.children.remove(oldIndex);
       }
       newParent.children.add(this);
       this.parent = newParent;
+      this.map.invalidateTopicLinkIndex();
+      recordPlace(theParent, oldIndex < 0 ? null : theParent, oldIndex, newParent.children.size() - 1);
 
       return true;
     } finally {
@@ -814,14 +857,17 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.map.lock();
     try {
       if (extras == null || extras.length == 0) {
-        this.extras.clear();
+        for (final Extra.ExtraType t : new ArrayList<Extra.ExtraType>(this.extras.keySet())) {
+          removeExtraRecorded(t);
+        }
       } else {
         for (final Extra<?> e : extras) {
           if (e != null) {
-            this.extras.remove(e.getType());
+            removeExtraRecorded(e.getType());
           }
         }
       }
+      this.map.invalidateTopicLinkIndex();
     } finally {
       this.map.unlock();
     }
@@ -875,6 +921,63 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     return list.toArray(new Topic[list.size()]);
   }
 
+  private boolean removeExtraRecorded(@Nonnull final Extra.ExtraType type) {
+    final Extra<?> removed = this.extras.remove(type);
+    if (removed != null && this.map.isHistoryRecording()) {
+      this.map.recordChange(new MindMapHistory.ExtraChange(this, type, removed, null));
+    }
+    return removed != null;
+  }
+
+  private void putExtraRecorded(@Nonnull final Extra<?> extra) {
+    final Extra<?> old = this.extras.put(extra.getType(), extra);
+    if (old != extra && this.map.isHistoryRecording()) {
+      this.map.recordChange(new MindMapHistory.ExtraChange(this, extra.getType(), old, extra));
+    }
+  }
+
+  private void recordPlace(@Nullable final Topic oldParent, @Nullable final Topic oldContainer, final int oldIndex, final int newIndex) {
+    if (this.map.isHistoryRecording()) {
+      final Topic newContainer = newIndex < 0 ? null : this.parent;
+      this.map.recordChange(new MindMapHistory.PlaceChange(this, oldParent, oldContainer, oldIndex, this.parent, newContainer, newIndex));
+    }
+  }
+
+  void restoreText(@Nonnull final String value) {
+    this.text = value;
+  }
+
+  void restoreAttribute(final boolean codeSnippet, @Nonnull final String name, @Nullable final String value) {
+    final Map<String, String> target = codeSnippet ? this.codeSnippets : this.attributes;
+    if (value == null) {
+      target.remove(name);
+    } else {
+      target.put(name, value);
+    }
+  }
+
+  void restoreExtra(@Nonnull final Extra.ExtraType type, @Nullable final Extra<?> extra) {
+    if (extra == null) {
+      this.extras.remove(type);
+    } else {
+      this.extras.put(type, extra);
+    }
+  }
+
+  void restorePlace(@Nullable final Topic fromContainer, final int fromIndex, @Nullable final Topic toContainer, final int toIndex, @Nullable final Topic newParent) {
+    if (fromContainer != null) {
+      if (fromIndex >= 0 && fromIndex < fromContainer.children.size() && fromContainer.children.get(fromIndex) == this) {
+        fromContainer.children.remove(fromIndex);
+      } else {
+        fromContainer.children.remove(this);
+      }
+    }
+    if (toContainer != null) {
+      toContainer.children.add(Math.min(Math.max(toIndex, 0), toContainer.children.size()), this);
+    }
+    this.parent = newParent;
+  }
+
   @Nonnull
   Topic makeCopy(@Nonnull final MindMap newMindMap, @Nullable final Topic parent) {
     this.map.lock();
@@ -898,11 +1001,14 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.map.lock();
     try {
       for (final Extra.ExtraType t : type) {
-        result |= this.extras.remove(t) != null;
+        result |= removeExtraRecorded(t);
       }
       for (final Topic c : this.children) {
         result |= c.removeExtraFromSubtree(type);
       }
+      if (result) {
+        this.map.invalidateTopicLinkIndex();
+      }
       return result;
     } finally {
       this.map.unlock();
@@ -915,11 +1021,14 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     this.map.lock();
     try {
       for (final String t : names) {
-        result |= this.attributes.remove(t) != null;
+        result |= setAttribute(t, null);
       }
       for (final Topic c : this.children) {
         result |= c.removeAttributeFromSubtree(names);
       }
+      if (result) {
+        this.map.invalidateTopicLinkIndex();
+      }
       return result;
     } finally {
       this.map.unlock();
@@ -931,7 +1040,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
     if (this.extras.containsKey(Extra.ExtraType.FILE)) {
       final ExtraFile fileLink = (ExtraFile) this.extras.get(Extra.ExtraType.FILE);
       if (fileLink.isSameOrHasParent(baseFolder, file)) {
-        result = this.extras.remove(Extra.ExtraType.FILE) != null;
+        result = removeExtraRecorded(Extra.ExtraType.FILE);
       }
     }
     for (final Topic c : this.children) {
@@ -954,8 +1063,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
 
       if (replacement != null) {
         result = true;
-        this.extras.remove(Extra.ExtraType.FILE);
-        this.extras.put(Extra.ExtraType.FILE, replacement);
+        putExtraRecorded(replacement);
       }
     }
 
@@ -992,6 +1100,8 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       @Override
       public void remove() {
         iter.remove();
+        map.invalidateTopicLinkIndex();
+        map.recordUnsupportedChange();
       }
 
       @Nonnull
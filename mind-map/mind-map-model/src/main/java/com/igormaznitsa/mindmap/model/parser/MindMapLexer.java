@@ -18,6 +18,8 @@ package com.igormaznitsa.mindmap.model.parser;
 
 import com.igormaznitsa.meta.annotation.ReturnsOriginal;
 import com.igormaznitsa.meta.common.utils.Assertions;
+import java.io.IOException;
+import java.io.Reader;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -26,12 +28,16 @@ import javax.annotation.Nullable;
  */
 public final class MindMapLexer {
 
+  private static final int STREAM_KEPT_CHARS = 8;
+
   private final LexerPosition position = new LexerPosition(0, TokenType.UNKNOWN_LINE);
   private CharSequence buffer = "";
   private int endOffset;
   private int tokenStart;
   private int tokenEnd;
   private TokenType tokenType = TokenType.UNKNOWN_LINE;
+  private ReaderCharBuffer stream;
+  private IOException streamError;
 
   public int getTokenStartOffset() {
     return this.tokenStart;
@@ -42,6 +48,8 @@ public final class MindMapLexer {
   }
 
   public void start(@Nonnull final CharSequence buffer, final int startOffset, final int endOffset, @Nonnull final MindMapLexer.TokenType initialState) {
+    this.stream = null;
+    this.streamError = null;
     this.buffer = buffer;
     this.tokenType = initialState;
     this.position.offset = startOffset;
@@ -50,6 +58,36 @@ public final class MindMapLexer {
     this.endOffset = endOffset;
   }
 
+  /**
+   * Start lexer in streaming mode where characters are read from reader by
+   * chunks on demand and already processed characters are dropped from memory.
+   * In the mode only forward processing is allowed, restore to already passed
+   * position is not supported. The reader is not closed by the lexer.
+   *
+   * @param reader       source of characters, must not be null
+   * @param chunkSize    number of chars to be read from reader per call
+   * @param initialState initial lexer state
+   * @see #checkStreamError()
+   * @since 1.3.1
+   */
+  public void start(@Nonnull final Reader reader, final int chunkSize, @Nonnull final MindMapLexer.TokenType initialState) {
+    final ReaderCharBuffer charBuffer = new ReaderCharBuffer(reader, chunkSize);
+    this.start(charBuffer, 0, Integer.MAX_VALUE, initialState);
+    this.stream = charBuffer;
+  }
+
+  /**
+   * Check that there was not any error during read of stream in streaming mode.
+   *
+   * @throws IOException the error detected during stream read
+   * @since 1.3.1
+   */
+  public void checkStreamError() throws IOException {
+    if (this.streamError != null) {
+      throw this.streamError;
+    }
+  }
+
   public void setBufferEndOffset(final int value) {
     this.endOffset = value;
   }
@@ -64,6 +102,38 @@ public final class MindMapLexer {
     return getTokenSequence().toString();
   }
 
+  /**
+   * Get view of the current token text. Chars are not copied, the view reads
+   * them directly from the lexer buffer so that in streaming mode it is valid
+   * only until next call of {@link #advance()}. Sub-sequences of the view are
+   * views too, only {@link CharSequence#toString()} makes copy.
+   *
+   * @return view of current token text
+   * @since 1.3.1
+   */
+  @Nonnull
+  public CharSequence getTokenView() {
+    return new BufferView(this.buffer, this.tokenStart, this.tokenEnd);
+  }
+
+  /**
+   * Append current token text to string builder without intermediate objects.
+   *
+   * @param builder target builder, must not be null
+   * @return the same builder
+   * @since 1.3.1
+   */
+  @Nonnull
+  @ReturnsOriginal
+  public StringBuilder appendTokenText(@Nonnull final StringBuilder builder) {
+    if (this.buffer instanceof ReaderCharBuffer) {
+      ((ReaderCharBuffer) this.buffer).appendTo(builder, this.tokenStart, this.tokenEnd);
+    } else {
+      builder.append(this.buffer, this.tokenStart, this.tokenEnd);
+    }
+    return builder;
+  }
+
   @Nullable
   public TokenType getTokenType() {
     return this.tokenStart == this.tokenEnd ? null : this.tokenType;
@@ -81,6 +151,9 @@ public final class MindMapLexer {
   public void advance() {
     boolean tokenHasBeenCompleted = this.position.isTokenCompleted();
     this.tokenStart = tokenHasBeenCompleted ? this.position.offset : this.tokenStart;
+    if (this.stream != null) {
+      this.stream.release(this.tokenStart - STREAM_KEPT_CHARS);
+    }
     boolean inAction = true;
 
     while (inAction && !isBufferEnd()) {
@@ -273,7 +346,16 @@ public final class MindMapLexer {
   }
 
   private boolean isBufferEnd() {
-    return this.position.offset >= this.endOffset;
+    if (this.stream == null || this.position.offset >= this.endOffset) {
+      return this.position.offset >= this.endOffset;
+    }
+    try {
+      return !this.stream.ensure(this.position.offset);
+    } catch (IOException ex) {
+      this.streamError = ex;
+      this.endOffset = this.position.offset;
+      return true;
+    }
   }
 
   private boolean tokenStartsWith(@Nonnull final String text) {
@@ -429,6 +511,50 @@ public final class MindMapLexer {
     return this.endOffset;
   }
 
+  /**
+   * Read-only window over part of a char sequence.
+   */
+  private static final class BufferView implements CharSequence {
+
+    private final CharSequence base;
+    private final int start;
+    private final int end;
+
+    private BufferView(@Nonnull final CharSequence base, final int start, final int end) {
+      this.base = base;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return this.end - this.start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+      if (index < 0 || index >= this.end - this.start) {
+        throw new IndexOutOfBoundsException(Integer.toString(index));
+      }
+      return this.base.charAt(this.start + index);
+    }
+
+    @Override
+    @Nonnull
+    public CharSequence subSequence(final int start, final int end) {
+      if (start < 0 || end > this.end - this.start || start > end) {
+        throw new IndexOutOfBoundsException(start + ".." + end);
+      }
+      return new BufferView(this.base, this.start + start, this.start + end);
+    }
+
+    @Override
+    @Nonnull
+    public String toString() {
+      return this.base.subSequence(this.start, this.end).toString();
+    }
+  }
+
   /**
    * Type of allowed lexeme.
    */
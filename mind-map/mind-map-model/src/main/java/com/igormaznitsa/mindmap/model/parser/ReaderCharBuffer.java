@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model.parser;
+
+import com.igormaznitsa.meta.common.utils.Assertions;
+import java.io.IOException;
+import java.io.Reader;
+import javax.annotation.Nonnull;
+
+/**
+ * Sliding window over characters of a reader, addressed by absolute offsets
+ * from the start of the stream. Characters are loaded by chunks on demand and
+ * characters before released offset can be dropped from memory, so that only
+ * the part of the stream which is under processing is kept.
+ *
+ * @since 1.3.1
+ */
+public final class ReaderCharBuffer implements CharSequence {
+
+  public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+  private final Reader reader;
+  private final int chunkSize;
+  private char[] window;
+  private int windowStart;
+  private int windowLength;
+  private boolean endOfStream;
+  private int releasedOffset;
+
+  public ReaderCharBuffer(@Nonnull final Reader reader) {
+    this(reader, DEFAULT_CHUNK_SIZE);
+  }
+
+  public ReaderCharBuffer(@Nonnull final Reader reader, final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.reader = Assertions.assertNotNull(reader);
+    this.chunkSize = chunkSize;
+    this.window = new char[chunkSize];
+  }
+
+  /**
+   * Make sure that character for absolute offset is loaded.
+   *
+   * @param offset absolute offset in the stream
+   * @return true if the character is presented, false if the stream has been
+   * ended before the offset
+   * @throws IOException it will be thrown for transport errors, also it wraps
+   *                     attempt to access already released data
+   */
+  public boolean ensure(final int offset) throws IOException {
+    if (offset < this.windowStart) {
+      throw new IOException("Access to released data: " + offset);
+    }
+    while (offset >= this.windowStart + this.windowLength) {
+      if (this.endOfStream || !loadChunk()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Allow to drop all characters before the offset.
+   *
+   * @param offset absolute offset, all characters before will not be accessible
+   */
+  public void release(final int offset) {
+    this.releasedOffset = Math.max(this.releasedOffset, Math.min(offset, this.windowStart + this.windowLength));
+  }
+
+  public boolean isEndOfStream() {
+    return this.endOfStream;
+  }
+
+  private boolean loadChunk() throws IOException {
+    final int dropped = this.releasedOffset - this.windowStart;
+    if (dropped > 0 && dropped >= this.windowLength / 2) {
+      System.arraycopy(this.window, dropped, this.window, 0, this.windowLength - dropped);
+      this.windowStart += dropped;
+      this.windowLength -= dropped;
+    }
+
+    if (this.window.length - this.windowLength < this.chunkSize) {
+      final char[] newWindow = new char[Math.max(this.window.length * 2, this.windowLength + this.chunkSize)];
+      System.arraycopy(this.window, 0, newWindow, 0, this.windowLength);
+      this.window = newWindow;
+    }
+
+    final int read = this.reader.read(this.window, this.windowLength, this.chunkSize);
+    if (read < 0) {
+      this.endOfStream = true;
+      return false;
+    }
+    this.windowLength += read;
+    return true;
+  }
+
+  /**
+   * Get absolute offset of the end of loaded data.
+   *
+   * @return absolute offset of the end of loaded data, it is the stream length
+   * if the end of stream has been reached
+   */
+  @Override
+  public int length() {
+    return this.windowStart + this.windowLength;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    final int relative = index - this.windowStart;
+    if (relative < 0 || relative >= this.windowLength) {
+      throw new IndexOutOfBoundsException("Offset is out of loaded window: " + index);
+    }
+    return this.window[relative];
+  }
+
+  @Override
+  @Nonnull
+  public CharSequence subSequence(final int start, final int end) {
+    if (start < this.windowStart || end > this.windowStart + this.windowLength || start > end) {
+      throw new IndexOutOfBoundsException("Sequence is out of loaded window: " + start + ".." + end);
+    }
+    return new String(this.window, start - this.windowStart, end - start);
+  }
+
+  /**
+   * Append loaded characters to string builder.
+   *
+   * @param builder target builder
+   * @param start   absolute start offset (inclusive)
+   * @param end     absolute end offset (exclusive)
+   */
+  public void appendTo(@Nonnull final StringBuilder builder, final int start, final int end) {
+    if (start < this.windowStart || end > this.windowStart + this.windowLength || start > end) {
+      throw new IndexOutOfBoundsException("Sequence is out of loaded window: " + start + ".." + end);
+    }
+    builder.append(this.window, start - this.windowStart, end - start);
+  }
+
+  /**
+   * Get characters of the current loaded window. It is not the whole consumed
+   * text, characters before the window start are already dropped and not
+   * loaded characters are not read from the stream.
+   *
+   * @return text of the loaded window, it starts at absolute offset of the
+   * window start
+   */
+  @Override
+  @Nonnull
+  public String toString() {
+    return new String(this.window, 0, this.windowLength);
+  }
+}
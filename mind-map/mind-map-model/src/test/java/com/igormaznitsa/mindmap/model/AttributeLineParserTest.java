@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class AttributeLineParserTest {
+
+  private static final Pattern PATTERN_ATTRIBUTES = Pattern.compile("^\\s*\\>\\s(.+)$");
+  private static final Pattern PATTERN_ATTRIBUTE = Pattern.compile("[,]?\\s*([\\S]+?)\\s*=\\s*(\\`+)(.*?)\\2");
+
+  private static boolean parseByRegex(final String line, final Map<String, String> map) {
+    final Matcher attrmatcher = PATTERN_ATTRIBUTES.matcher(line);
+    if (attrmatcher.find()) {
+      final Matcher attrParser = PATTERN_ATTRIBUTE.matcher(attrmatcher.group(1));
+      while (attrParser.find()) {
+        map.put(attrParser.group(1), attrParser.group(3));
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static void assertSameAsRegex(final String line) {
+    final Map<String, String> etalon = new HashMap<String, String>();
+    final Map<String, String> parsed = new HashMap<String, String>();
+    assertEquals(line, parseByRegex(line, etalon), AttributeLineParser.parse(line, parsed));
+    assertEquals(line, etalon, parsed);
+  }
+
+  @Test
+  public void testNotAttributeLine() {
+    final Map<String, String> map = new HashMap<String, String>();
+    assertFalse(AttributeLineParser.parse("", map));
+    assertFalse(AttributeLineParser.parse(">", map));
+    assertFalse(AttributeLineParser.parse("> ", map));
+    assertFalse(AttributeLineParser.parse(">a=`b`", map));
+    assertFalse(AttributeLineParser.parse("# a=`b`", map));
+    assertFalse(AttributeLineParser.parse("> a=`b`\nc=`d`", map));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testSameAsRegex_HandWritten() {
+    final String[] lines = new String[] {
+        "> a=`b`",
+        "> a=`b`\n",
+        "> a=`b`\r\n",
+        "   >  a=`b`  \n",
+        ">\ta=`b`",
+        "> a=`b`\n\n",
+        "> a=`b`\r\r\n",
+        "> a=`b`,c=``d`e``,f=```g``h```",
+        "> a = `b` , c=`d`",
+        "> ,a=`b`,,c=`d`",
+        "> junk a=`b`",
+        "> junk",
+        "> a==`b`",
+        "> a=b=`c`",
+        "> a=`b",
+        "> a=```b``",
+        "> a=``,c=`d`",
+        "> a=`` c=`d`",
+        "> a=`абв где`,b=`\u0001`",
+        "> leftBorderColor=`#FF0000`,collapsed=`true`,mmd.emoticon=`caution`"
+    };
+    for (final String s : lines) {
+      assertSameAsRegex(s);
+    }
+  }
+
+  @Test
+  public void testSameAsRegex_GeneratedByWriter() throws Exception {
+    final Random rnd = new Random(12345L);
+    final String alphabet = "ab `=,#\t>\\\"<&абв";
+    for (int i = 0; i < 5000; i++) {
+      final Map<String, String> attributes = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+      final int number = rnd.nextInt(5) + 1;
+      for (int a = 0; a < number; a++) {
+        final StringBuilder value = new StringBuilder();
+        final int length = rnd.nextInt(20) + 1;
+        for (int c = 0; c < length; c++) {
+          value.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+        }
+        while (value.length() > 0 && value.charAt(0) == '`') {
+          value.deleteCharAt(0);
+        }
+        while (value.length() > 0 && value.charAt(value.length() - 1) == '`') {
+          value.setLength(value.length() - 1);
+        }
+        if (value.length() > 0) {
+          attributes.put("attr" + rnd.nextInt(100), value.toString());
+        }
+      }
+      if (attributes.isEmpty()) {
+        continue;
+      }
+      final String line = "> " + MindMap.allAttributesAsString(attributes) + (rnd.nextBoolean() ? "\n" : "");
+      assertSameAsRegex(line);
+
+      final Map<String, String> parsed = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+      assertTrue(AttributeLineParser.parse(line, parsed));
+      assertEquals(attributes, parsed);
+    }
+  }
+
+  @Test
+  public void testValuesWithBackticksOnEdges() throws Exception {
+    final Map<String, String> attributes = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+    attributes.put("a", "x`");
+    attributes.put("b", "`y");
+    attributes.put("c", "`z``");
+    attributes.put("d", "`");
+
+    final Map<String, String> parsed = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+    assertTrue(AttributeLineParser.parse("> " + MindMap.allAttributesAsString(attributes), parsed));
+    assertEquals(attributes, parsed);
+  }
+
+  @Test(timeout = 5000L)
+  public void testHugeValue() throws Exception {
+    final Random rnd = new Random(777L);
+    final String base64chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    final StringBuilder image = new StringBuilder();
+    for (int i = 0; i < 4 * 1024 * 1024; i++) {
+      image.append(base64chars.charAt(rnd.nextInt(base64chars.length())));
+    }
+    image.append("==");
+
+    final Map<String, String> attributes = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+    attributes.put("mmd.image", image.toString());
+    attributes.put("mmd.image.name", "some.png");
+    final String line = "> " + MindMap.allAttributesAsString(attributes) + '\n';
+
+    final Map<String, String> parsed = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+    assertTrue(AttributeLineParser.parse(line, parsed));
+    assertEquals(attributes, parsed);
+
+    final Map<String, String> regexParsed = new TreeMap<String, String>(ModelUtils.STRING_COMPARATOR);
+    assertTrue(parseByRegex(line, regexParsed));
+    assertEquals(attributes, regexParsed);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Test;
+
+public class MindMapExtraScannerTest {
+
+  private static final String MAP = "Mind Map generated by NB MindMap plugin\n"
+      + "> __version__=`1.1`\n"
+      + "---\n\n"
+      + "# Root\n"
+      + "- FILE\n<pre>root.txt</pre>\n\n"
+      + "## Child1\n"
+      + "> fillColor=`#FF0000`\n"
+      + "- NOTE\n<pre>some note</pre>\n"
+      + "```java\n"
+      + "- FILE\n<pre>not_link.txt</pre>\n"
+      + "```\n\n"
+      + "### Child11\n"
+      + "- LINK\n<pre>http://www.sciareto.org</pre>\n"
+      + "- FILE\n<pre>folder/child11.txt</pre>\n\n"
+      + "## Child2\n\n"
+      + "### Child21\n"
+      + "- FILE\n<pre>child21.txt</pre>\n"
+      + "- TOPIC\n<pre>12345</pre>\n";
+
+  private static void assertSameAsMap(final MindMapExtraScanner.FoundExtra found, final MindMap map) {
+    final Topic topic = map.findForPositionPath(found.getTopicPositionPath());
+    assertArrayEquals(topic.getPositionPath(), found.getTopicPositionPath());
+    assertEquals(topic.getExtras().get(found.getExtra().getType()), found.getExtra());
+  }
+
+  @Test
+  public void testFindAll_FileLinks() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final List<MindMapExtraScanner.FoundExtra> found = MindMapExtraScanner.findAll(new StringReader(MAP), EnumSet.of(Extra.ExtraType.FILE));
+    assertEquals(3, found.size());
+    assertArrayEquals(new int[]{0}, found.get(0).getTopicPositionPath());
+    assertArrayEquals(new int[]{0, 0, 0}, found.get(1).getTopicPositionPath());
+    assertArrayEquals(new int[]{0, 1, 0}, found.get(2).getTopicPositionPath());
+    assertEquals("folder/child11.txt", ((ExtraFile) found.get(1).getExtra()).getValue().asString(false, false));
+    for (final MindMapExtraScanner.FoundExtra f : found) {
+      assertSameAsMap(f, map);
+    }
+  }
+
+  @Test
+  public void testFindAll_SeveralTypes() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final List<MindMapExtraScanner.FoundExtra> found = MindMapExtraScanner.findAll(new StringReader(MAP), EnumSet.of(Extra.ExtraType.LINK, Extra.ExtraType.TOPIC, Extra.ExtraType.NOTE));
+    assertEquals(3, found.size());
+    assertSame(Extra.ExtraType.NOTE, found.get(0).getExtra().getType());
+    assertSame(Extra.ExtraType.LINK, found.get(1).getExtra().getType());
+    assertSame(Extra.ExtraType.TOPIC, found.get(2).getExtra().getType());
+    for (final MindMapExtraScanner.FoundExtra f : found) {
+      assertSameAsMap(f, map);
+    }
+  }
+
+  @Test
+  public void testScan_StopByVisitor() throws Exception {
+    final int[] counter = new int[1];
+    assertFalse(MindMapExtraScanner.scan(new StringReader(MAP), EnumSet.of(Extra.ExtraType.FILE), new MindMapExtraScanner.ExtraVisitor() {
+      @Override
+      public boolean onExtra(final int[] topicPositionPath, final Extra<?> extra) {
+        return ++counter[0] < 2;
+      }
+    }));
+    assertEquals(2, counter[0]);
+  }
+
+  @Test
+  public void testDoesContainFileLink() throws Exception {
+    final File base = new File("base");
+    assertTrue(MindMapExtraScanner.doesContainFileLink(new StringReader(MAP), base, new MMapURI("child21.txt")));
+    assertFalse(MindMapExtraScanner.doesContainFileLink(new StringReader(MAP), base, new MMapURI("not_link.txt")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongFormat() throws Exception {
+    MindMapExtraScanner.findAll(new StringReader("Hello world"), EnumSet.of(Extra.ExtraType.FILE));
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class MindMapHistoryTest {
+
+  private static final String MAP = "Mind Map generated by NB MindMap plugin\n"
+      + "> __version__=`1.1`\n"
+      + "---\n\n"
+      + "# Root\n\n"
+      + "## Child1\n"
+      + "> fillColor=`#FF0000`\n"
+      + "- FILE\n<pre>file.txt</pre>\n\n"
+      + "### Child11\n\n"
+      + "### Child12\n\n"
+      + "## Child2\n\n"
+      + "## Child3\n";
+
+  @Test
+  public void testUndoRedoRestoresAllStates() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory();
+    history.reset(map);
+    assertSame(history, map.getHistory());
+
+    final Topic root = map.getRoot();
+    final Topic child1 = root.getChildren().get(0);
+    final Topic child2 = root.getChildren().get(1);
+    final Topic child3 = root.getChildren().get(2);
+
+    final List<String> states = new ArrayList<String>();
+    states.add(map.packToString());
+
+    child1.setText("Changed");
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    child1.setAttribute("fillColor", null);
+    child2.setAttribute("textColor", "#00FF00");
+    child2.setCodeSnippet("java", "System.exit(0);");
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    child1.setExtra(new ExtraNote("note"));
+    child1.removeExtra(Extra.ExtraType.FILE);
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    final Topic newTopic = child2.makeChild("New", null);
+    newTopic.setAttribute("leftSide", "true");
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    child1.getChildren().get(1).moveToNewParent(child3);
+    child3.makeFirst();
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    map.cloneTopic(child1, true);
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    map.removeTopic(child2);
+    child1.getChildren().get(0).delete();
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    map.removeTopic(root);
+    map.setAttribute("showJumps", "true");
+    assertTrue(history.commit());
+    states.add(map.packToString());
+
+    assertFalse(history.commit());
+
+    for (int i = states.size() - 2; i >= 0; i--) {
+      assertSame(map, history.undo());
+      assertEquals(states.get(i), map.packToString());
+    }
+    assertFalse(history.hasUndo());
+    assertNull(history.undo());
+
+    for (int i = 1; i < states.size(); i++) {
+      assertSame(map, history.redo());
+      assertEquals(states.get(i), map.packToString());
+    }
+    assertFalse(history.hasRedo());
+  }
+
+  @Test
+  public void testNotCommittedChangesUndoneWithLastStep() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory();
+    history.reset(map);
+    final String initial = map.packToString();
+
+    map.getRoot().setText("Changed");
+    history.commit();
+    map.getRoot().getChildren().get(0).setAttribute("collapsed", "true");
+
+    history.undo();
+    assertEquals(initial, map.packToString());
+    history.redo();
+    assertEquals("true", map.getRoot().getChildren().get(0).getAttribute("collapsed"));
+    assertEquals("Changed", map.getRoot().getText());
+  }
+
+  @Test
+  public void testNewChangeDropsRedo() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory();
+    history.reset(map);
+
+    map.getRoot().setText("Changed");
+    history.commit();
+    history.undo();
+    assertTrue(history.hasRedo());
+    map.getRoot().setText("Another");
+    history.commit();
+    assertFalse(history.hasRedo());
+    assertTrue(history.hasUndo());
+  }
+
+  @Test
+  public void testDepthLimit() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory(3, Long.MAX_VALUE);
+    history.reset(map);
+
+    for (int i = 0; i < 5; i++) {
+      map.getRoot().setText("Text" + i);
+      history.commit();
+    }
+    assertTrue(history.hasLostStates());
+
+    int undoCounter = 0;
+    while (history.undo() != null) {
+      undoCounter++;
+    }
+    assertEquals(3, undoCounter);
+    assertEquals("Text1", map.getRoot().getText());
+  }
+
+  @Test
+  public void testMemoryLimitCountsRemovedSubtrees() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory(100, 64L * 1024L);
+    history.reset(map);
+
+    for (int i = 0; i < 10; i++) {
+      final Topic topic = new Topic(map, map.getRoot(), "Big");
+      for (int j = 0; j < 100; j++) {
+        new Topic(map, topic, "Some text of child topic " + j);
+      }
+      history.commit();
+      topic.delete();
+      history.commit();
+    }
+    assertTrue(history.hasLostStates());
+    assertTrue(MindMapHistory.estimateSubtree(map.getRoot()) > MindMapHistory.estimateSubtree(map.getRoot().getChildren().get(0)));
+
+    int undoCounter = 0;
+    while (history.undo() != null) {
+      undoCounter++;
+    }
+    assertTrue(undoCounter < 20);
+  }
+
+  @Test
+  public void testPastedDeepSubtreeIsCountedOnce() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMapHistory history = new MindMapHistory();
+    history.reset(map);
+
+    Topic deepest = map.getRoot().getChildren().get(1);
+    for (int i = 0; i < 100; i++) {
+      deepest = new Topic(map, deepest, "Level " + i);
+    }
+    history.commit();
+    final long usedBeforePaste = history.getUsedMemory();
+
+    final Topic pasted = map.cloneTopic(map.getRoot().getChildren().get(1), true);
+    assertTrue(history.commit());
+
+    final long subtree = MindMapHistory.estimateSubtree(pasted);
+    final long pasteStep = history.getUsedMemory() - usedBeforePaste;
+    assertTrue(pasteStep >= subtree);
+    assertTrue("Subtree must be counted once: " + pasteStep, pasteStep < subtree * 2);
+  }
+
+  @Test
+  public void testMapReplacement() throws Exception {
+    final MindMap map = new MindMap(new StringReader(MAP));
+    final MindMap other = new MindMap(true);
+    final MindMapHistory history = new MindMapHistory();
+    history.reset(map);
+
+    history.replaceMap(other);
+    history.commit();
+    assertSame(other, history.getMap());
+    assertNull(map.getHistory());
+
+    assertSame(map, history.undo());
+    assertSame(history, map.getHistory());
+    assertNull(other.getHistory());
+
+    assertSame(other, history.redo());
+  }
+}
@@ -19,18 +19,25 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 public class MindMapTest {
@@ -196,4 +203,103 @@ public class MindMapTest {
     final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()));
     assertTrue(in.readObject() instanceof MindMap);
   }
+
+  @Test
+  public void testRead_ChunkedReaderGivesSameMap() throws Exception {
+    final String text = IOUtils.toString(MindMapTest.class.getResourceAsStream("parser/cancer_risk.mmd"), "UTF-8");
+    final String etalon = new MindMap(new StringReader(text)).packToString();
+    for (final int chunkSize : new int[] {1, 2, 7, 100, 65536}) {
+      assertEquals(etalon, MindMap.read(new StringReader(text), chunkSize).packToString());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRead_ReaderError() throws Exception {
+    MindMap.read(new Reader() {
+      private int counter = 0;
+
+      @Override
+      public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (this.counter++ > 0) {
+          throw new IOException("Test error");
+        }
+        final String text = "Header\n---\n# Root\n## Ch";
+        text.getChars(0, text.length(), cbuf, off);
+        return text.length();
+      }
+
+      @Override
+      public void close() {
+      }
+    }, 64);
+  }
+
+  @Test
+  public void testWrite_OutputStreamAndChannel() throws Exception {
+    final String text = IOUtils.toString(MindMapTest.class.getResourceAsStream("parser/cancer_risk.mmd"), "UTF-8");
+    final MindMap map = new MindMap(new StringReader(text));
+    map.getRoot().setText("Корень \uD83D\uDE00");
+    final byte[] etalon = map.packToString().getBytes("UTF-8");
+
+    final ByteArrayOutputStream streamBuffer = new ByteArrayOutputStream();
+    map.write(streamBuffer, Charset.forName("UTF-8"));
+    assertArrayEquals(etalon, streamBuffer.toByteArray());
+
+    final ByteArrayOutputStream channelBuffer = new ByteArrayOutputStream();
+    map.write(Channels.newChannel(channelBuffer), Charset.forName("UTF-8"));
+    assertArrayEquals(etalon, channelBuffer.toByteArray());
+  }
+
+  @Test
+  public void testFindTopicForLink_IndexFollowsChanges() throws Exception {
+    final MindMap map = new MindMap(new StringReader("---\n# Root\n## Child1\n> topicLinkUID=`UID1`\n### Child11\n## Child2\n- TOPIC\n<pre>UID1</pre>\n"));
+    final Topic root = map.getRoot();
+    final Topic child1 = root.getChildren().get(0);
+    final Topic child11 = child1.getChildren().get(0);
+    final Topic child2 = root.getChildren().get(1);
+
+    assertSame(child1, map.findTopicForLink(new ExtraTopic("UID1")));
+    assertNull(map.findTopicForLink(new ExtraTopic("UID2")));
+    assertEquals(Arrays.asList(child2), map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC));
+
+    child11.setAttribute(ExtraTopic.TOPIC_UID_ATTR, "UID2");
+    assertSame(child11, map.findTopicForLink(new ExtraTopic("UID2")));
+
+    final Topic clone = map.cloneTopic(child1, true);
+    assertSame(child1, map.findTopicForLink(new ExtraTopic("UID1")));
+    assertSame(child11, map.findTopicForLink(new ExtraTopic("UID2")));
+    assertNull(clone.getAttribute(ExtraTopic.TOPIC_UID_ATTR));
+
+    root.setExtra(new ExtraTopic("UID2"));
+    assertEquals(Arrays.asList(root, child2), map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC));
+
+    child2.makeFirst();
+    assertEquals(Arrays.asList(root, child2), map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC));
+    child2.moveToNewParent(child11);
+    assertEquals(Arrays.asList(root, child2), map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC));
+
+    map.removeTopic(child1);
+    assertNull(map.findTopicForLink(new ExtraTopic("UID1")));
+    assertNull(map.findTopicForLink(new ExtraTopic("UID2")));
+    assertEquals(Arrays.asList(root), map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC));
+
+    final Topic newRoot = new Topic(map, null, "New root");
+    newRoot.setAttribute(ExtraTopic.TOPIC_UID_ATTR, "UID3");
+    assertNull(map.findTopicForLink(new ExtraTopic("UID3")));
+    map.setRoot(newRoot, false);
+    assertSame(newRoot, map.findTopicForLink(new ExtraTopic("UID3")));
+    newRoot.setAttribute(ExtraTopic.TOPIC_UID_ATTR, null);
+    assertNull(map.findTopicForLink(new ExtraTopic("UID3")));
+  }
+
+  @Test
+  public void testFindTopicForLink_FirstTopicForDuplicatedUid() throws Exception {
+    final MindMap map = new MindMap(new StringReader("---\n# Root\n## Child1\n### Child11\n> topicLinkUID=`UID`\n## Child2\n> topicLinkUID=`UID`\n"));
+    final Topic root = map.getRoot();
+    assertSame(root.getChildren().get(0).getChildren().get(0), map.findTopicForLink(new ExtraTopic("UID")));
+    assertSame(root.findForAttribute(ExtraTopic.TOPIC_UID_ATTR, "UID"), map.findTopicForLink(new ExtraTopic("UID")));
+    root.getChildren().get(0).delete();
+    assertSame(root.getChildren().get(0), map.findTopicForLink(new ExtraTopic("UID")));
+  }
+
 }
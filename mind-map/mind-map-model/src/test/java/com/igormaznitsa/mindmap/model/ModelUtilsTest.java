@@ -42,6 +42,14 @@ public class ModelUtilsTest {
     assertEscapeUnescapePre("123 456 \r \n \t \b <html>``` some");
   }
   
+  @Test
+  public void testTrim() {
+    assertEquals("", ModelUtils.trim("").toString());
+    assertEquals("", ModelUtils.trim(" \t\r\n").toString());
+    assertEquals("a b", ModelUtils.trim(" a b\n").toString());
+    assertEquals("a", ModelUtils.trim(new StringBuilder("a")).toString());
+  }
+
   @Test
   public void testExtractQueryParameters() throws Exception {
     final Properties properties = ModelUtils.extractQueryPropertiesFromURI(new URI("file://hello?some=test&other=&misc=%26ffsdsd&h=1"));
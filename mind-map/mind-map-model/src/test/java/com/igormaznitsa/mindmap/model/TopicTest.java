@@ -75,6 +75,18 @@ public class TopicTest {
     assertEquals("Topic2", second.getText());
   }
   
+  @Test
+  public void testParse_LongCodeSnippet() throws Exception {
+    final StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      body.append("line ").append(i).append('\n');
+    }
+    final MindMap mm = new MindMap(true);
+    final Topic topic = Topic.parse(mm, makeLexer("# Topic\n```PlantUml\n" + body + "```\n- FILE\n<pre>some.txt</pre>\n"));
+    assertEquals(body.toString(), topic.getCodeSnippet("PlantUml"));
+    assertTrue(topic.getExtras().containsKey(Extra.ExtraType.FILE));
+  }
+
   @Test
   public void testParse_TopicWithURLContainingSpaces() throws Exception {
     final MindMap mm = new MindMap(true);
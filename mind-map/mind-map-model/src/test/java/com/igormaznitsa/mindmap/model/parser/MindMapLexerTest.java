@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import java.io.StringReader;
 import org.apache.commons.io.IOUtils;
 import com.igormaznitsa.mindmap.model.parser.MindMapLexer.TokenType;
 
@@ -549,4 +550,50 @@ public class MindMapLexerTest {
     assertEquals(etalon,accum3.toString());
   }
   
+  @Test
+  public void testStreamingModeProducesSameTokens() throws Exception {
+    final String etalon = IOUtils.toString(MindMapLexerTest.class.getResourceAsStream("cancer_risk.mmd"), "UTF-8");
+
+    for (final int chunkSize : new int[] {1, 3, 17, 1024}) {
+      final MindMapLexer textLexer = new MindMapLexer();
+      textLexer.start(etalon, 0, etalon.length(), MindMapLexer.TokenType.HEAD_LINE);
+
+      final MindMapLexer streamLexer = new MindMapLexer();
+      streamLexer.start(new StringReader(etalon), chunkSize, MindMapLexer.TokenType.HEAD_LINE);
+
+      while (true) {
+        textLexer.advance();
+        streamLexer.advance();
+
+        assertEquals(textLexer.getTokenType(), streamLexer.getTokenType());
+        if (textLexer.getTokenType() == null) {
+          break;
+        }
+        assertEquals(textLexer.getTokenStartOffset(), streamLexer.getTokenStartOffset());
+        assertEquals(textLexer.getTokenEndOffset(), streamLexer.getTokenEndOffset());
+        assertEquals(textLexer.getTokenText(), streamLexer.getTokenText());
+        assertEquals(textLexer.getTokenText(), streamLexer.getTokenView().toString());
+        assertEquals(textLexer.getTokenText(), streamLexer.appendTokenText(new StringBuilder()).toString());
+      }
+      streamLexer.checkStreamError();
+    }
+  }
+
+  @Test
+  public void testTokenView() {
+    final MindMapLexer lexer = new MindMapLexer();
+    final String testString = "---\n# Topic\n- NOTE\n";
+    lexer.start(testString, 0, testString.length(), MindMapLexer.TokenType.HEAD_LINE);
+    lexer.advance();
+    lexer.advance();
+    lexer.advance();
+    assertLexer(lexer, MindMapLexer.TokenType.TOPIC_TITLE, "Topic\n", 6, 12);
+    final CharSequence view = lexer.getTokenView();
+    assertEquals(6, view.length());
+    assertEquals('T', view.charAt(0));
+    assertEquals("opi", view.subSequence(1, 4).toString());
+    assertEquals("p", view.subSequence(1, 4).subSequence(1, 2).toString());
+    assertEquals("Topic\n", lexer.appendTokenText(new StringBuilder()).toString());
+  }
+
 }
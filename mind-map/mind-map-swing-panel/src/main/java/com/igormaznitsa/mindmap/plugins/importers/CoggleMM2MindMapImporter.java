@@ -39,6 +39,7 @@ import java.awt.Color;
 import java.awt.Image;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,8 +49,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLStreamException;
 
 public class CoggleMM2MindMapImporter extends AbstractImporter {
 
@@ -119,19 +119,29 @@ public class CoggleMM2MindMapImporter extends AbstractImporter {
       return null;
     }
 
-    final Document document = Utils.loadXmlDocument(new FileInputStream(file), "UTF-8", true);
+    return this.parseFile(file);
+  }
 
+  @Nonnull
+  MindMap parseFile(@Nonnull final File file) throws Exception {
     final MindMap result = new MindMap(true);
     Assertions.assertNotNull(result.getRoot()).setText("Empty");
 
-    final Element root = document.getDocumentElement();
-    if ("map".equals(root.getTagName())) {
-      final List<Element> nodes = Utils.findDirectChildrenForName(root, "node");
-      if (!nodes.isEmpty()) {
-        parseTopic(result, null, result.getRoot(), nodes.get(0));
+    try (final InputStream fileStream = new FileInputStream(file);
+         final StaxReader reader = new StaxReader(fileStream, "UTF-8")) {
+      if ("map".equals(reader.nextRoot())) {
+        boolean rootFound = false;
+        for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+          if (!rootFound && "node".equals(name)) {
+            rootFound = true;
+            parseTopic(reader, null, result.getRoot());
+          } else {
+            reader.skip();
+          }
+        }
+      } else {
+        throw new IllegalArgumentException("File is not Coggle mind map");
       }
-    } else {
-      throw new IllegalArgumentException("File is not Coggle mind map");
     }
 
     return result;
@@ -177,7 +187,7 @@ public class CoggleMM2MindMapImporter extends AbstractImporter {
     return result;
   }
 
-  private void parseTopic(@Nonnull final MindMap map, @Nullable final Topic parent, @Nullable final Topic preGeneratedOne, @Nonnull final Element element) {
+  private void parseTopic(@Nonnull final StaxReader reader, @Nullable final Topic parent, @Nullable final Topic preGeneratedOne) throws XMLStreamException {
     final Topic topicToProcess;
     if (preGeneratedOne == null) {
       topicToProcess = Assertions.assertNotNull(parent).makeChild("", null);
@@ -186,7 +196,7 @@ public class CoggleMM2MindMapImporter extends AbstractImporter {
     }
 
     final StringBuilder resultTextBuffer = new StringBuilder();
-    final List<String> foundImageURLs = extractImageURLs(element.getAttribute("TEXT"), resultTextBuffer);
+    final List<String> foundImageURLs = extractImageURLs(reader.attribute("TEXT"), resultTextBuffer);
     String nodeText = resultTextBuffer.toString();
     resultTextBuffer.setLength(0);
 
@@ -227,17 +237,8 @@ public class CoggleMM2MindMapImporter extends AbstractImporter {
     }
 
     final String text = nodeText.replace("\r", "");
-    final String position = element.getAttribute("POSITION");
-    final String folded = element.getAttribute("FOLDED");
-
-    Color edgeColor = null;
-    for (final Element e : Utils.findDirectChildrenForName(element, "edge")) {
-      try {
-        edgeColor = Utils.html2color(e.getAttribute("COLOR"), false);
-      } catch (final Exception ex) {
-        LOGGER.error("Can't parse color value", ex);
-      }
-    }
+    final String position = reader.attribute("POSITION");
+    final String folded = reader.attribute("FOLDED");
 
     topicToProcess.setText(text);
 
@@ -249,17 +250,29 @@ public class CoggleMM2MindMapImporter extends AbstractImporter {
       MindMapUtils.setCollapsed(topicToProcess, true);
     }
 
-    if (edgeColor != null) {
-      topicToProcess.setAttribute(StandardTopicAttribute.ATTR_FILL_COLOR.getText(), Utils.color2html(edgeColor, false));
-      topicToProcess.setAttribute(StandardTopicAttribute.ATTR_TEXT_COLOR.getText(), Utils.color2html(Utils.makeContrastColor(edgeColor), false));
-    }
-
     if (note.length() > 0) {
       topicToProcess.setExtra(new ExtraNote(note.toString()));
     }
 
-    for (final Element c : Utils.findDirectChildrenForName(element, "node")) {
-      parseTopic(map, topicToProcess, null, c);
+    Color edgeColor = null;
+    for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+      if ("node".equals(name)) {
+        parseTopic(reader, topicToProcess, null);
+      } else {
+        if ("edge".equals(name)) {
+          try {
+            edgeColor = Utils.html2color(reader.attribute("COLOR"), false);
+          } catch (final Exception ex) {
+            LOGGER.error("Can't parse color value", ex);
+          }
+        }
+        reader.skip();
+      }
+    }
+
+    if (edgeColor != null) {
+      topicToProcess.setAttribute(StandardTopicAttribute.ATTR_FILL_COLOR.getText(), Utils.color2html(edgeColor, false));
+      topicToProcess.setAttribute(StandardTopicAttribute.ATTR_TEXT_COLOR.getText(), Utils.color2html(Utils.makeContrastColor(edgeColor), false));
     }
   }
 
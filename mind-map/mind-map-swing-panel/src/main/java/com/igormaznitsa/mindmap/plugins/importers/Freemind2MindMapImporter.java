@@ -42,6 +42,7 @@ import com.igormaznitsa.mindmap.swing.services.ImageIconServiceProvider;
 import java.awt.Color;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -49,20 +50,14 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.Icon;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 
 public class Freemind2MindMapImporter extends AbstractImporter {
 
@@ -72,12 +67,6 @@ public class Freemind2MindMapImporter extends AbstractImporter {
 
   private static final Set<String> TOKEN_NEEDS_NEXT_LINE = new HashSet<String>(Arrays.asList("br", "div", "p", "li"));
 
-  @Nonnull
-  private static String findArrowlinkDestination(@Nonnull final Element element) {
-    final List<Element> arrows = Utils.findDirectChildrenForName(element, "arrowlink");
-    return arrows.isEmpty() ? "" : findAttribute(arrows.get(0), "destination");
-  }
-
   private static void processImageLinkForTopic(@Nonnull final File rootFolder, @Nonnull final Topic topic, @Nonnull @MustNotContainNull final String[] imageUrls) {
     for (final String s : imageUrls) {
       try {
@@ -100,20 +89,29 @@ public class Freemind2MindMapImporter extends AbstractImporter {
     }
   }
 
+  /**
+   * Collect text of HTML content, the reader is moved to the end of current
+   * element.
+   *
+   * @param reader    reader positioned on element start
+   * @param builder   buffer for text
+   * @param imageURLs list to collect found image sources
+   * @return the same buffer
+   * @throws XMLStreamException if there is format error
+   */
   @Nonnull
   @ReturnsOriginal
-  private static StringBuilder processHtmlElement(@Nonnull final NodeList list, @Nonnull final StringBuilder builder, @Nonnull @MustNotContainNull final List<String> imageURLs) {
-    for (int i = 0; i < list.getLength(); i++) {
-      final Node n = list.item(i);
-      switch (n.getNodeType()) {
-        case Node.TEXT_NODE: {
-          builder.append(n.getTextContent());
+  private static StringBuilder processHtmlElement(@Nonnull final StaxReader reader, @Nonnull final StringBuilder builder, @Nonnull @MustNotContainNull final List<String> imageURLs) throws XMLStreamException {
+    while (true) {
+      switch (reader.nextEvent()) {
+        case XMLStreamConstants.CHARACTERS: {
+          builder.append(reader.getText());
         }
         break;
-        case Node.ELEMENT_NODE: {
-          final String tag = n.getNodeName();
+        case XMLStreamConstants.START_ELEMENT: {
+          final String tag = reader.getName().toLowerCase(Locale.ENGLISH);
           if ("img".equals(tag)) {
-            final String source = findAttribute((Element) n, "src");
+            final String source = reader.attribute("src");
             if (!source.isEmpty()) {
               imageURLs.add(source);
             }
@@ -122,59 +120,27 @@ public class Freemind2MindMapImporter extends AbstractImporter {
           if (TOKEN_NEEDS_NEXT_LINE.contains(tag)) {
             builder.append('\n');
           }
-          processHtmlElement(n.getChildNodes(), builder, imageURLs);
+          processHtmlElement(reader, builder, imageURLs);
         }
         break;
         default: {
-          // just ignoring  other elements
+          return builder;
         }
-        break;
       }
     }
-    return builder;
-  }
-
-  @Nonnull
-  @ReturnsOriginal
-  private static StringBuilder extractTextFromHtmlElement(@Nonnull final Element element, @Nonnull final StringBuilder buffer, @Nonnull @MustNotContainNull final List<String> imageURLs) {
-    processHtmlElement(element.getChildNodes(), buffer, imageURLs);
-    return buffer;
   }
 
-  @Nonnull
-  @MustNotContainNull
-  private static List<RichContent> extractRichContent(@Nonnull final Element richContentElement) {
-    final List<Element> richContents = Utils.findDirectChildrenForName(richContentElement, "richcontent");
-
-    final List<RichContent> result = new ArrayList<>();
-
+  @Nullable
+  private static RichContent extractRichContent(@Nonnull final StaxReader reader) throws XMLStreamException {
+    final String textType = reader.attribute("type");
     final List<String> foundImageUrls = new ArrayList<>();
-
-    for (final Element e : richContents) {
-      final String textType = findAttribute(e, "type");
-      try {
-        foundImageUrls.clear();
-        final RichContentType type = RichContentType.valueOf(textType);
-        final String text = extractTextFromHtmlElement(e, new StringBuilder(), foundImageUrls).toString().replace("\r", "");
-        result.add(new RichContent(type, text, foundImageUrls));
-      } catch (IllegalArgumentException ex) {
-        LOGGER.warn("Unknown node type : " + textType);
-      }
-    }
-
-    return result;
-  }
-
-  @Nonnull
-  private static String findAttribute(@Nonnull final Element element, @Nonnull final String attribute) {
-    final NamedNodeMap map = element.getAttributes();
-    for (int i = 0; i < map.getLength(); i++) {
-      final Attr attr = (Attr) map.item(i);
-      if (attribute.equalsIgnoreCase(attr.getName())) {
-        return attr.getValue();
-      }
+    final String text = processHtmlElement(reader, new StringBuilder(), foundImageUrls).toString().replace("\r", "");
+    try {
+      return new RichContent(RichContentType.valueOf(textType), text, foundImageUrls);
+    } catch (IllegalArgumentException ex) {
+      LOGGER.warn("Unknown node type : " + textType);
+      return null;
     }
-    return "";
   }
 
   @Override
@@ -186,24 +152,35 @@ public class Freemind2MindMapImporter extends AbstractImporter {
       return null;
     }
 
-    final Document document = Utils.loadHtmlDocument(new FileInputStream(file), "UTF-8", true);
-    final XPath xpath = XPathFactory.newInstance().newXPath();
-    final Element rootElement = (Element) xpath.evaluate("/html/body/map", document, XPathConstants.NODE);
-
-    if (rootElement == null) {
-      throw new IllegalArgumentException("Can't parse freemind file as xhtml");
-    }
+    return this.parseFile(file);
+  }
 
+  @Nonnull
+  MindMap parseFile(@Nonnull final File file) throws Exception {
     final Map<String, Topic> idTopicMap = new HashMap<>();
     final Map<String, String> linksMap = new HashMap<>();
     final MindMap resultedMap = new MindMap(true);
     resultedMap.setAttribute(MindMapPanel.ATTR_SHOW_JUMPS, "true");
 
-    final List<Element> list = Utils.findDirectChildrenForName(rootElement, "node");
-    if (list.isEmpty()) {
-      Assertions.assertNotNull(resultedMap.getRoot()).setText("Empty");
-    } else {
-      parseTopic(file.getParentFile(), resultedMap, null, resultedMap.getRoot(), list.get(0), idTopicMap, linksMap);
+    try (final InputStream fileStream = new FileInputStream(file);
+         final StaxReader reader = new StaxReader(fileStream, "UTF-8")) {
+      if (!"map".equalsIgnoreCase(reader.nextRoot())) {
+        throw new IllegalArgumentException("Can't find map element in freemind file");
+      }
+
+      boolean rootFound = false;
+      for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+        if (!rootFound && "node".equalsIgnoreCase(name)) {
+          rootFound = true;
+          parseTopic(file.getParentFile(), reader, null, resultedMap.getRoot(), idTopicMap, linksMap);
+        } else {
+          reader.skip();
+        }
+      }
+
+      if (!rootFound) {
+        Assertions.assertNotNull(resultedMap.getRoot()).setText("Empty");
+      }
     }
 
     for (final Map.Entry<String, String> l : linksMap.entrySet()) {
@@ -217,17 +194,14 @@ public class Freemind2MindMapImporter extends AbstractImporter {
     return resultedMap;
   }
 
-  private void parseTopic(@Nonnull final File rootFolder, @Nonnull final MindMap map, @Nullable Topic parent, @Nullable Topic preGeneratedTopic, @Nonnull Element element, @Nonnull final Map<String, Topic> idTopicMap, @Nonnull final Map<String, String> linksMap) {
+  private void parseTopic(@Nonnull final File rootFolder, @Nonnull final StaxReader reader, @Nullable Topic parent, @Nullable Topic preGeneratedTopic, @Nonnull final Map<String, Topic> idTopicMap, @Nonnull final Map<String, String> linksMap) throws XMLStreamException {
 
-    final String text = findAttribute(element, "text");
-    final String id = findAttribute(element, "id");
-    final String position = findAttribute(element, "position");
-    final String arrowDestination = findArrowlinkDestination(element);
-    final String backgroundСolor = findAttribute(element, "background_color");
-    final String color = findAttribute(element, "color");
-    final String link = findAttribute(element, "link");
-
-    final List<RichContent> foundRichContent = extractRichContent(element);
+    final String text = reader.attribute("text");
+    final String id = reader.attribute("id");
+    final String position = reader.attribute("position");
+    final String backgroundСolor = reader.attribute("background_color");
+    final String color = reader.attribute("color");
+    final String link = reader.attribute("link");
 
     final Topic topicToProcess;
     if (preGeneratedTopic == null) {
@@ -260,24 +234,6 @@ public class Freemind2MindMapImporter extends AbstractImporter {
 
     topicToProcess.setText(text);
 
-    for (final RichContent r : foundRichContent) {
-      switch (r.getType()) {
-        case NODE: {
-          if (!r.getText().isEmpty()) {
-            topicToProcess.setText(r.getText().trim());
-          }
-        }
-        break;
-        case NOTE: {
-          if (!r.getText().isEmpty()) {
-            topicToProcess.setExtra(new ExtraNote(r.getText().trim()));
-          }
-        }
-        break;
-      }
-      processImageLinkForTopic(rootFolder, topicToProcess, r.getFoundImageURLs());
-    }
-
     if (!link.isEmpty()) {
       if (link.startsWith("#")) {
         if (!id.isEmpty()) {
@@ -294,13 +250,43 @@ public class Freemind2MindMapImporter extends AbstractImporter {
 
     if (!id.isEmpty()) {
       idTopicMap.put(id, topicToProcess);
-      if (!arrowDestination.isEmpty()) {
-        linksMap.put(id, arrowDestination);
-      }
     }
 
-    for (final Element e : Utils.findDirectChildrenForName(element, "node")) {
-      parseTopic(rootFolder, map, topicToProcess, null, e, idTopicMap, linksMap);
+    boolean arrowFound = false;
+    for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+      if ("node".equalsIgnoreCase(name)) {
+        parseTopic(rootFolder, reader, topicToProcess, null, idTopicMap, linksMap);
+      } else if ("richcontent".equalsIgnoreCase(name)) {
+        final RichContent r = extractRichContent(reader);
+        if (r != null) {
+          switch (r.getType()) {
+            case NODE: {
+              if (!r.getText().isEmpty()) {
+                topicToProcess.setText(r.getText().trim());
+              }
+            }
+            break;
+            case NOTE: {
+              if (!r.getText().isEmpty()) {
+                topicToProcess.setExtra(new ExtraNote(r.getText().trim()));
+              }
+            }
+            break;
+          }
+          processImageLinkForTopic(rootFolder, topicToProcess, r.getFoundImageURLs());
+        }
+      } else if ("arrowlink".equalsIgnoreCase(name)) {
+        if (!arrowFound) {
+          arrowFound = true;
+          final String arrowDestination = reader.attribute("destination");
+          if (!id.isEmpty() && !arrowDestination.isEmpty()) {
+            linksMap.put(id, arrowDestination);
+          }
+        }
+        reader.skip();
+      } else {
+        reader.skip();
+      }
     }
   }
 
@@ -54,10 +54,8 @@ import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.Icon;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 
 public class Novamind2MindMapImporter extends AbstractImporter {
 
@@ -198,7 +196,13 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       return null;
     }
 
-    final ZipFile zipFile = new ZipFile(file);
+    try (final ZipFile zipFile = new ZipFile(file)) {
+      return this.parseZipFile(zipFile);
+    }
+  }
+
+  @Nonnull
+  MindMap parseZipFile(@Nonnull final ZipFile zipFile) {
     final Manifest manifest = new Manifest(zipFile, "manifest.xml");
     final ParsedContent content = new ParsedContent(zipFile, "content.xml");
 
@@ -268,23 +272,29 @@ public class Novamind2MindMapImporter extends AbstractImporter {
 
     private Manifest(@Nonnull final ZipFile zipFile, @Nonnull final String manifestPath) {
       this.zipFile = zipFile;
-      try {
-        final InputStream resourceIn = Utils.findInputStreamForResource(zipFile, manifestPath);
+      try (final InputStream resourceIn = Utils.findInputStreamForResource(zipFile, manifestPath)) {
         if (resourceIn != null) {
-          final Document document = Utils.loadXmlDocument(resourceIn, null, true);
-          final Element main = document.getDocumentElement();
-          if ("manifest".equals(main.getTagName())) {
-            for (final Element e : Utils.findDirectChildrenForName(main, "resources")) {
-              for (final Element r : Utils.findDirectChildrenForName(e, "resource")) {
-                final String id = r.getAttribute("id");
-                final String url = r.getAttribute("url");
-                if (!id.isEmpty() && !url.isEmpty()) {
-                  resourceMap.put(id, new Resource(url));
+          try (final StaxReader reader = new StaxReader(resourceIn, null)) {
+            if ("manifest".equals(reader.nextRoot())) {
+              for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+                if ("resources".equals(name)) {
+                  for (String r = reader.nextChild(); r != null; r = reader.nextChild()) {
+                    if ("resource".equals(r)) {
+                      final String id = reader.attribute("id");
+                      final String url = reader.attribute("url");
+                      if (!id.isEmpty() && !url.isEmpty()) {
+                        resourceMap.put(id, new Resource(url));
+                      }
+                    }
+                    reader.skip();
+                  }
+                } else {
+                  reader.skip();
                 }
               }
+            } else {
+              LOGGER.warn("Can't find manifest tag, looks like that format changed");
             }
-          } else {
-            LOGGER.warn("Can't find manifest tag, looks like that format changed");
           }
         }
       } catch (final Exception ex) {
@@ -355,45 +365,39 @@ public class Novamind2MindMapImporter extends AbstractImporter {
     ParsedContent(@Nonnull final ZipFile file, @Nonnull final String path) {
       TopicReference mapRoot = null;
 
-      try {
-        final InputStream resourceIn = Utils.findInputStreamForResource(file, path);
+      try (final InputStream resourceIn = Utils.findInputStreamForResource(file, path)) {
         if (resourceIn != null) {
-          final Document document = Utils.loadXmlDocument(resourceIn, null, true);
-          final Element main = document.getDocumentElement();
-          if ("document".equals(main.getTagName())) {
-            for (final Element e : Utils.findDirectChildrenForName(main, "topics")) {
-              for (final Element r : Utils.findDirectChildrenForName(e, "topic")) {
-                final String id = r.getAttribute("id");
-                this.topicsMap.put(id, new ContentTopic(id, r));
-              }
-            }
-
-            final Element maps = Utils.findFirstElement(main, "maps");
-            if (maps != null) {
-              final Element firstMap = Utils.findFirstElement(maps, "map");
-              if (firstMap != null) {
-                final Element rootTopicNode = Utils.findFirstElement(firstMap, "topic-node");
-                if (rootTopicNode != null) {
-                  mapRoot = new TopicReference(rootTopicNode, this.topicsMap);
-                }
-
-                for (final Element l : Utils.findDirectChildrenForName(firstMap, "link-lines")) {
-                  for (final Element tn : Utils.findDirectChildrenForName(l, "topic-node")) {
-                    for (final Element lld : Utils.findDirectChildrenForName(tn, "link-line-data")) {
-                      this.linksBetweenTopics.put(lld.getAttribute("start-topic-node-ref"), lld.getAttribute("end-topic-node-ref"));
+          try (final StaxReader reader = new StaxReader(resourceIn, null)) {
+            if ("document".equals(reader.nextRoot())) {
+              boolean mapsFound = false;
+              for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+                if ("topics".equals(name)) {
+                  for (String t = reader.nextChild(); t != null; t = reader.nextChild()) {
+                    if ("topic".equals(t)) {
+                      final String id = reader.attribute("id");
+                      this.topicsMap.put(id, new ContentTopic(id, reader));
+                    } else {
+                      reader.skip();
+                    }
+                  }
+                } else if ("maps".equals(name) && !mapsFound) {
+                  mapsFound = true;
+                  boolean mapFound = false;
+                  for (String m = reader.nextChild(); m != null; m = reader.nextChild()) {
+                    if ("map".equals(m) && !mapFound) {
+                      mapFound = true;
+                      mapRoot = parseMap(reader);
+                    } else {
+                      reader.skip();
                     }
                   }
+                } else {
+                  reader.skip();
                 }
-
-              } else {
-                mapRoot = null;
               }
             } else {
-              mapRoot = null;
+              LOGGER.warn("Can't find document, looks like that format changed");
             }
-
-          } else {
-            LOGGER.warn("Can't find document, looks like that format changed");
           }
         }
       } catch (final Exception ex) {
@@ -403,6 +407,32 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       this.rootRef = mapRoot;
     }
 
+    @Nullable
+    private TopicReference parseMap(@Nonnull final StaxReader reader) throws XMLStreamException {
+      TopicReference result = null;
+      for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+        if ("topic-node".equals(name) && result == null) {
+          result = new TopicReference(reader, this.topicsMap);
+        } else if ("link-lines".equals(name)) {
+          for (String tn = reader.nextChild(); tn != null; tn = reader.nextChild()) {
+            if ("topic-node".equals(tn)) {
+              for (String lld = reader.nextChild(); lld != null; lld = reader.nextChild()) {
+                if ("link-line-data".equals(lld)) {
+                  this.linksBetweenTopics.put(reader.attribute("start-topic-node-ref"), reader.attribute("end-topic-node-ref"));
+                }
+                reader.skip();
+              }
+            } else {
+              reader.skip();
+            }
+          }
+        } else {
+          reader.skip();
+        }
+      }
+      return result;
+    }
+
     @Nullable
     TopicReference findForTopicId(@Nonnull TopicReference startTopicRef, @Nonnull final String contentTopicId) {
       TopicReference result = null;
@@ -434,7 +464,8 @@ public class Novamind2MindMapImporter extends AbstractImporter {
     private static final class TopicReference {
 
       private final String id;
-      private final ContentTopic linkedTopic;
+      private final String topicRef;
+      private final Map<String, ContentTopic> topicMap;
 
       private final Color colorBorder;
       private final Color colorText;
@@ -442,42 +473,63 @@ public class Novamind2MindMapImporter extends AbstractImporter {
 
       private final List<TopicReference> children = new ArrayList<TopicReference>();
 
-      private TopicReference(@Nonnull final Element topicNode, @Nonnull final Map<String, ContentTopic> topicMap) {
-        this.id = topicNode.getAttribute("id");
-        this.linkedTopic = topicMap.get(topicNode.getAttribute("topic-ref"));
-
-        final Element subTopics = Utils.findFirstElement(topicNode, "sub-topics");
-        if (subTopics != null) {
-          for (final Element t : Utils.findDirectChildrenForName(subTopics, "topic-node")) {
-            this.children.add(new TopicReference(t, topicMap));
-          }
-        }
+      private TopicReference(@Nonnull final StaxReader reader, @Nonnull final Map<String, ContentTopic> topicMap) throws XMLStreamException {
+        this.id = reader.attribute("id");
+        this.topicRef = reader.attribute("topic-ref");
+        this.topicMap = topicMap;
 
         Color tmpColorBackground = null;
         Color tmpColorText = null;
         Color tmpColorBorder = null;
 
-        final Element topicNodeView = Utils.findFirstElement(topicNode, "topic-node-view");
-        if (topicNodeView != null) {
-          final Element style = Utils.findFirstElement(topicNodeView, "topic-node-style");
-          if (style != null) {
-            final Element fillStyle = Utils.findFirstElement(style, "fill-style");
-            final Element lineStyle = Utils.findFirstElement(style, "line-style");
-
-            if (fillStyle != null) {
-              final Element solidColor = Utils.findFirstElement(fillStyle, "solid-color");
-              if (solidColor != null) {
-                tmpColorBackground = Utils.html2color(solidColor.getAttribute("color"), false);
-                if (tmpColorBackground != null) {
-                  tmpColorText = Utils.makeContrastColor(tmpColorBackground);
-                }
+        boolean subTopicsFound = false;
+        boolean viewFound = false;
+        for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+          if ("sub-topics".equals(name) && !subTopicsFound) {
+            subTopicsFound = true;
+            for (String t = reader.nextChild(); t != null; t = reader.nextChild()) {
+              if ("topic-node".equals(t)) {
+                this.children.add(new TopicReference(reader, topicMap));
+              } else {
+                reader.skip();
               }
             }
-
-            if (lineStyle != null) {
-              tmpColorBorder = Utils.html2color(lineStyle.getAttribute("color"), false);
+          } else if ("topic-node-view".equals(name) && !viewFound) {
+            viewFound = true;
+            boolean styleFound = false;
+            for (String v = reader.nextChild(); v != null; v = reader.nextChild()) {
+              if ("topic-node-style".equals(v) && !styleFound) {
+                styleFound = true;
+                boolean fillFound = false;
+                boolean lineFound = false;
+                for (String st = reader.nextChild(); st != null; st = reader.nextChild()) {
+                  if ("fill-style".equals(st) && !fillFound) {
+                    fillFound = true;
+                    boolean solidFound = false;
+                    for (String f = reader.nextChild(); f != null; f = reader.nextChild()) {
+                      if ("solid-color".equals(f) && !solidFound) {
+                        solidFound = true;
+                        tmpColorBackground = Utils.html2color(reader.attribute("color"), false);
+                        if (tmpColorBackground != null) {
+                          tmpColorText = Utils.makeContrastColor(tmpColorBackground);
+                        }
+                      }
+                      reader.skip();
+                    }
+                  } else {
+                    if ("line-style".equals(st) && !lineFound) {
+                      lineFound = true;
+                      tmpColorBorder = Utils.html2color(reader.attribute("color"), false);
+                    }
+                    reader.skip();
+                  }
+                }
+              } else {
+                reader.skip();
+              }
             }
-
+          } else {
+            reader.skip();
           }
         }
 
@@ -508,7 +560,7 @@ public class Novamind2MindMapImporter extends AbstractImporter {
 
       @Nullable
       ContentTopic getContentTopic() {
-        return this.linkedTopic;
+        return this.topicMap.get(this.topicRef);
       }
 
       @Nonnull
@@ -526,79 +578,74 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       private final List<String> linkUrls;
       private final String imageResourceId;
 
-      private ContentTopic(@Nonnull final String id, @Nonnull final Element nodeElement) {
+      private ContentTopic(@Nonnull final String id, @Nonnull final StaxReader reader) throws XMLStreamException {
         this.id = id;
-        this.imageResourceId = extractImageId(nodeElement);
-        this.notes = extractNotes(nodeElement);
-        this.linkUrls = extractLinkUrls(nodeElement);
-        this.richText = extractRichTextBlock(nodeElement);
-      }
-
-      @Nonnull
-      private static String extractRichText(@Nonnull final Element richText) {
-        final StringBuilder result = new StringBuilder();
 
-        for (final Element r : Utils.findDirectChildrenForName(richText, "text-run")) {
-          NodeList list = r.getChildNodes();
-          for (int i = 0; i < list.getLength(); i++) {
-            final Node n = list.item(i);
-
-            if (n.getNodeType() == Node.ELEMENT_NODE) {
-              if (n.getNodeName().equals("br")) {
-                result.append('\n');
+        String imageId = null;
+        boolean imageFound = false;
+        final StringBuilder notesText = new StringBuilder();
+        final StringBuilder text = new StringBuilder();
+        final List<String> urls = new ArrayList<String>();
+
+        for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+          if ("top-image".equals(name) && !imageFound) {
+            imageFound = true;
+            final String resourceRef = reader.attribute("resource-ref");
+            imageId = resourceRef.isEmpty() ? null : resourceRef;
+            reader.skip();
+          } else if ("notes".equals(name)) {
+            for (String n = reader.nextChild(); n != null; n = reader.nextChild()) {
+              if ("rich-text".equals(n)) {
+                notesText.append(extractRichText(reader));
               } else {
-                result.append(n.getTextContent());
+                reader.skip();
+              }
+            }
+          } else if ("links".equals(name)) {
+            for (String l = reader.nextChild(); l != null; l = reader.nextChild()) {
+              if ("link".equals(l)) {
+                final String url = reader.attribute("url");
+                if (!url.isEmpty()) {
+                  urls.add(url);
+                }
               }
-            } else if (n.getNodeType() == Node.TEXT_NODE) {
-              result.append(n.getTextContent());
+              reader.skip();
             }
+          } else if ("rich-text".equals(name)) {
+            text.append(extractRichText(reader));
+          } else {
+            reader.skip();
           }
         }
 
-        return result.toString();
-      }
-
-      @Nullable
-      private static String extractImageId(@Nonnull final Element node) {
-        final Element imageElement = Utils.findFirstElement(node, "top-image");
-        final String resourceRef = imageElement == null ? "" : imageElement.getAttribute("resource-ref");
-        return resourceRef.isEmpty() ? null : resourceRef;
+        this.imageResourceId = imageId;
+        this.notes = notesText.length() == 0 ? null : notesText.toString();
+        this.linkUrls = urls;
+        this.richText = text.length() == 0 ? null : text.toString();
       }
 
-      @Nullable
-      private static String extractNotes(@Nonnull final Element node) {
-        final StringBuilder result = new StringBuilder();
-        for (final Element e : Utils.findDirectChildrenForName(node, "notes")) {
-          final String rtext = extractRichTextBlock(e);
-          if (rtext != null) {
-            result.append(rtext);
-          }
-        }
-        return result.length() == 0 ? null : result.toString();
-      }
-
-      @Nullable
-      private static String extractRichTextBlock(@Nonnull final Element element) {
+      @Nonnull
+      private static String extractRichText(@Nonnull final StaxReader reader) throws XMLStreamException {
         final StringBuilder result = new StringBuilder();
-        for (final Element rc : Utils.findDirectChildrenForName(element, "rich-text")) {
-          result.append(extractRichText(rc));
-        }
-        return result.length() == 0 ? null : result.toString();
-      }
 
-      @Nonnull
-      @MustNotContainNull
-      private static List<String> extractLinkUrls(@Nonnull final Element node) {
-        final List<String> result = new ArrayList<String>();
-        for (final Element links : Utils.findDirectChildrenForName(node, "links")) {
-          for (final Element l : Utils.findDirectChildrenForName(links, "link")) {
-            final String url = l.getAttribute("url");
-            if (!url.isEmpty()) {
-              result.add(url);
+        for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+          if ("text-run".equals(name)) {
+            for (int event = reader.nextEvent(); event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.CHARACTERS; event = reader.nextEvent()) {
+              if (event == XMLStreamConstants.CHARACTERS) {
+                result.append(reader.getText());
+              } else if ("br".equals(reader.getName())) {
+                result.append('\n');
+                reader.skip();
+              } else {
+                result.append(reader.readText());
+              }
             }
+          } else {
+            reader.skip();
           }
         }
-        return result;
+
+        return result.toString();
       }
 
       @Nonnull
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.importers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Thin wrapper over StAX reader for importers, it allows to process XML
+ * document element by element without building of DOM tree. Namespaces are not
+ * processed, element and attribute names are used as qualified names written in
+ * document (for instance "xlink:href").
+ * <p>
+ * Usual pattern of use is loop through children of current element by
+ * {@link #nextChild()}, every found child must be fully consumed by its
+ * handler with either own loop through {@link #nextChild()} up to null or by
+ * {@link #skip()} or {@link #readText()}.
+ *
+ * @since 1.4.10
+ */
+final class StaxReader implements Closeable {
+
+  private final InputStream stream;
+  private final XMLStreamReader reader;
+
+  /**
+   * Constructor.
+   *
+   * @param stream   stream of XML document, it will be closed by {@link #close()}
+   * @param encoding encoding of the stream, null if it should be detected from
+   *                 document
+   * @throws XMLStreamException if reader can't be created
+   */
+  StaxReader(@Nonnull final InputStream stream, @Nullable final String encoding) throws XMLStreamException {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    this.stream = stream;
+    this.reader = encoding == null ? factory.createXMLStreamReader(stream) : factory.createXMLStreamReader(stream, encoding);
+  }
+
+  @Nonnull
+  private static String makeName(@Nullable final String prefix, @Nonnull final String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+  }
+
+  /**
+   * Move to the document root element.
+   *
+   * @return name of the root element or null if there is no root element
+   * @throws XMLStreamException if there is format error
+   */
+  @Nullable
+  String nextRoot() throws XMLStreamException {
+    while (this.reader.hasNext()) {
+      if (this.reader.next() == XMLStreamConstants.START_ELEMENT) {
+        return this.getName();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Move to the next child of current element.
+   *
+   * @return name of found child element or null if end of current element is
+   * reached
+   * @throws XMLStreamException if there is format error
+   */
+  @Nullable
+  String nextChild() throws XMLStreamException {
+    while (this.reader.hasNext()) {
+      switch (this.reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          return this.getName();
+        case XMLStreamConstants.END_ELEMENT:
+        case XMLStreamConstants.END_DOCUMENT:
+          return null;
+        default:
+          break;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Move to the next event inside current element, it is needed for
+   * processing of mixed content.
+   *
+   * @return type of the event, START_ELEMENT, END_ELEMENT or CHARACTERS
+   * @throws XMLStreamException if there is format error
+   */
+  int nextEvent() throws XMLStreamException {
+    while (this.reader.hasNext()) {
+      final int event = this.reader.next();
+      switch (event) {
+        case XMLStreamConstants.START_ELEMENT:
+        case XMLStreamConstants.END_ELEMENT:
+        case XMLStreamConstants.END_DOCUMENT:
+          return event;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          return XMLStreamConstants.CHARACTERS;
+        default:
+          break;
+      }
+    }
+    return XMLStreamConstants.END_DOCUMENT;
+  }
+
+  /**
+   * Get text of current characters event.
+   *
+   * @return text
+   */
+  @Nonnull
+  String getText() {
+    return this.reader.getText();
+  }
+
+  /**
+   * Get name of current element.
+   *
+   * @return qualified name of element
+   */
+  @Nonnull
+  String getName() {
+    return makeName(this.reader.getPrefix(), this.reader.getLocalName());
+  }
+
+  /**
+   * Find attribute of current element, name is case insensitive.
+   *
+   * @param name qualified name of attribute
+   * @return value of attribute or empty string if not found
+   */
+  @Nonnull
+  String attribute(@Nonnull final String name) {
+    for (int i = 0; i < this.reader.getAttributeCount(); i++) {
+      if (name.equalsIgnoreCase(makeName(this.reader.getAttributePrefix(i), this.reader.getAttributeLocalName(i)))) {
+        final String value = this.reader.getAttributeValue(i);
+        return value == null ? "" : value;
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Read whole text content of current element including text of its
+   * children, reader is moved to the end of the element.
+   *
+   * @return text content
+   * @throws XMLStreamException if there is format error
+   */
+  @Nonnull
+  String readText() throws XMLStreamException {
+    final StringBuilder result = new StringBuilder();
+    int depth = 1;
+    while (depth > 0) {
+      switch (this.nextEvent()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+          result.append(this.reader.getText());
+          break;
+        default:
+          depth = 0;
+          break;
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Skip current element with all its content.
+   *
+   * @throws XMLStreamException if there is format error
+   */
+  void skip() throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      switch (this.nextEvent()) {
+        case XMLStreamConstants.START_ELEMENT:
+          depth++;
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamConstants.CHARACTERS:
+          break;
+        default:
+          depth = 0;
+          break;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.reader.close();
+    } catch (XMLStreamException ex) {
+      throw new IOException("Can't close XML reader", ex);
+    } finally {
+      IOUtils.closeQuietly(this.stream);
+    }
+  }
+}
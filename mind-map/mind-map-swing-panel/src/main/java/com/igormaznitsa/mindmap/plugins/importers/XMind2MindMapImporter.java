@@ -19,7 +19,6 @@ package com.igormaznitsa.mindmap.plugins.importers;
 import static com.igormaznitsa.meta.common.utils.Assertions.assertNotNull;
 
 
-import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.model.ExtraFile;
 import com.igormaznitsa.mindmap.model.ExtraLink;
 import com.igormaznitsa.mindmap.model.ExtraNote;
@@ -53,11 +52,10 @@ import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.Icon;
+import javax.xml.stream.XMLStreamException;
 import org.apache.commons.io.IOUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 public class XMind2MindMapImporter extends AbstractImporter {
 
@@ -71,30 +69,9 @@ public class XMind2MindMapImporter extends AbstractImporter {
     return new IllegalArgumentException("Wrong or unsupported XMind file format");
   }
 
-  @Nonnull
-  private static String extractTopicTitle(@Nonnull final Element topic) {
-    final List<Element> title = Utils.findDirectChildrenForName(topic, "title");
-    return title.isEmpty() ? "" : title.get(0).getTextContent();
-  }
-
-  @Nonnull
-  @MustNotContainNull
-  private static List<Element> getChildTopics(@Nonnull final Element topic) {
-    List<Element> result = new ArrayList<Element>();
-
-    for (final Element c : Utils.findDirectChildrenForName(topic, "children")) {
-      for (Element t : Utils.findDirectChildrenForName(c, "topics")) {
-        result.addAll(Utils.findDirectChildrenForName(t, "topic"));
-      }
-    }
-
-    return result;
-  }
-
   private static void convertTopic(@Nonnull ZipFile zipFile, @Nonnull final XMindStyles styles,
-                                   @Nonnull final MindMap map, @Nullable final Topic parent,
+                                   @Nonnull final StaxReader reader, @Nullable final Topic parent,
                                    @Nullable Topic pregeneratedOne,
-                                   @Nonnull final Element topicElement,
                                    @Nonnull Map<String, Topic> idTopicMap,
                                    @Nonnull final Map<String, String> linksBetweenTopics)
       throws Exception {
@@ -106,23 +83,16 @@ public class XMind2MindMapImporter extends AbstractImporter {
       topicToProcess = pregeneratedOne;
     }
 
-    topicToProcess.setText(extractTopicTitle(topicElement));
-
-    final String theTopicId = topicElement.getAttribute("id");
+    final String theTopicId = reader.attribute("id");
 
     idTopicMap.put(theTopicId, topicToProcess);
 
-    final String styleId = topicElement.getAttribute("style-id");
+    final String styleId = reader.attribute("style-id");
     if (!styleId.isEmpty()) {
       styles.setStyle(styleId, topicToProcess);
     }
 
-    final String attachedImage = extractFirstAttachedImageAsBase64(zipFile, topicElement);
-    if (attachedImage != null && !attachedImage.isEmpty()) {
-      topicToProcess.setAttribute(ImageVisualAttributePlugin.ATTR_KEY, attachedImage);
-    }
-
-    final String xlink = topicElement.getAttribute("xlink:href");
+    final String xlink = reader.attribute("xlink:href");
     if (!xlink.isEmpty()) {
       if (xlink.startsWith("file:")) {
         try {
@@ -141,41 +111,65 @@ public class XMind2MindMapImporter extends AbstractImporter {
       }
     }
 
-    final String extractedNote = extractNote(topicElement);
+    boolean titleFound = false;
+    String attachedImage = null;
+    final StringBuilder extractedNote = new StringBuilder();
 
-    if (!extractedNote.isEmpty()) {
-      topicToProcess.setExtra(new ExtraNote(extractedNote));
+    for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+      if ("title".equals(name) && !titleFound) {
+        titleFound = true;
+        topicToProcess.setText(reader.readText());
+      } else if ("xhtml:img".equals(name)) {
+        if (attachedImage == null) {
+          attachedImage = extractAttachedImageAsBase64(zipFile, reader.attribute("xhtml:src"));
+        }
+        reader.skip();
+      } else if ("notes".equals(name)) {
+        appendNote(reader, extractedNote);
+      } else if ("children".equals(name)) {
+        for (String topics = reader.nextChild(); topics != null; topics = reader.nextChild()) {
+          if ("topics".equals(topics)) {
+            for (String topic = reader.nextChild(); topic != null; topic = reader.nextChild()) {
+              if ("topic".equals(topic)) {
+                convertTopic(zipFile, styles, reader, topicToProcess, null, idTopicMap, linksBetweenTopics);
+              } else {
+                reader.skip();
+              }
+            }
+          } else {
+            reader.skip();
+          }
+        }
+      } else {
+        reader.skip();
+      }
+    }
+
+    if (attachedImage != null && !attachedImage.isEmpty()) {
+      topicToProcess.setAttribute(ImageVisualAttributePlugin.ATTR_KEY, attachedImage);
     }
 
-    for (final Element c : getChildTopics(topicElement)) {
-      convertTopic(zipFile, styles, map, topicToProcess, null, c, idTopicMap, linksBetweenTopics);
+    if (extractedNote.length() > 0) {
+      topicToProcess.setExtra(new ExtraNote(extractedNote.toString()));
     }
   }
 
   @Nullable
-  private static String extractFirstAttachedImageAsBase64(@Nonnull final ZipFile file,
-                                                          @Nonnull final Element topic) {
+  private static String extractAttachedImageAsBase64(@Nonnull final ZipFile file,
+                                                     @Nonnull final String link) {
     String result = null;
 
-    for (final Element e : Utils.findDirectChildrenForName(topic, "xhtml:img")) {
-      final String link = e.getAttribute("xhtml:src");
-      if (!link.isEmpty()) {
-        if (link.startsWith("xap:")) {
-          InputStream inStream = null;
-          try {
-            inStream = Utils.findInputStreamForResource(file, link.substring(4));
-            if (inStream != null) {
-              result = Utils.rescaleImageAndEncodeAsBase64(inStream, -1);
-              if (result != null) {
-                break;
-              }
-            }
-          } catch (final Exception ex) {
-            LOGGER.error("Can't decode attached image : " + link, ex);
-          } finally {
-            IOUtils.closeQuietly(inStream);
-          }
+    if (link.startsWith("xap:")) {
+      InputStream inStream = null;
+      try {
+        inStream = Utils.findInputStreamForResource(file, link.substring(4));
+        if (inStream != null) {
+          result = Utils.rescaleImageAndEncodeAsBase64(inStream, -1);
         }
+      } catch (final Exception ex) {
+        LOGGER.error("Can't decode attached image : " + link, ex);
+      } finally {
+        IOUtils.closeQuietly(inStream);
       }
     }
     return result;
@@ -206,26 +200,32 @@ public class XMind2MindMapImporter extends AbstractImporter {
     return result;
   }
 
-  @Nonnull
-  private static String extractNote(@Nonnull final Element topic) {
-    final StringBuilder result = new StringBuilder();
-
-    for (final Element note : Utils.findDirectChildrenForName(topic, "notes")) {
-      final String plain = extractTextContentFrom(note, "plain");
-      final String html = extractTextContentFrom(note, "html");
-
-      if (result.length() > 0) {
-        result.append('\n');
-      }
-
-      if (!plain.isEmpty()) {
-        result.append(plain);
-      } else if (!html.isEmpty()) {
-        result.append(html);
+  /**
+   * Append text of notes element to already extracted note, every notes element
+   * of topic is started with new line.
+   *
+   * @param reader reader positioned on notes element
+   * @param result buffer collecting note text of topic
+   * @throws XMLStreamException if there is format error
+   */
+  private static void appendNote(@Nonnull final StaxReader reader, @Nonnull final StringBuilder result) throws XMLStreamException {
+    final StringBuilder plain = new StringBuilder();
+    final StringBuilder html = new StringBuilder();
+
+    for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+      if ("plain".equals(name)) {
+        plain.append(reader.readText().replace("\r", ""));
+      } else if ("html".equals(name)) {
+        html.append(reader.readText().replace("\r", ""));
+      } else {
+        reader.skip();
       }
     }
 
-    return result.toString();
+    if (result.length() > 0) {
+      result.append('\n');
+    }
+    result.append(plain.length() > 0 ? plain : html);
   }
 
   @Nonnull
@@ -249,21 +249,6 @@ public class XMind2MindMapImporter extends AbstractImporter {
     return result.toString();
   }
 
-  @Nonnull
-  private static String extractTextContentFrom(@Nonnull final Element element,
-                                               @Nonnull final String tag) {
-    final StringBuilder result = new StringBuilder();
-
-    for (final Element c : Utils.findDirectChildrenForName(element, tag)) {
-      final String found = c.getTextContent();
-      if (found != null && !found.isEmpty()) {
-        result.append(found.replace("\r", ""));
-      }
-    }
-
-    return result.toString();
-  }
-
   @Nonnull
   private static String extractTextContentFrom(@Nonnull final JSONObject element,
                                                @Nonnull final String tag) {
@@ -291,26 +276,27 @@ public class XMind2MindMapImporter extends AbstractImporter {
       return null;
     }
 
-    final ZipFile zipFile = new ZipFile(file);
-    final XMindStyles styles = new XMindStyles(zipFile);
-
-    return this.parseZipFile(zipFile);
+    try (final ZipFile zipFile = new ZipFile(file)) {
+      return this.parseZipFile(zipFile);
+    }
   }
 
   @Nonnull
   MindMap parseZipFile(@Nonnull final ZipFile zipFile) throws Exception {
-    InputStream contentStream = Utils.findInputStreamForResource(zipFile, "content.json");
     MindMap result;
-    if (contentStream == null) {
-      final XMindStyles styles = new XMindStyles(zipFile);
-      contentStream = Utils.findInputStreamForResource(zipFile, "content.xml");
-      if (contentStream == null) {
-        throw makeWrongFormatException();
+    try (final InputStream jsonStream = Utils.findInputStreamForResource(zipFile, "content.json")) {
+      if (jsonStream == null) {
+        final XMindStyles styles = new XMindStyles(zipFile);
+        try (final InputStream xmlStream = Utils.findInputStreamForResource(zipFile, "content.xml")) {
+          if (xmlStream == null) {
+            throw makeWrongFormatException();
+          } else {
+            result = convertXmlContent(styles, zipFile, xmlStream);
+          }
+        }
       } else {
-        result = convertXmlContent(styles, zipFile, contentStream);
+        result = convertJsonContent(zipFile, jsonStream);
       }
-    } else {
-      result = convertJsonContent(zipFile, contentStream);
     }
     return result;
   }
@@ -567,32 +553,33 @@ public class XMind2MindMapImporter extends AbstractImporter {
       @Nonnull final ZipFile zipFile,
       @Nonnull final InputStream content
   ) throws Exception {
-    final Document document =
-        Utils.loadXmlDocument(assertNotNull(content), null, true);
+    try (final StaxReader reader = new StaxReader(content, null)) {
+      if (!"xmap-content".equals(reader.nextRoot())) {
+        throw makeWrongFormatException();
+      }
 
-    final Element rootElement = document.getDocumentElement();
-    if (!rootElement.getTagName().equals("xmap-content")) {
-      makeWrongFormatException();
-    }
+      MindMap result = null;
 
-    final List<Element> xmlSheets =
-        Utils.findDirectChildrenForName(document.getDocumentElement(), "sheet");
+      for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+        if (result == null && "sheet".equals(name)) {
+          result = convertXmlSheet(style, zipFile, reader);
+        } else {
+          reader.skip();
+        }
+      }
 
-    final MindMap result;
+      if (result == null) {
+        result = new MindMap(true);
+        assertNotNull(result.getRoot()).setText("Empty");
+      }
 
-    if (xmlSheets.isEmpty()) {
-      result = new MindMap(true);
-      assertNotNull(result.getRoot()).setText("Empty");
-    } else {
-      result = convertXmlSheet(style, zipFile, xmlSheets.get(0));
+      return result;
     }
-
-    return result;
   }
 
   @Nonnull
   private MindMap convertXmlSheet(@Nonnull final XMindStyles styles, @Nonnull final ZipFile file,
-                                  @Nonnull final Element sheet) throws Exception {
+                                  @Nonnull final StaxReader reader) throws Exception {
     final MindMap resultedMap = new MindMap(true);
     resultedMap.setAttribute(MindMapPanel.ATTR_SHOW_JUMPS, "true");
 
@@ -601,23 +588,31 @@ public class XMind2MindMapImporter extends AbstractImporter {
 
     final Map<String, Topic> topicIdMap = new HashMap<String, Topic>();
     final Map<String, String> linksBetweenTopics = new HashMap<String, String>();
-
-    final List<Element> rootTopics = Utils.findDirectChildrenForName(sheet, "topic");
-    if (!rootTopics.isEmpty()) {
-      convertTopic(file, styles, resultedMap, null, rootTopic, rootTopics.get(0), topicIdMap,
-          linksBetweenTopics);
+    final List<String[]> relationships = new ArrayList<String[]>();
+
+    boolean rootFound = false;
+    for (String name = reader.nextChild(); name != null; name = reader.nextChild()) {
+      if ("topic".equals(name) && !rootFound) {
+        rootFound = true;
+        convertTopic(file, styles, reader, null, rootTopic, topicIdMap, linksBetweenTopics);
+      } else if ("relationships".equals(name)) {
+        for (String r = reader.nextChild(); r != null; r = reader.nextChild()) {
+          if ("relationship".equals(r)) {
+            relationships.add(new String[] {reader.attribute("end1"), reader.attribute("end2")});
+          }
+          reader.skip();
+        }
+      } else {
+        reader.skip();
+      }
     }
 
-    for (final Element l : Utils.findDirectChildrenForName(sheet, "relationships")) {
-      for (final Element r : Utils.findDirectChildrenForName(l, "relationship")) {
-        final String end1 = r.getAttribute("end1");
-        final String end2 = r.getAttribute("end2");
-        if (!linksBetweenTopics.containsKey(end1)) {
-          final Topic startTopic = topicIdMap.get(end1);
-          final Topic endTopic = topicIdMap.get(end2);
-          if (startTopic != null && endTopic != null) {
-            startTopic.setExtra(ExtraTopic.makeLinkTo(resultedMap, endTopic));
-          }
+    for (final String[] r : relationships) {
+      if (!linksBetweenTopics.containsKey(r[0])) {
+        final Topic startTopic = topicIdMap.get(r[0]);
+        final Topic endTopic = topicIdMap.get(r[1]);
+        if (startTopic != null && endTopic != null) {
+          startTopic.setExtra(ExtraTopic.makeLinkTo(resultedMap, endTopic));
         }
       }
     }
@@ -698,22 +693,25 @@ public class XMind2MindMapImporter extends AbstractImporter {
       this.foreground = null;
     }
 
-    XMindStyle(@Nonnull final Element style) {
+    XMindStyle(@Nonnull final StaxReader style) throws XMLStreamException {
       Color back = null;
       Color front = null;
       Color bord = null;
       String align = null;
 
-      for (final Element t : Utils.findDirectChildrenForName(style, "topic-properties")) {
-        final String colorFill = t.getAttribute("svg:fill");
-        final String colorText = t.getAttribute("fo:color");
-        final String textAlign = t.getAttribute("fo:text-align");
-
-        final String colorBorder = t.getAttribute("border-line-color");
-        back = Utils.html2color(colorFill, false);
-        front = Utils.html2color(colorText, false);
-        bord = Utils.html2color(colorBorder, false);
-        align = convertTextAlign(textAlign);
+      for (String name = style.nextChild(); name != null; name = style.nextChild()) {
+        if ("topic-properties".equals(name)) {
+          final String colorFill = style.attribute("svg:fill");
+          final String colorText = style.attribute("fo:color");
+          final String textAlign = style.attribute("fo:text-align");
+
+          final String colorBorder = style.attribute("border-line-color");
+          back = Utils.html2color(colorFill, false);
+          front = Utils.html2color(colorText, false);
+          bord = Utils.html2color(colorBorder, false);
+          align = convertTextAlign(textAlign);
+        }
+        style.skip();
       }
 
       this.foreground = front;
@@ -779,18 +777,22 @@ public class XMind2MindMapImporter extends AbstractImporter {
     private final Map<String, XMindStyle> stylesMap = new HashMap<String, XMindStyle>();
 
     private XMindStyles(@Nonnull final ZipFile zipFile) {
-      try {
-        final InputStream stylesXml = Utils.findInputStreamForResource(zipFile, "styles.xml");
+      try (final InputStream stylesXml = Utils.findInputStreamForResource(zipFile, "styles.xml")) {
         if (stylesXml != null) {
-          final Document parsedStyles = Utils.loadXmlDocument(stylesXml, null, true);
-          final Element root = parsedStyles.getDocumentElement();
-
-          if ("xmap-styles".equals(root.getTagName())) {
-            for (final Element styles : Utils.findDirectChildrenForName(root, "styles")) {
-              for (final Element style : Utils.findDirectChildrenForName(styles, "style")) {
-                final String id = style.getAttribute("id");
-                if (!id.isEmpty() && "topic".equals(style.getAttribute("type"))) {
-                  this.stylesMap.put(id, new XMindStyle(style));
+          try (final StaxReader reader = new StaxReader(stylesXml, null)) {
+            if ("xmap-styles".equals(reader.nextRoot())) {
+              for (String styles = reader.nextChild(); styles != null; styles = reader.nextChild()) {
+                if ("styles".equals(styles)) {
+                  for (String style = reader.nextChild(); style != null; style = reader.nextChild()) {
+                    final String id = reader.attribute("id");
+                    if ("style".equals(style) && !id.isEmpty() && "topic".equals(reader.attribute("type"))) {
+                      this.stylesMap.put(id, new XMindStyle(reader));
+                    } else {
+                      reader.skip();
+                    }
+                  }
+                } else {
+                  reader.skip();
                 }
               }
             }
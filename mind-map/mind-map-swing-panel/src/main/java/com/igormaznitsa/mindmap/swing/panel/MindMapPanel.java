@@ -28,6 +28,8 @@ import com.igormaznitsa.mindmap.model.ExtraLink;
 import com.igormaznitsa.mindmap.model.ExtraNote;
 import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapModelEvent;
+import com.igormaznitsa.mindmap.model.MindMapModelEventListener;
 import com.igormaznitsa.mindmap.model.ModelUtils;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.TopicChecker;
@@ -40,6 +42,7 @@ import com.igormaznitsa.mindmap.plugins.api.PluginContext;
 import com.igormaznitsa.mindmap.plugins.api.VisualAttributePlugin;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractCollapsableElement;
 import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementGridIndex;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelFirst;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelOther;
 import com.igormaznitsa.mindmap.swing.panel.ui.ElementPart;
@@ -152,7 +155,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private transient MouseSelectedArea mouseDragSelection = null;
   private transient DraggedElement draggedElement = null;
   private transient AbstractElement destinationElement = null;
+  private transient volatile boolean layoutValid = false;
+  private transient MindMapPanelConfig layoutConfig = null;
+  private transient volatile ElementGridIndex elementIndex = null;
   private final UUID uuid = UUID.randomUUID();
+  private final MindMapModelEventListener modelEventListener = new MindMapModelEventListener() {
+    @Override
+    public void onMindMapStructureChanged(@Nonnull final MindMapModelEvent event) {
+      layoutValid = false;
+    }
+
+    @Override
+    public void onMindMapNodesChanged(@Nonnull final MindMapModelEvent event) {
+      final Topic[] path = event.getPath();
+      if (path.length > 0) {
+        final Object element = path[path.length - 1].getPayload();
+        if (element instanceof AbstractElement) {
+          ((AbstractElement) element).invalidateLayout();
+        }
+      }
+      layoutValid = false;
+    }
+  };
 
   @Nonnull
   public UUID getUuid() {
@@ -885,13 +909,22 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
   private static void drawTopics(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, @Nullable final MindMap map) {
     if (map != null) {
+      final Rectangle clip = g.getClipBounds();
+      final Rectangle2D paintArea;
+      if (clip == null) {
+        paintArea = null;
+      } else {
+        final double margin = (cfg.getShadowOffset() + cfg.getCollapsatorSize() + cfg.getElementBorderWidth()) * cfg.getScale();
+        paintArea = new Rectangle2D.Double(clip.getX() - margin, clip.getY() - margin, clip.getWidth() + margin * 2, clip.getHeight() + margin * 2);
+      }
+
       if (Boolean.parseBoolean(map.getAttribute(ATTR_SHOW_JUMPS))) {
-        drawJumps(g, map, cfg);
+        drawJumps(g, map, cfg, paintArea);
       }
 
       final Topic root = map.getRoot();
       if (root != null) {
-        drawTopicTree(g, root, cfg);
+        drawTopicTree(g, root, cfg, paintArea, new Rectangle2D.Double());
       }
     }
   }
@@ -904,7 +937,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return Math.atan((ey - sy) / deltax) + (ex < sx ? Math.PI : 0);
   }
 
-  private static void drawJumps(@Nonnull final MMGraphics gfx, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg) {
+  private static void drawJumps(@Nonnull final MMGraphics gfx, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nullable final Rectangle2D paintArea) {
     final List<Topic> allTopicsWithJumps = map.findAllTopicsForExtraType(Extra.ExtraType.TOPIC);
 
     final float scaledSize = cfg.safeScaleFloatValue(cfg.getJumpLinkWidth(), 0.1f);
@@ -916,6 +949,8 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
     final float arrowSize = cfg.safeScaleFloatValue(10.0f * cfg.getJumpLinkWidth(), 0.2f);
 
+    final Rectangle2D jumpArea = new Rectangle2D.Double();
+
     for (Topic src : allTopicsWithJumps) {
       final ExtraTopic extra = (ExtraTopic) assertNotNull(assertNotNull(src).getExtras()).get(Extra.ExtraType.TOPIC);
 
@@ -937,6 +972,15 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
               final AbstractElement srcElement = assertNotNull((AbstractElement) assertNotNull(src).getPayload());
               final Rectangle2D srcRect = srcElement.getBounds();
               final Rectangle2D dstRect = dstElement.getBounds();
+
+              if (paintArea != null) {
+                Rectangle2D.union(srcRect, dstRect, jumpArea);
+                jumpArea.setRect(jumpArea.getX() - arrowSize, jumpArea.getY() - arrowSize, jumpArea.getWidth() + arrowSize * 2, jumpArea.getHeight() + arrowSize * 2);
+                if (!paintArea.intersects(jumpArea)) {
+                  continue;
+                }
+              }
+
               drawArrowToDestination(gfx, srcRect, dstRect, lineWidth, arrowWidth, arrowSize, jumpLinkColor);
             }
           }
@@ -979,15 +1023,18 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
-  private static void drawTopicTree(@Nonnull final MMGraphics gfx, @Nonnull final Topic topic, @Nonnull final MindMapPanelConfig cfg) {
-    paintTopic(gfx, topic, cfg);
+  private static void drawTopicTree(@Nonnull final MMGraphics gfx, @Nonnull final Topic topic, @Nonnull final MindMapPanelConfig cfg, @Nullable final Rectangle2D paintArea, @Nonnull final Rectangle2D blockBuffer) {
     final AbstractElement w = (AbstractElement) topic.getPayload();
+    if (w != null && paintArea != null && !paintArea.intersects(w.getBlockBounds(blockBuffer))) {
+      return;
+    }
+    paintTopic(gfx, topic, cfg);
     if (w != null) {
       if (w.isCollapsed()) {
         return;
       }
       for (final Topic t : topic.getChildren()) {
-        drawTopicTree(gfx, t, cfg);
+        drawTopicTree(gfx, t, cfg, paintArea, blockBuffer);
       }
     }
   }
@@ -1027,20 +1074,64 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  @Nonnull
+  private static AbstractElement makeElementForLevel(@Nonnull final Topic topic, final int level) {
+    final AbstractElement result;
+    switch (level) {
+      case 0:
+        result = new ElementRoot(topic);
+        break;
+      case 1:
+        result = new ElementLevelFirst(topic);
+        break;
+      default:
+        result = new ElementLevelOther(topic);
+        break;
+    }
+    return result;
+  }
+
+  private static boolean isElementForLevel(@Nonnull final AbstractElement element, final int level) {
+    final Class<?> elementClass = element.getClass();
+    switch (level) {
+      case 0:
+        return elementClass == ElementRoot.class;
+      case 1:
+        return elementClass == ElementLevelFirst.class;
+      default:
+        return elementClass == ElementLevelOther.class;
+    }
+  }
+
+  private static boolean updateElementSizesForElementAndChildren(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic, final int level) {
+    AbstractElement widget = (AbstractElement) topic.getPayload();
+    boolean changed = false;
+    if (widget == null || !isElementForLevel(widget, level)) {
+      widget = makeElementForLevel(topic, level);
+      topic.setPayload(widget);
+      widget.updateElementBounds(gfx, cfg);
+      changed = true;
+    } else if (!widget.isMeasuredStateActual()) {
+      widget.updateFromModel();
+      widget.updateElementBounds(gfx, cfg);
+      changed = true;
+    }
+
+    for (final Topic t : topic.getChildren()) {
+      changed |= updateElementSizesForElementAndChildren(gfx, cfg, t, level + 1);
+    }
+
+    if (changed || !widget.isBlockSizeActual()) {
+      widget.updateBlockSize(cfg);
+      changed = true;
+    }
+    return changed;
+  }
+
   private static void setElementSizesForElementAndChildren(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Topic topic, final int level) {
     AbstractElement widget = (AbstractElement) topic.getPayload();
     if (widget == null) {
-      switch (level) {
-        case 0:
-          widget = new ElementRoot(topic);
-          break;
-        case 1:
-          widget = new ElementLevelFirst(topic);
-          break;
-        default:
-          widget = new ElementLevelOther(topic);
-          break;
-      }
+      widget = makeElementForLevel(topic, level);
       topic.setPayload(widget);
     }
 
@@ -1063,6 +1154,31 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     return result;
   }
 
+  /**
+   * Update sizes of elements for changed topics only, elements of unchanged
+   * topics are kept together with their measured text and icons. New topics
+   * get new elements, changed topics and their ancestors are measured again.
+   *
+   * @param gfx   graphics context to be used for measurement
+   * @param model model which elements should be updated, can be null
+   * @param cfg   configuration, must be the same as for previous layout of
+   *              existing elements
+   * @return true if the model has root and its elements are ready, false
+   * otherwise
+   * @see #calculateElementSizes(MMGraphics, MindMap, MindMapPanelConfig)
+   * @since 1.4.10
+   */
+  public static boolean updateElementSizes(@Nonnull final MMGraphics gfx, @Nullable final MindMap model, @Nonnull final MindMapPanelConfig cfg) {
+    boolean result = false;
+
+    final Topic root = model == null ? null : model.getRoot();
+    if (root != null && model != null) {
+      updateElementSizesForElementAndChildren(gfx, cfg, root, 0);
+      result = true;
+    }
+    return result;
+  }
+
   @Nullable
   public static Dimension2D layoutModelElements(@Nullable final MindMap model, @Nonnull final MindMapPanelConfig cfg) {
     Dimension2D result = null;
@@ -1095,21 +1211,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   public static Dimension layoutFullDiagramWithCenteringToPaper(@Nonnull final MMGraphics gfx, @Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Dimension2D paperSize) {
     Dimension resultSize = null;
     if (calculateElementSizes(gfx, map, cfg)) {
-      Dimension2D rootBlockSize = layoutModelElements(map, cfg);
-      final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
+      resultSize = layoutDiagramWithCenteringToPaper(map, cfg, paperSize);
+    }
+    return resultSize;
+  }
 
-      if (rootBlockSize != null) {
-        final ElementRoot rootElement = assertNotNull((ElementRoot) assertNotNull(map.getRoot()).getPayload());
+  @Nullable
+  private static Dimension layoutDiagramWithCenteringToPaper(@Nonnull final MindMap map, @Nonnull final MindMapPanelConfig cfg, @Nonnull final Dimension2D paperSize) {
+    Dimension resultSize = null;
+    final Dimension2D rootBlockSize = layoutModelElements(map, cfg);
+    final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
 
-        double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
-        double rootOffsetYInBlock = (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
+    if (rootBlockSize != null) {
+      final ElementRoot rootElement = assertNotNull((ElementRoot) assertNotNull(map.getRoot()).getPayload());
 
-        rootOffsetXInBlock += (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin : (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
-        rootOffsetYInBlock += (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin : (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+      double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
+      double rootOffsetYInBlock = (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
 
-        moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
-        resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2), (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
-      }
+      rootOffsetXInBlock += (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin : (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
+      rootOffsetYInBlock += (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin : (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+
+      moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
+      resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2), (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
     }
 
     return resultSize;
@@ -2022,8 +2145,13 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
   private void findDestinationElementForDragged() {
     final Topic theroot = this.model.getRoot();
     if (this.draggedElement != null && theroot != null) {
-      final AbstractElement root = (AbstractElement) assertNotNull(theroot.getPayload());
-      this.destinationElement = root.findNearestOpenedTopicToPoint(this.draggedElement.getElement(), this.draggedElement.getPosition());
+      final ElementGridIndex index = getActualElementIndex();
+      if (index == null) {
+        final AbstractElement root = (AbstractElement) assertNotNull(theroot.getPayload());
+        this.destinationElement = root.findNearestOpenedTopicToPoint(this.draggedElement.getElement(), this.draggedElement.getPosition());
+      } else {
+        this.destinationElement = index.findNearestToPoint(this.draggedElement.getElement(), this.draggedElement.getPosition());
+      }
     } else {
       this.destinationElement = null;
     }
@@ -2147,6 +2275,13 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
 
       final MindMap oldModel = this.model;
       this.model = assertNotNull("Model must not be null", model);
+      if (oldModel != null) {
+        oldModel.removeMindMapModelEventListener(this.modelEventListener);
+      }
+      this.model.addMindMapModelEventListener(this.modelEventListener);
+      this.layoutConfig = null;
+      this.layoutValid = false;
+      this.elementIndex = null;
 
       for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance().findFor(PanelAwarePlugin.class)) {
         p.onPanelModelChange(this, oldModel, this.model);
@@ -2335,7 +2470,16 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         try {
           if (graph != null) {
             final MMGraphics gfx = new MMGraphics2DWrapper(graph);
-            if (calculateElementSizes(gfx, this.model, this.config)) {
+
+            final boolean elementsReady;
+            if (this.layoutConfig == null || this.layoutConfig.hasDifferenceInParameters(this.config)) {
+              this.layoutConfig = new MindMapPanelConfig(this.config, false);
+              elementsReady = calculateElementSizes(gfx, this.model, this.config);
+            } else {
+              elementsReady = updateElementSizes(gfx, this.model, this.config);
+            }
+
+            if (elementsReady) {
 
               Dimension pageSize = getSize();
 
@@ -2346,7 +2490,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                 }
               }
 
-              changeSizeOfComponent(layoutFullDiagramWithCenteringToPaper(gfx, this.model, this.config, pageSize), doListenerNotification);
+              changeSizeOfComponent(layoutDiagramWithCenteringToPaper(this.model, this.config, pageSize), doListenerNotification);
+              this.elementIndex = ElementGridIndex.build(this.model.getRoot());
+              this.layoutValid = true;
               result = true;
 
               if (doListenerNotification) {
@@ -2401,7 +2547,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           if (root != null) {
             rootElement = (AbstractElement) root.getPayload();
           }
-          return rootElement != null;
+          return rootElement != null && this.layoutValid;
         }
       } finally {
         this.unlock();
@@ -2420,9 +2566,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     if (lockIfNotDisposed()) {
       try {
         super.invalidate();
-        if (this.model != null && this.model.getRoot() != null) {
-          this.model.resetPayload();
-        }
+        this.layoutValid = false;
       } finally {
         this.unlock();
       }
@@ -2443,7 +2587,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           if (error != null) {
             drawErrorText(gfx, this.getSize(), error);
           } else {
-            if (this.model.getRoot().getPayload() == null) {
+            if (!isValid()) {
               updateElementsAndSizeForGraphics(gfx, true, false);
             }
             drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model, true, this.selectedTopics);
@@ -2467,18 +2611,28 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  @Nullable
+  private ElementGridIndex getActualElementIndex() {
+    return this.layoutValid ? this.elementIndex : null;
+  }
+
   @Nullable
   public AbstractElement findTopicUnderPoint(@Nonnull final Point point) {
     if (this.lockIfNotDisposed()) {
       try {
         AbstractElement result = null;
         if (this.model != null) {
-          final Topic root = this.model.getRoot();
-          if (root != null) {
-            final AbstractElement rootWidget = (AbstractElement) root.getPayload();
-            if (rootWidget != null) {
-              result = rootWidget.findForPoint(point);
+          final ElementGridIndex index = getActualElementIndex();
+          if (index == null) {
+            final Topic root = this.model.getRoot();
+            if (root != null) {
+              final AbstractElement rootWidget = (AbstractElement) root.getPayload();
+              if (rootWidget != null) {
+                result = rootWidget.findForPoint(point);
+              }
             }
+          } else {
+            result = index.findForPoint(point);
           }
         }
 
@@ -2792,6 +2946,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
           this.weakTable.clear();
           this.selectedTopics.clear();
           this.mindMapListeners.clear();
+          if (this.model != null) {
+            this.model.removeMindMapModelEventListener(this.modelEventListener);
+          }
 
           for (final PanelAwarePlugin p : MindMapPluginRegistry.getInstance().findFor(PanelAwarePlugin.class)) {
             p.onPanelDispose(this);
@@ -28,6 +28,7 @@ import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.KeyEvent;
+import java.awt.geom.AffineTransform;
 import java.io.Serializable;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
@@ -113,6 +114,7 @@ public final class MindMapPanelConfig implements Serializable {
   private boolean dropShadow = true;
   private RenderQuality renderQuality = Utils.getDefaultRenderQialityForOs();
   private transient volatile boolean notificationEnabled = true;
+  private transient volatile ScaledFont scaledFont = null;
 
   public MindMapPanelConfig(@Nonnull final MindMapPanelConfig cfg, final boolean copyListeners) {
     this();
@@ -769,6 +771,23 @@ public final class MindMapPanelConfig implements Serializable {
     return this.font;
   }
 
+  /**
+   * Get the font scaled for the current scale. The derived font is cached and
+   * recreated only if either font or scale has been changed.
+   *
+   * @return font scaled by the current scale, must not be null
+   * @since 1.4.10
+   */
+  @Nonnull
+  public Font getScaledFont() {
+    ScaledFont cached = this.scaledFont;
+    if (cached == null || !cached.isFor(this.font, this.scale)) {
+      cached = new ScaledFont(this.font, this.scale);
+      this.scaledFont = cached;
+    }
+    return cached.scaled;
+  }
+
   public void setFont(@Nonnull final Font f) {
     this.font = assertNotNull(f);
     notifyCfgListenersAboutChange();
@@ -833,4 +852,21 @@ public final class MindMapPanelConfig implements Serializable {
     notifyCfgListenersAboutChange();
   }
 
+  private static final class ScaledFont {
+
+    private final Font base;
+    private final double scale;
+    private final Font scaled;
+
+    private ScaledFont(@Nonnull final Font base, final double scale) {
+      this.base = base;
+      this.scale = scale;
+      this.scaled = base.deriveFont(AffineTransform.getScaleInstance(scale, scale));
+    }
+
+    private boolean isFor(@Nonnull final Font font, final double scale) {
+      return this.base == font && Double.compare(this.scale, scale) == 0;
+    }
+  }
+
 }
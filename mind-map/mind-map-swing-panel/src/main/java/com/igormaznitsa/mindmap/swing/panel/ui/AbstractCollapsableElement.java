@@ -147,9 +147,9 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
           } else {
             notFirstChiild = true;
           }
-          ((AbstractElement) assertNotNull(t.getPayload())).calcBlockSize(cfg, result, false);
-          width = Math.max(baseWidth + result.getWidth(), width);
-          childrenHeight += result.getHeight();
+          final Dimension2D childBlockSize = ((AbstractElement) assertNotNull(t.getPayload())).getBlockSize();
+          width = Math.max(baseWidth + childBlockSize.getWidth(), width);
+          childrenHeight += childBlockSize.getHeight();
         }
 
         height = Math.max(height, childrenHeight);
@@ -278,6 +278,19 @@ public abstract class AbstractCollapsableElement extends AbstractElement {
     this.bounds.setRect(this.bounds.getX(), this.bounds.getY(), this.bounds.getWidth() + marginOffset, this.bounds.getHeight() + marginOffset);
   }
 
+  @Override
+  public boolean containsPoint(final double x, final double y) {
+    return this.bounds.contains(x, y) || this.collapsatorZone.contains(x - this.bounds.getX(), y - this.bounds.getY());
+  }
+
+  @Override
+  @Nonnull
+  public Rectangle2D getElementArea(@Nullable final Rectangle2D result) {
+    final Rectangle2D rect = super.getElementArea(result);
+    rect.add(new Rectangle2D.Double(this.bounds.getX() + this.collapsatorZone.getX(), this.bounds.getY() + this.collapsatorZone.getY(), this.collapsatorZone.getWidth(), this.collapsatorZone.getHeight()));
+    return rect;
+  }
+
   @Nonnull
   public Rectangle2D getCollapsatorArea() {
     return this.collapsatorZone;
@@ -22,6 +22,7 @@ import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_F
 import static com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute.ATTR_TEXT_COLOR;
 
 
+import com.igormaznitsa.mindmap.model.Extra;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
@@ -32,6 +33,9 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.text.JTextComponent;
@@ -54,6 +58,13 @@ public abstract class AbstractElement {
   protected Color textColor;
   protected Color borderColor;
 
+  private volatile boolean layoutInvalidated = true;
+  private String measuredText;
+  private Map<String, String> measuredAttributes;
+  private Map<Extra.ExtraType, Extra<?>> measuredExtras;
+  private Map<String, String> measuredCodeSnippets;
+  private int layoutedChildren = -1;
+
   protected AbstractElement(@Nonnull final AbstractElement orig) {
     this.model = orig.model;
     this.textBlock = new TextBlock(orig.textBlock);
@@ -64,6 +75,12 @@ public abstract class AbstractElement {
     this.fillColor = orig.fillColor;
     this.textColor = orig.textColor;
     this.borderColor = orig.borderColor;
+    this.layoutInvalidated = orig.layoutInvalidated;
+    this.measuredText = orig.measuredText;
+    this.measuredAttributes = orig.measuredAttributes;
+    this.measuredExtras = orig.measuredExtras;
+    this.measuredCodeSnippets = orig.measuredCodeSnippets;
+    this.layoutedChildren = orig.layoutedChildren;
   }
 
   public AbstractElement(@Nonnull final Topic model) {
@@ -85,6 +102,61 @@ public abstract class AbstractElement {
     this.textBlock.updateText(text);
   }
 
+  @Nonnull
+  private static <K, V> Map<K, V> makeSnapshot(@Nonnull final Map<K, V> map) {
+    return map.isEmpty() ? Collections.<K, V>emptyMap() : new HashMap<K, V>(map);
+  }
+
+  /**
+   * Mark the element to be measured again during next layout even if its topic
+   * looks unchanged.
+   *
+   * @since 1.4.10
+   */
+  public void invalidateLayout() {
+    this.layoutInvalidated = true;
+  }
+
+  /**
+   * Check that the topic has not been changed since the last measurement of
+   * the element, text, attributes, extras and code snippets are checked.
+   *
+   * @return true if the element sizes are actual for its topic, false if it
+   * must be measured again
+   * @since 1.4.10
+   */
+  public boolean isMeasuredStateActual() {
+    return !this.layoutInvalidated
+        && this.model.getText().equals(this.measuredText)
+        && this.model.getAttributes().equals(this.measuredAttributes)
+        && this.model.getExtras().equals(this.measuredExtras)
+        && this.model.getCodeSnippets().equals(this.measuredCodeSnippets);
+  }
+
+  /**
+   * Check that the block size has been calculated for the current children
+   * list of the topic. Changes inside children must be checked separately.
+   *
+   * @return true if block size has been calculated for the same number of
+   * children
+   * @since 1.4.10
+   */
+  public boolean isBlockSizeActual() {
+    return this.layoutedChildren == this.model.getChildren().size();
+  }
+
+  /**
+   * Reload text, text align and colors from the topic, it should be called
+   * before new measurement of changed element.
+   *
+   * @since 1.4.10
+   */
+  public void updateFromModel() {
+    this.textBlock.updateText(this.model.getText());
+    this.textBlock.setTextAlign(TextAlign.findForName(this.model.getAttribute("align"))); //NOI18N
+    updateColorAttributeFromModel();
+  }
+
   public final void updateColorAttributeFromModel() {
     this.borderColor = Utils.html2color(this.model.getAttribute(ATTR_BORDER_COLOR.getText()), false);
     this.textColor = Utils.html2color(this.model.getAttribute(ATTR_TEXT_COLOR.getText()), false);
@@ -113,6 +185,12 @@ public abstract class AbstractElement {
   }
 
   public void updateElementBounds(@Nonnull final MMGraphics gfx, @Nonnull final MindMapPanelConfig cfg) {
+    this.layoutInvalidated = false;
+    this.measuredText = this.model.getText();
+    this.measuredAttributes = makeSnapshot(this.model.getAttributes());
+    this.measuredExtras = makeSnapshot(this.model.getExtras());
+    this.measuredCodeSnippets = makeSnapshot(this.model.getCodeSnippets());
+
     this.visualAttributeImageBlock.updateSize(gfx, cfg);
     this.textBlock.updateSize(gfx, cfg);
     this.extrasIconBlock.updateSize(gfx, cfg);
@@ -144,6 +222,7 @@ public abstract class AbstractElement {
   }
 
   public void updateBlockSize(@Nonnull final MindMapPanelConfig cfg) {
+    this.layoutedChildren = this.model.getChildren().size();
     this.calcBlockSize(cfg, this.blockSize, false);
   }
 
@@ -171,6 +250,33 @@ public abstract class AbstractElement {
     return this.bounds;
   }
 
+  /**
+   * Check that point is inside of the element area, children are not checked.
+   *
+   * @param x x coordinate of point
+   * @param y y coordinate of point
+   * @return true if the point is inside of the element
+   * @since 1.4.10
+   */
+  public boolean containsPoint(final double x, final double y) {
+    return this.bounds.contains(x, y);
+  }
+
+  /**
+   * Get rectangle of the element area which is used to detect the element
+   * under point, children are not included.
+   *
+   * @param result rectangle to get result, if null then new one will be created
+   * @return rectangle covering the element area
+   * @since 1.4.10
+   */
+  @Nonnull
+  public Rectangle2D getElementArea(@Nullable final Rectangle2D result) {
+    final Rectangle2D rect = result == null ? new Rectangle2D.Double() : result;
+    rect.setRect(this.bounds);
+    return rect;
+  }
+
   public final void doPaint(@Nonnull final MMGraphics g, @Nonnull final MindMapPanelConfig cfg, final boolean drawCollapsator) {
     final MMGraphics gfx = g.copy();
     try {
@@ -298,6 +404,20 @@ public abstract class AbstractElement {
     return result;
   }
 
+  /**
+   * Get rectangle covering the element together with all its children.
+   *
+   * @param result rectangle to get result, if null then new one will be created
+   * @return rectangle of the element block
+   * @since 1.4.10
+   */
+  @Nonnull
+  public Rectangle2D getBlockBounds(@Nullable final Rectangle2D result) {
+    final Rectangle2D rect = result == null ? new Rectangle2D.Double() : result;
+    rect.setRect(calcBlockX(), calcBlockY(), this.blockSize.getWidth(), this.blockSize.getHeight());
+    return rect;
+  }
+
   protected double calcBlockY() {
     return this.bounds.getY() - (this.blockSize.getHeight() - this.bounds.getHeight()) / 2;
   }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015-2018 Igor Maznitsa.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel.ui;
+
+import com.igormaznitsa.meta.annotation.MayContainNull;
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Uniform grid over areas of visible elements of laid out mind map, it allows
+ * to find element under point and the nearest element without walking through
+ * the whole topic tree. Elements are kept in tree order and point search is
+ * limited by blocks of parents, so that results are the same as for search
+ * through the tree.
+ *
+ * @since 1.4.10
+ */
+public final class ElementGridIndex {
+
+  private static final double MIN_CELL_SIZE = 8.0d;
+
+  private final AbstractElement[] elements;
+  private final Rectangle2D[] reachAreas;
+  private final double originX;
+  private final double originY;
+  private final double cellSize;
+  private final int columns;
+  private final int rows;
+  private final int[] cellStart;
+  private final int[] cellItems;
+
+  private ElementGridIndex(@Nonnull @MustNotContainNull final List<AbstractElement> elements, @Nonnull @MustNotContainNull final List<Rectangle2D> areas, @Nonnull @MayContainNull final List<Rectangle2D> reachAreas) {
+    this.elements = elements.toArray(new AbstractElement[elements.size()]);
+    this.reachAreas = reachAreas.toArray(new Rectangle2D[reachAreas.size()]);
+
+    double minX = Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double maxY = -Double.MAX_VALUE;
+    double sizeSum = 0.0d;
+    for (final Rectangle2D r : areas) {
+      minX = Math.min(minX, r.getMinX());
+      minY = Math.min(minY, r.getMinY());
+      maxX = Math.max(maxX, r.getMaxX());
+      maxY = Math.max(maxY, r.getMaxY());
+      sizeSum += Math.max(r.getWidth(), r.getHeight());
+    }
+
+    final int number = Math.max(1, this.elements.length);
+    if (areas.isEmpty()) {
+      minX = minY = maxX = maxY = 0.0d;
+    }
+
+    double size = Math.max(MIN_CELL_SIZE, sizeSum / number);
+    final double width = Math.max(maxX - minX, MIN_CELL_SIZE);
+    final double height = Math.max(maxY - minY, MIN_CELL_SIZE);
+    final double maxCells = 4.0d * number + 64.0d;
+    final double cells = Math.ceil(width / size) * Math.ceil(height / size);
+    if (cells > maxCells) {
+      size *= Math.sqrt(cells / maxCells);
+    }
+
+    this.originX = minX;
+    this.originY = minY;
+    this.cellSize = size;
+    this.columns = (int) Math.max(1L, (long) Math.ceil(width / size));
+    this.rows = (int) Math.max(1L, (long) Math.ceil(height / size));
+
+    final int[] counters = new int[this.columns * this.rows + 1];
+    for (final Rectangle2D r : areas) {
+      for (int row = row(r.getMinY()); row <= row(r.getMaxY()); row++) {
+        for (int col = column(r.getMinX()); col <= column(r.getMaxX()); col++) {
+          counters[row * this.columns + col + 1]++;
+        }
+      }
+    }
+    for (int i = 1; i < counters.length; i++) {
+      counters[i] += counters[i - 1];
+    }
+    this.cellStart = counters.clone();
+    this.cellItems = new int[counters[counters.length - 1]];
+
+    int index = 0;
+    for (final Rectangle2D r : areas) {
+      for (int row = row(r.getMinY()); row <= row(r.getMaxY()); row++) {
+        for (int col = column(r.getMinX()); col <= column(r.getMaxX()); col++) {
+          this.cellItems[counters[row * this.columns + col]++] = index;
+        }
+      }
+      index++;
+    }
+  }
+
+  /**
+   * Build index for visible elements of laid out topic tree, children of
+   * collapsed topics are ignored.
+   *
+   * @param root root topic of the tree, can be null
+   * @return built index, must not be null
+   */
+  @Nonnull
+  public static ElementGridIndex build(@Nullable final Topic root) {
+    final List<AbstractElement> elements = new ArrayList<>();
+    final List<Rectangle2D> areas = new ArrayList<>();
+    final List<Rectangle2D> reachAreas = new ArrayList<>();
+    if (root != null) {
+      collect(root, null, elements, areas, reachAreas);
+    }
+    return new ElementGridIndex(elements, areas, reachAreas);
+  }
+
+  private static void collect(@Nonnull final Topic topic, @Nullable final Rectangle2D reach, @Nonnull @MustNotContainNull final List<AbstractElement> elements, @Nonnull @MustNotContainNull final List<Rectangle2D> areas, @Nonnull @MayContainNull final List<Rectangle2D> reachAreas) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (element != null) {
+      elements.add(element);
+      areas.add(element.getElementArea(null));
+      reachAreas.add(reach);
+      if (!element.isCollapsed()) {
+        // search through the tree looks for children only inside block of collapsable element
+        Rectangle2D childReach = reach;
+        if (element instanceof AbstractCollapsableElement) {
+          final Rectangle2D block = element.getBlockBounds(null);
+          childReach = reach == null ? block : reach.createIntersection(block);
+        }
+        for (final Topic t : topic.getChildren()) {
+          collect(t, childReach, elements, areas, reachAreas);
+        }
+      }
+    }
+  }
+
+  private int column(final double x) {
+    return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((x - this.originX) / this.cellSize)));
+  }
+
+  private int row(final double y) {
+    return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((y - this.originY) / this.cellSize)));
+  }
+
+  public int size() {
+    return this.elements.length;
+  }
+
+  /**
+   * Find element which area contains point, the first one in tree order is
+   * returned if several elements contain the point.
+   *
+   * @param point point to be checked, can be null
+   * @return found element or null
+   * @see AbstractElement#findForPoint(Point)
+   */
+  @Nullable
+  public AbstractElement findForPoint(@Nullable final Point point) {
+    if (point == null || this.elements.length == 0) {
+      return null;
+    }
+    final double px = point.getX();
+    final double py = point.getY();
+    if (px < this.originX || py < this.originY || px > this.originX + this.columns * this.cellSize || py > this.originY + this.rows * this.cellSize) {
+      return null;
+    }
+
+    final int cell = row(py) * this.columns + column(px);
+    int found = Integer.MAX_VALUE;
+    for (int i = this.cellStart[cell]; i < this.cellStart[cell + 1]; i++) {
+      final int index = this.cellItems[i];
+      final Rectangle2D reach = this.reachAreas[index];
+      if (index < found && (reach == null || reach.contains(px, py)) && this.elements[index].containsPoint(px, py)) {
+        found = index;
+      }
+    }
+    return found == Integer.MAX_VALUE ? null : this.elements[found];
+  }
+
+  /**
+   * Find visible element which is the nearest one to point, distance is
+   * calculated by {@link AbstractElement#calcAverageDistanceToPoint(Point)}.
+   *
+   * @param elementToIgnore element which should not be in result, can be null
+   * @param point           point for distance calculation
+   * @return the nearest element, the first one in tree order for equal
+   * distances, null if there is not any element
+   * @see AbstractElement#findNearestOpenedTopicToPoint(AbstractElement, Point)
+   */
+  @Nullable
+  public AbstractElement findNearestToPoint(@Nullable final AbstractElement elementToIgnore, @Nonnull final Point point) {
+    final int centerColumn = (int) Math.floor((point.getX() - this.originX) / this.cellSize);
+    final int centerRow = (int) Math.floor((point.getY() - this.originY) / this.cellSize);
+
+    final int firstRing = Math.max(
+        Math.max(Math.max(0, -centerColumn), centerColumn - this.columns + 1),
+        Math.max(-centerRow, centerRow - this.rows + 1)
+    );
+    final int lastRing = Math.max(
+        Math.max(Math.abs(centerColumn), Math.abs(this.columns - 1 - centerColumn)),
+        Math.max(Math.abs(centerRow), Math.abs(this.rows - 1 - centerRow))
+    );
+
+    final NearestSearch search = new NearestSearch(elementToIgnore, point);
+
+    for (int ring = firstRing; ring <= lastRing; ring++) {
+      // all elements out of already checked cells are not closer than the distance
+      if (search.found >= 0 && search.foundDistance < (ring - 1) * this.cellSize) {
+        break;
+      }
+      final int firstColumn = Math.max(0, centerColumn - ring);
+      final int lastColumn = Math.min(this.columns - 1, centerColumn + ring);
+      for (int row = Math.max(0, centerRow - ring); row <= Math.min(this.rows - 1, centerRow + ring); row++) {
+        if (row == centerRow - ring || row == centerRow + ring) {
+          for (int col = firstColumn; col <= lastColumn; col++) {
+            search.check(row * this.columns + col);
+          }
+        } else {
+          if (centerColumn - ring >= 0) {
+            search.check(row * this.columns + centerColumn - ring);
+          }
+          if (ring > 0 && centerColumn + ring < this.columns) {
+            search.check(row * this.columns + centerColumn + ring);
+          }
+        }
+      }
+    }
+
+    return search.found < 0 ? null : this.elements[search.found];
+  }
+
+  private final class NearestSearch {
+
+    private final AbstractElement elementToIgnore;
+    private final Point point;
+    private int found = -1;
+    private double foundDistance = Double.MAX_VALUE;
+
+    private NearestSearch(@Nullable final AbstractElement elementToIgnore, @Nonnull final Point point) {
+      this.elementToIgnore = elementToIgnore;
+      this.point = point;
+    }
+
+    private void check(final int cell) {
+      for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+        final int index = cellItems[i];
+        final AbstractElement element = elements[index];
+        if (element != this.elementToIgnore) {
+          final double distance = element.calcAverageDistanceToPoint(this.point);
+          if (distance < this.foundDistance || (distance == this.foundDistance && index < this.found)) {
+            this.foundDistance = distance;
+            this.found = index;
+          }
+        }
+      }
+    }
+  }
+}
@@ -177,6 +177,14 @@ public final class ElementRoot extends AbstractElement {
     this.bounds.setRect(this.bounds.getX(), this.bounds.getY(), this.bounds.getWidth() + marginOffset, this.bounds.getHeight() + marginOffset);
   }
 
+  @Override
+  @Nonnull
+  public Rectangle2D getBlockBounds(@Nullable final Rectangle2D result) {
+    final Rectangle2D rect = result == null ? new Rectangle2D.Double() : result;
+    rect.setRect(this.bounds.getX() - this.leftBlockSize.getWidth(), calcBlockY(), this.blockSize.getWidth(), this.blockSize.getHeight());
+    return rect;
+  }
+
   @Nonnull
   public Dimension2D getLeftBlockSize() {
     return this.leftBlockSize;
@@ -205,20 +213,19 @@ public final class ElementRoot extends AbstractElement {
 
     for (final Topic t : this.model.getChildren()) {
       final ElementLevelFirst w = assertNotNull((ElementLevelFirst) t.getPayload());
-
-      w.calcBlockSize(cfg, result, false);
+      final Dimension2D childBlockSize = w.getBlockSize();
 
       if (w.isLeftDirection()) {
-        leftWidth = Math.max(leftWidth, result.getWidth());
-        leftHeight += result.getHeight();
+        leftWidth = Math.max(leftWidth, childBlockSize.getWidth());
+        leftHeight += childBlockSize.getHeight();
         if (nonfirstOnLeft) {
           leftHeight += insetV;
         } else {
           nonfirstOnLeft = true;
         }
       } else {
-        rightWidth = Math.max(rightWidth, result.getWidth());
-        rightHeight += result.getHeight();
+        rightWidth = Math.max(rightWidth, childBlockSize.getWidth());
+        rightHeight += childBlockSize.getHeight();
         if (nonfirstOnRight) {
           rightHeight += insetV;
         } else {
@@ -24,13 +24,26 @@ import java.awt.Image;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class MMGraphics2DWrapper implements MMGraphics {
 
+  private static final int STRING_BOUNDS_CACHE_SIZE = 8192;
+  private static final Map<StringBoundsKey, Rectangle2D> STRING_BOUNDS_CACHE = new LinkedHashMap<StringBoundsKey, Rectangle2D>(256, 0.75f, true) {
+    private static final long serialVersionUID = -3197836532841046251L;
+
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<StringBoundsKey, Rectangle2D> eldest) {
+      return this.size() > STRING_BOUNDS_CACHE_SIZE;
+    }
+  };
+
   private final Graphics2D wrapped;
   private StrokeType strokeType = StrokeType.SOLID;
   private float strokeWidth = 1.0f;
@@ -173,7 +186,21 @@ public class MMGraphics2DWrapper implements MMGraphics {
   @Override
   @Nonnull
   public Rectangle2D getStringBounds(@Nonnull final String str) {
-    return this.wrapped.getFont().getStringBounds(str, this.wrapped.getFontRenderContext());
+    final Font font = this.wrapped.getFont();
+    final FontRenderContext context = this.wrapped.getFontRenderContext();
+    final StringBoundsKey key = new StringBoundsKey(font, context, str);
+
+    Rectangle2D result;
+    synchronized (STRING_BOUNDS_CACHE) {
+      result = STRING_BOUNDS_CACHE.get(key);
+    }
+    if (result == null) {
+      result = font.getStringBounds(str, context);
+      synchronized (STRING_BOUNDS_CACHE) {
+        STRING_BOUNDS_CACHE.put(key, result);
+      }
+    }
+    return (Rectangle2D) result.clone();
   }
 
   @Override
@@ -189,4 +216,36 @@ public class MMGraphics2DWrapper implements MMGraphics {
     }
   }
 
+  private static final class StringBoundsKey {
+
+    private final Font font;
+    private final FontRenderContext context;
+    private final String text;
+    private final int hash;
+
+    private StringBoundsKey(@Nonnull final Font font, @Nonnull final FontRenderContext context, @Nonnull final String text) {
+      this.font = font;
+      this.context = context;
+      this.text = text;
+      this.hash = (font.hashCode() * 31 + context.hashCode()) * 31 + text.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof StringBoundsKey) {
+        final StringBoundsKey that = (StringBoundsKey) obj;
+        return this.hash == that.hash && this.text.equals(that.text) && this.font.equals(that.font) && this.context.equals(that.context);
+      }
+      return false;
+    }
+  }
+
 }
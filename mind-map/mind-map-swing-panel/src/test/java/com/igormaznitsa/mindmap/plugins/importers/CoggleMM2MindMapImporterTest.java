@@ -0,0 +1,46 @@
+package com.igormaznitsa.mindmap.plugins.importers;
+
+import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraLink;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractCollapsableElement;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import java.io.File;
+import org.junit.Test;
+
+public class CoggleMM2MindMapImporterTest {
+
+  private static final CoggleMM2MindMapImporter INSTANCE = new CoggleMM2MindMapImporter();
+
+  private File findFile(final String resource) throws Exception {
+    return new File(this.getClass().getResource(resource).toURI());
+  }
+
+  @Test
+  public void testParseFile() throws Exception {
+    final MindMap parsed = INSTANCE.parseFile(findFile("coggle.mm"));
+    final Topic root = parsed.getRoot();
+    Assertions.assertEquals("Coggle root", root.getText());
+    Assertions.assertEquals(2, root.getChildren().size());
+
+    final Topic left = root.getChildren().get(0);
+    Assertions.assertEquals("left site", left.getText());
+    Assertions.assertEquals(true, AbstractCollapsableElement.isLeftSidedTopic(left));
+    Assertions.assertEquals(true, MindMapUtils.isCollapsed(left));
+    Assertions.assertEquals("http://www.example.com", ((ExtraLink) left.getExtras().get(Extra.ExtraType.LINK)).getAsString());
+    Assertions.assertEquals("#FF0000", left.getAttribute(StandardTopicAttribute.ATTR_FILL_COLOR.getText()));
+    Assertions.assertEquals(1, left.getChildren().size());
+    Assertions.assertEquals("nested", left.getChildren().get(0).getText());
+
+    final Topic right = root.getChildren().get(1);
+    Assertions.assertEquals("right a and b", right.getText());
+    Assertions.assertEquals(false, AbstractCollapsableElement.isLeftSidedTopic(right));
+    Assertions.assertEquals("http://a.example.com", ((ExtraLink) right.getExtras().get(Extra.ExtraType.LINK)).getAsString());
+    Assertions.assertEquals("Detected URLs\n---------------\nhttp://a.example.com\nhttp://b.example.com", ((ExtraNote) right.getExtras().get(Extra.ExtraType.NOTE)).getValue());
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.igormaznitsa.mindmap.plugins.importers;
+
+import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractCollapsableElement;
+import java.io.File;
+import org.junit.Test;
+
+public class Freemind2MindMapImporterTest {
+
+  private static final Freemind2MindMapImporter INSTANCE = new Freemind2MindMapImporter();
+
+  private File findFile(final String resource) throws Exception {
+    return new File(this.getClass().getResource(resource).toURI());
+  }
+
+  @Test
+  public void testParseFile() throws Exception {
+    final MindMap parsed = INSTANCE.parseFile(findFile("freemind.mm"));
+    final Topic root = parsed.getRoot();
+    Assertions.assertEquals("root", root.getText());
+    Assertions.assertEquals(2, root.getChildren().size());
+
+    final Topic first = root.getChildren().get(0);
+    Assertions.assertEquals("first", first.getText());
+    Assertions.assertEquals(true, AbstractCollapsableElement.isLeftSidedTopic(first));
+    Assertions.assertEquals("#FF0000", first.getAttribute(StandardTopicAttribute.ATTR_TEXT_COLOR.getText()));
+    Assertions.assertEquals("note line", ((ExtraNote) first.getExtras().get(Extra.ExtraType.NOTE)).getValue());
+    Assertions.assertEquals(1, first.getChildren().size());
+    Assertions.assertEquals("nested", first.getChildren().get(0).getText());
+
+    final Topic second = root.getChildren().get(1);
+    Assertions.assertEquals("rich\ntext", second.getText());
+    Assertions.assertEquals(false, AbstractCollapsableElement.isLeftSidedTopic(second));
+
+    final ExtraTopic link = (ExtraTopic) first.getExtras().get(Extra.ExtraType.TOPIC);
+    Assertions.assertEquals(second, parsed.findTopicForLink(link));
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.igormaznitsa.mindmap.plugins.importers;
+
+import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraLink;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
+import java.io.File;
+import java.util.zip.ZipFile;
+import org.junit.Test;
+
+public class Novamind2MindMapImporterTest {
+
+  private static final Novamind2MindMapImporter INSTANCE = new Novamind2MindMapImporter();
+
+  private ZipFile findZip(final String resource) throws Exception {
+    return new ZipFile(new File(this.getClass().getResource(resource).toURI()));
+  }
+
+  @Test
+  public void testParseZipFile() throws Exception {
+    final MindMap parsed;
+    try (final ZipFile zipFile = findZip("novamind.nm5")) {
+      parsed = INSTANCE.parseZipFile(zipFile);
+    }
+    final Topic root = parsed.getRoot();
+    Assertions.assertEquals("Root\ntext", root.getText());
+    Assertions.assertEquals(2, root.getChildren().size());
+
+    final Topic child = root.getChildren().get(0);
+    Assertions.assertEquals("Child", child.getText());
+    Assertions.assertEquals("Some note", ((ExtraNote) child.getExtras().get(Extra.ExtraType.NOTE)).getValue());
+    Assertions.assertEquals("http://www.example.com", ((ExtraLink) child.getExtras().get(Extra.ExtraType.LINK)).getAsString());
+    Assertions.assertEquals("#00FF00", child.getAttribute(StandardTopicAttribute.ATTR_FILL_COLOR.getText()));
+    Assertions.assertEquals("#0000FF", child.getAttribute(StandardTopicAttribute.ATTR_BORDER_COLOR.getText()));
+
+    final Topic other = root.getChildren().get(1);
+    Assertions.assertEquals("Other", other.getText());
+    Assertions.assertEquals(other, parsed.findTopicForLink((ExtraTopic) child.getExtras().get(Extra.ExtraType.TOPIC)));
+    Assertions.assertEquals(child, parsed.findTopicForLink((ExtraTopic) other.getExtras().get(Extra.ExtraType.TOPIC)));
+  }
+
+}
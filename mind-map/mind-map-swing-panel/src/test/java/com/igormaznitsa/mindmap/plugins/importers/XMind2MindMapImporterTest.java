@@ -1,7 +1,13 @@
 package com.igormaznitsa.mindmap.plugins.importers;
 
 import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraLink;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.StandardTopicAttribute;
 import java.io.File;
 import java.util.zip.ZipFile;
 import org.junit.Test;
@@ -28,4 +34,28 @@ public class XMind2MindMapImporterTest {
     Assertions.assertEquals(4, parsed.getRoot().getChildren().size());
   }
 
+  @Test
+  public void testXMindXmlContent() throws Exception {
+    final MindMap parsed = INSTANCE.parseZipFile(findZip("xmindXml.xmind"));
+    final Topic root = parsed.getRoot();
+    Assertions.assertEquals("Root", root.getText());
+    Assertions.assertEquals("#FF0000", root.getAttribute(StandardTopicAttribute.ATTR_FILL_COLOR.getText()));
+    Assertions.assertEquals("#FFFFFF", root.getAttribute(StandardTopicAttribute.ATTR_TEXT_COLOR.getText()));
+    Assertions.assertEquals("#0000FF", root.getAttribute(StandardTopicAttribute.ATTR_BORDER_COLOR.getText()));
+    Assertions.assertEquals(3, root.getChildren().size());
+
+    final Topic first = root.getChildren().get(0);
+    Assertions.assertEquals("First", first.getText());
+    Assertions.assertEquals("first note\nsecond note", ((ExtraNote) first.getExtras().get(Extra.ExtraType.NOTE)).getValue());
+
+    final Topic second = root.getChildren().get(1);
+    Assertions.assertEquals("Second", second.getText());
+    Assertions.assertEquals("http://www.example.com", ((ExtraLink) second.getExtras().get(Extra.ExtraType.LINK)).getAsString());
+    Assertions.assertEquals(first, parsed.findTopicForLink((ExtraTopic) second.getExtras().get(Extra.ExtraType.TOPIC)));
+
+    final Topic third = root.getChildren().get(2);
+    Assertions.assertEquals("Third", third.getText());
+    Assertions.assertEquals(first, parsed.findTopicForLink((ExtraTopic) third.getExtras().get(Extra.ExtraType.TOPIC)));
+  }
+
 }
\ No newline at end of file
@@ -19,7 +19,9 @@ package com.igormaznitsa.mindmap.swing.panel;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.anyBoolean;
@@ -35,6 +37,7 @@ import static org.mockito.Mockito.when;
 import com.igormaznitsa.mindmap.swing.panel.utils.KeyShortcut;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.geom.AffineTransform;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.prefs.Preferences;
@@ -267,4 +270,29 @@ public class MindMapPanelConfigTest {
     assertNotNull(newConfig.getKeyShortCut(MindMapPanelConfig.KEY_ADD_CHILD_AND_START_EDIT));
   }
 
+  @Test
+  public void testGetScaledFont_ChangedOnlyForChangedFontOrScale() {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    config.setScale(2.5d);
+
+    final Font scaled = config.getScaledFont();
+    assertEquals(config.getFont().deriveFont(AffineTransform.getScaleInstance(2.5d, 2.5d)), scaled);
+    assertSame(scaled, config.getScaledFont());
+
+    config.setScaleWithoutListenerNotification(2.5d);
+    assertSame(scaled, config.getScaledFont());
+
+    config.setScaleWithoutListenerNotification(3.0d);
+    final Font scaledForNewScale = config.getScaledFont();
+    assertNotSame(scaled, scaledForNewScale);
+    assertEquals(config.getFont().deriveFont(AffineTransform.getScaleInstance(3.0d, 3.0d)), scaledForNewScale);
+
+    config.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+    assertEquals(config.getFont().deriveFont(AffineTransform.getScaleInstance(3.0d, 3.0d)), config.getScaledFont());
+
+    final MindMapPanelConfig copy = new MindMapPanelConfig(config, false);
+    assertEquals(config.getScaledFont(), copy.getScaledFont());
+    assertFalse(copy.hasDifferenceInParameters(config));
+  }
+
 }
@@ -16,12 +16,28 @@
 
 package com.igormaznitsa.mindmap.swing.panel;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementGridIndex;
+import com.igormaznitsa.mindmap.swing.panel.ui.ElementLevelFirst;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.Random;
 import org.junit.Test;
 
 public class MindMapPanelTest {
@@ -38,4 +54,123 @@ public class MindMapPanelTest {
     assertNotSame(config, panel.getConfiguration());
   }
 
+  private static void assertSameLayout(final MindMap etalon, final MindMap map) {
+    final Topic[] etalonTopics = etalon.makePlainList().toArray(new Topic[0]);
+    final Topic[] topics = map.makePlainList().toArray(new Topic[0]);
+    assertEquals(etalonTopics.length, topics.length);
+    for (int i = 0; i < topics.length; i++) {
+      final AbstractElement etalonElement = (AbstractElement) etalonTopics[i].getPayload();
+      final AbstractElement element = (AbstractElement) topics[i].getPayload();
+      assertSame(etalonElement.getClass(), element.getClass());
+      assertEquals(etalonElement.getBounds(), element.getBounds());
+      assertEquals(etalonElement.getBlockSize(), element.getBlockSize());
+    }
+  }
+
+  @Test
+  public void testUpdateElementSizes_OnlyChangedTopicsGetNewMeasurement() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    final MindMap map = new MindMap(new StringReader("---\n# Root\n## First\n### Second\n#### Third\n## Another\n### Leaf\n"));
+    final MMGraphics gfx = new MMGraphics2DWrapper(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB).createGraphics());
+    try {
+      assertTrue(MindMapPanel.calculateElementSizes(gfx, map, config));
+      MindMapPanel.layoutModelElements(map, config);
+
+      final Topic root = map.getRoot();
+      final Topic first = root.getChildren().get(0);
+      final Topic second = first.getChildren().get(0);
+      final Topic third = second.getChildren().get(0);
+      final Topic leaf = root.getChildren().get(1).getChildren().get(0);
+
+      final Object leafElement = leaf.getPayload();
+      final Object thirdElement = third.getPayload();
+
+      second.setText("Some much longer text for the topic");
+      new Topic(map, leaf, "New one");
+      third.moveToNewParent(root);
+
+      assertTrue(MindMapPanel.updateElementSizes(gfx, map, config));
+      MindMapPanel.layoutModelElements(map, config);
+
+      assertSame(leafElement, leaf.getPayload());
+      assertNotSame(thirdElement, third.getPayload());
+      assertSame(ElementLevelFirst.class, third.getPayload().getClass());
+
+      final MindMap etalon = new MindMap(map);
+      assertTrue(MindMapPanel.calculateElementSizes(gfx, etalon, config));
+      MindMapPanel.layoutModelElements(etalon, config);
+
+      assertSameLayout(etalon, map);
+
+      root.getChildren().get(1).delete();
+      assertTrue(MindMapPanel.updateElementSizes(gfx, map, config));
+      MindMapPanel.layoutModelElements(map, config);
+
+      final MindMap etalon2 = new MindMap(map);
+      assertTrue(MindMapPanel.calculateElementSizes(gfx, etalon2, config));
+      MindMapPanel.layoutModelElements(etalon2, config);
+
+      assertSameLayout(etalon2, map);
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  private static void assertChildrenInsideBlock(final Topic topic) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    final Rectangle2D block = element.getBlockBounds(null);
+    final Rectangle2D area = new Rectangle2D.Double(block.getX() - 0.5d, block.getY() - 0.5d, block.getWidth() + 1.0d, block.getHeight() + 1.0d);
+    assertTrue(topic.getText(), area.contains(element.getBounds()));
+    if (!element.isCollapsed()) {
+      for (final Topic child : topic.getChildren()) {
+        assertTrue(child.getText(), area.contains(((AbstractElement) child.getPayload()).getBlockBounds(null)));
+        assertChildrenInsideBlock(child);
+      }
+    }
+  }
+
+  @Test
+  public void testBlockBoundsCoverChildren() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    final MindMap map = new MindMap(new StringReader("---\n# Root\n## Left\n> leftSide=`true`\n### Left child with long text\n#### Deep\n### Another\n## Right\n### Right child\n#### Right deep child\n## Collapsed\n> collapsed=`true`\n### Hidden\n"));
+    final MMGraphics gfx = new MMGraphics2DWrapper(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB).createGraphics());
+    try {
+      assertTrue(MindMapPanel.calculateElementSizes(gfx, map, config));
+      MindMapPanel.layoutModelElements(map, config);
+      assertChildrenInsideBlock(map.getRoot());
+    } finally {
+      gfx.dispose();
+    }
+  }
+
+  @Test
+  public void testElementGridIndex_SameResultsAsTreeSearch() throws Exception {
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+    final MindMap map = new MindMap(new StringReader("---\n# Root\n## Collapsed\n> collapsed=`true`\n### Hidden\n"));
+    final Random rnd = new Random(2018L);
+    for (int i = 0; i < 40; i++) {
+      final Topic parent = rnd.nextInt(4) == 0 ? map.getRoot() : map.makePlainList().get(rnd.nextInt(map.makePlainList().size()));
+      final Topic topic = new Topic(map, parent, "Topic " + i + (rnd.nextBoolean() ? " with some long text" : ""));
+      if (parent == map.getRoot() && rnd.nextBoolean()) {
+        topic.setAttribute("leftSide", "true");
+      }
+    }
+
+    final MMGraphics gfx = new MMGraphics2DWrapper(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB).createGraphics());
+    try {
+      final Dimension size = MindMapPanel.layoutFullDiagramWithCenteringToPaper(gfx, map, config, new Dimension(100, 100));
+      final AbstractElement root = (AbstractElement) map.getRoot().getPayload();
+      final ElementGridIndex index = ElementGridIndex.build(map.getRoot());
+
+      for (int i = 0; i < 20000; i++) {
+        final Point point = new Point(rnd.nextInt((int) size.getWidth() + 200) - 100, rnd.nextInt((int) size.getHeight() + 200) - 100);
+        assertSame(point.toString(), root.findForPoint(point), index.findForPoint(point));
+        final AbstractElement ignored = rnd.nextBoolean() ? null : (AbstractElement) map.makePlainList().get(rnd.nextInt(map.makePlainList().size())).getPayload();
+        assertSame(point.toString(), root.findNearestOpenedTopicToPoint(ignored, point), index.findNearestToPoint(ignored, point));
+      }
+    } finally {
+      gfx.dispose();
+    }
+  }
+
 }
@@ -0,0 +1,9 @@
+<map version="0.9.0">
+  <node TEXT="Coggle root">
+    <node TEXT="left [site](http://www.example.com)" POSITION="left" FOLDED="true">
+      <edge COLOR="#ff0000"/>
+      <node TEXT="nested"/>
+    </node>
+    <node TEXT="right [a](http://a.example.com) and [b](http://b.example.com)" POSITION="right"/>
+  </node>
+</map>
@@ -0,0 +1,12 @@
+<map version="1.0.1">
+<node ID="ID_ROOT" TEXT="root">
+<node ID="ID_1" POSITION="left" TEXT="first" COLOR="#ff0000">
+<arrowlink DESTINATION="ID_2" ENDARROW="Default" STARTARROW="None"/>
+<richcontent TYPE="NOTE"><html><head></head><body><p>note line</p></body></html></richcontent>
+<node ID="ID_11" TEXT="nested"/>
+</node>
+<node ID="ID_2" POSITION="right" TEXT="plain">
+<richcontent TYPE="NODE"><html><head></head><body><p>rich</p><p>text</p></body></html></richcontent>
+</node>
+</node>
+</map>
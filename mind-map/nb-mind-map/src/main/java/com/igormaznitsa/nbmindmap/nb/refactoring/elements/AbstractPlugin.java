@@ -16,7 +16,7 @@
 package com.igormaznitsa.nbmindmap.nb.refactoring.elements;
 
 import com.igormaznitsa.mindmap.model.MMapURI;
-import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapExtraScanner;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.nbmindmap.nb.refactoring.RefactoringUtils;
@@ -229,8 +229,7 @@ public abstract class AbstractPlugin<T extends AbstractRefactoring> extends Prog
   protected boolean doesMindMapContainFileLink(final Project project, final FileObject mindMap, final MMapURI fileToCheck) throws IOException {
     final FileObject baseFolder = project.getProjectDirectory();
     try {
-      final MindMap parsedMap = new MindMap(new StringReader(mindMap.asText("UTF-8"))); //NOI18N
-      return parsedMap.doesContainFileLink(FileUtil.toFile(baseFolder), fileToCheck);
+      return MindMapExtraScanner.doesContainFileLink(new StringReader(mindMap.asText("UTF-8")), FileUtil.toFile(baseFolder), fileToCheck); //NOI18N
     }
     catch (IllegalArgumentException ex) {
       // not mind map
@@ -46,6 +46,7 @@ import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.ui.misc.FileExaminator;
 import com.igormaznitsa.sciareto.ui.misc.NodeListRenderer;
+import com.igormaznitsa.sciareto.ui.misc.ParallelNodeSearch;
 import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
 
 public final class FindFilesForTextPanel extends javax.swing.JPanel {
@@ -247,55 +248,27 @@ public final class FindFilesForTextPanel extends javax.swing.JPanel {
     int size = 0;
     size = scope.stream().map((p) -> p.size()).reduce(size, Integer::sum);
 
-    final byte[] fileOpBuffer = new byte[1024 * 1024];
-
-    final Runnable runnable = new Runnable() {
-      int value = 0;
-
-      private void processFile(final NodeFileOrFolder file) {
-        value++;
-        final File f = file.makeFileForNode();
-
-        try {
-          if (new FileExaminator(f).doesContainData(fileOpBuffer, dataToFindVariant1, dataToFindVariant2)) {
-            addFileIntoList(file);
+    final ThreadLocal<byte[]> fileOpBuffer = ThreadLocal.withInitial(() -> new byte[1024 * 1024]);
+
+    final ParallelNodeSearch search = new ParallelNodeSearch(ParallelNodeSearch.DEFAULT_PARALLELISM, "SciaRetoSearchText", //NOI18N
+        (NodeFileOrFolder file) -> {
+          final File f = file.makeFileForNode();
+          return f != null && new FileExaminator(f).doesContainData(fileOpBuffer.get(), dataToFindVariant1, dataToFindVariant2);
+        },
+        this::addFileIntoList,
+        (int value) -> {
+          if (!Thread.currentThread().isInterrupted()) {
+            safeSetProgressValue(value);
           }
-        } catch (Exception ex) {
-          LOGGER.error("Error during text search in '" + f + '\'', ex);
-        }
-
-        if (!Thread.currentThread().isInterrupted()) {
-          safeSetProgressValue(value);
-        }
-      }
-
-      private void processFolder(final NodeFileOrFolder folder) {
-        value++;
-        for (final NodeFileOrFolder f : folder) {
-          if (f.isLeaf()) {
-            processFile(f);
-          } else {
-            processFolder(f);
-          }
-        }
-        if (!Thread.currentThread().isInterrupted()) {
-          safeSetProgressValue(value);
-        }
-      }
+        });
 
+    final Runnable runnable = new Runnable() {
       @Override
       public void run() {
-        for (final NodeFileOrFolder p : scope) {
-          for (final NodeFileOrFolder f : p) {
-            if (Thread.currentThread().isInterrupted()) {
-              return;
-            }
-            if (f.isLeaf()) {
-              processFile(f);
-            } else {
-              processFolder(f);
-            }
-          }
+        try {
+          search.search(scope);
+        } catch (InterruptedException ex) {
+          return;
         }
         safeSetProgressValue(Integer.MAX_VALUE);
         SwingUtilities.invokeLater(() -> {
@@ -19,21 +19,20 @@
 package com.igormaznitsa.sciareto.ui;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
-import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.ui.misc.NodeListRenderer;
+import com.igormaznitsa.sciareto.ui.misc.ParallelNodeSearch;
 import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
 import com.igormaznitsa.sciareto.ui.tree.NodeProject;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -42,7 +41,6 @@ import javax.swing.SwingUtilities;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 
 public class FindUsagesPanel extends javax.swing.JPanel {
@@ -148,85 +146,31 @@ public class FindUsagesPanel extends javax.swing.JPanel {
       safeSetProgressValue(Integer.MAX_VALUE);
     } else {
 
-      final Runnable runnable = new Runnable() {
+      final Set<File> linkedMaps = new HashSet<>();
 
-        int value = 0;
-
-        private void processFile(final NodeFileOrFolder file) {
-          value++;
-
-          final File f = file.makeFileForNode();
-          final NodeProject project = file.findProject();
-          if (project != null) {
-            final String extension = FilenameUtils.getExtension(f.getName()).toLowerCase(Locale.ENGLISH);
-            if ("mmd".equals(extension)) { //NOI18N
-              Reader reader = null;
-              try {
-                reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8")); //NOI18N
-                final MindMap map = new MindMap(reader);
-                if (!MapUtils.findTopicsRelatedToFile(project.getFolder(), nodeFileToSearch, map).isEmpty()) {
-                  addFileIntoList(file);
-                }
-              } catch (Exception ex) {
-                LOGGER.error("Can't parse map", ex); //NOI18N
-              } finally {
-                IOUtils.closeQuietly(reader);
-              }
-            } else if (findEverywhere){
-              try {
-                final LineIterator lineIterator = org.apache.commons.io.FileUtils.lineIterator(f, "UTF-8"); //NOI18N
-                try {
-                  while (lineIterator.hasNext()) {
-                    if (Thread.currentThread().isInterrupted()) {
-                      return;
-                    }
-                    final String lineFromFile = lineIterator.nextLine();
-                    if (lineFromFile.contains(fullNormalizedPath)) {
-                      addFileIntoList(file);
-                      break;
-                    }
-                  }
-                } finally {
-                  LineIterator.closeQuietly(lineIterator);
-                }
-              } catch (Exception ex) {
-                LOGGER.error("Error during text search in file : " + f); //NOI18N
-              }
+      final ParallelNodeSearch search = new ParallelNodeSearch(ParallelNodeSearch.DEFAULT_PARALLELISM, "SciaRetoSearchUsage", //NOI18N
+          (NodeFileOrFolder file) -> isUsage(file, linkedMaps),
+          this::addFileIntoList,
+          (int value) -> {
+            if (!Thread.currentThread().isInterrupted()) {
+              safeSetProgressValue(value);
             }
-          }
-
-          if (!Thread.currentThread().isInterrupted()) {
-            safeSetProgressValue(value);
-          }
-        }
-
-        private void processFolder(final NodeFileOrFolder folder) {
-          value++;
-          for (final NodeFileOrFolder f : folder) {
-            if (f.isLeaf()) {
-              processFile(f);
-            } else {
-              processFolder(f);
-            }
-          }
-          if (!Thread.currentThread().isInterrupted()) {
-            safeSetProgressValue(value);
-          }
-        }
+          });
 
+      final Runnable runnable = new Runnable() {
         @Override
         public void run() {
           for (final NodeProject p : scope) {
-            for (final NodeFileOrFolder f : p) {
-              if (Thread.currentThread().isInterrupted()) {
-                return;
-              }
-              if (f.isLeaf()) {
-                processFile(f);
-              } else {
-                processFolder(f);
-              }
+            if (Thread.currentThread().isInterrupted()) {
+              return;
             }
+            linkedMaps.addAll(p.getLinkIndex().findMapsLinkedTo(nodeFileToSearch));
+          }
+
+          try {
+            search.search(scope);
+          } catch (InterruptedException ex) {
+            return;
           }
           safeSetProgressValue(Integer.MAX_VALUE);
         }
@@ -254,6 +198,33 @@ public class FindUsagesPanel extends javax.swing.JPanel {
     }
   }
 
+  private boolean isUsage(@Nonnull final NodeFileOrFolder file, @Nonnull @MustNotContainNull final Set<File> linkedMaps) throws IOException {
+    final File f = file.makeFileForNode();
+    if (f == null || file.findProject() == null) {
+      return false;
+    }
+
+    final String extension = FilenameUtils.getExtension(f.getName()).toLowerCase(Locale.ENGLISH);
+    if ("mmd".equals(extension)) { //NOI18N
+      return linkedMaps.contains(f);
+    } else if (findEverywhere) {
+      final LineIterator lineIterator = org.apache.commons.io.FileUtils.lineIterator(f, "UTF-8"); //NOI18N
+      try {
+        while (lineIterator.hasNext()) {
+          if (Thread.currentThread().isInterrupted()) {
+            return false;
+          }
+          if (lineIterator.nextLine().contains(fullNormalizedPath)) {
+            return true;
+          }
+        }
+      } finally {
+        LineIterator.closeQuietly(lineIterator);
+      }
+    }
+    return false;
+  }
+
   private void safeSetProgressValue(final int value) {
     SwingUtilities.invokeLater(new Runnable() {
       @Override
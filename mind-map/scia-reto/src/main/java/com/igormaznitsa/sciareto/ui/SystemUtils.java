@@ -18,16 +18,23 @@
  */
 package com.igormaznitsa.sciareto.ui;
 
+import com.igormaznitsa.mindmap.model.MindMap;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.logging.Level;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import java.util.Arrays;
 import java.util.Locale;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.commons.io.output.CountingOutputStream;
 
 public final class SystemUtils {
   
@@ -97,4 +104,22 @@ public final class SystemUtils {
   public static void saveUTFText(@Nonnull final File file, @Nonnull final CharSequence text) throws IOException {
     org.apache.commons.io.FileUtils.write(file, text, "UTF-8",false); //NOI18N
   }
+
+  /**
+   * Save mind map into file as UTF-8 text, the text is encoded directly into
+   * the file stream without intermediate string and byte array.
+   *
+   * @param file   target file
+   * @param map    mind map to be saved
+   * @param digest optional digest to be updated by written bytes, can be null
+   * @return number of written bytes
+   * @throws IOException it will be thrown for any transport error
+   */
+  public static long saveMindMap(@Nonnull final File file, @Nonnull final MindMap map, @Nullable final MessageDigest digest) throws IOException {
+    final OutputStream fileStream = org.apache.commons.io.FileUtils.openOutputStream(file);
+    try (final CountingOutputStream out = new CountingOutputStream(digest == null ? fileStream : new DigestOutputStream(fileStream, digest))) {
+      map.write(out, StandardCharsets.UTF_8);
+      return out.getByteCount();
+    }
+  }
 }
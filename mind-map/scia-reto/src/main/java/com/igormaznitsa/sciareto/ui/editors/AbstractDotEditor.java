@@ -19,15 +19,14 @@
 
 package com.igormaznitsa.sciareto.ui.editors;
 
-import com.igormaznitsa.meta.common.utils.IOUtils;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Set;
@@ -38,7 +37,7 @@ import javax.imageio.ImageIO;
 import net.sourceforge.plantuml.cucadiagram.dot.ExeState;
 import net.sourceforge.plantuml.cucadiagram.dot.Graphviz;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
-import net.sourceforge.plantuml.cucadiagram.dot.ProcessState;
+import org.apache.commons.io.FileUtils;
 
 public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
 
@@ -96,30 +95,87 @@ public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
       default:
         throw new IllegalArgumentException("Unsupported export type: " + exportType);
     }
-    return this.executeDot(text, format);
+    return this.executeDotCached(text, format);
   }
 
+  @Override
+  @Nonnull
+  protected String getRenderEngineId() {
+    return "dot:" + makeDotExecutableId();
+  }
+
+  /**
+   * Render DOT script through render cache.
+   *
+   * @param script DOT script
+   * @param type   output format
+   * @return rendered data, must not be changed
+   */
+  @Nonnull
+  protected byte[] executeDotCached(@Nonnull final String script, @Nonnull final String type) {
+    final String cacheKey = RenderedImageCache.makeKey(this.getRenderEngineId(), type, 0, script);
+    byte[] result = RenderedImageCache.getInstance().find(cacheKey);
+    if (result == null) {
+      result = this.executeDot(script, type);
+      RenderedImageCache.getInstance().put(cacheKey, result);
+    }
+    return result;
+  }
+
+  /**
+   * Render DOT script by Graphviz. The dot process is started directly with
+   * files as input and output so that interruption of the calling thread
+   * destroys the process and rendering can be cancelled.
+   *
+   * @param script DOT script
+   * @param type   output format
+   * @return rendered data
+   */
   @Nonnull
   protected byte[] executeDot(@Nonnull final String script, @Nonnull final String type) {
     final Graphviz wizard = GraphvizUtils.create(null, script, type);
 
     final ExeState state = wizard.getExeState();
-    if (state == ExeState.OK) {
-      final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-      final ProcessState processState = wizard.createFile3(bos);
-      IOUtils.closeQuetly(bos);
-      final byte[] formedContent = bos.toByteArray();
-
-      if (processState.differs(ProcessState.TERMINATED_OK())) {
-        throw new IllegalStateException("Can't render image, status is " + processState);
-      } else if (formedContent.length == 0) {
-        throw new IllegalArgumentException("Can't render, looks like script has syntax error");
-      } else {
-        return formedContent;
-      }
-    } else {
+    if (state != ExeState.OK) {
       throw new IllegalStateException("Can't render DOT script: " + state.getTextMessage());
     }
+
+    File scriptFile = null;
+    File outFile = null;
+    File errFile = null;
+    try {
+      scriptFile = File.createTempFile("sciareto-dot", ".gv");
+      outFile = File.createTempFile("sciareto-dot", '.' + type);
+      errFile = File.createTempFile("sciareto-dot", ".err");
+      FileUtils.writeStringToFile(scriptFile, script, StandardCharsets.UTF_8);
+
+      final Process process = new ProcessBuilder(wizard.getDotExe().getAbsolutePath(), "-T" + type)
+          .redirectInput(scriptFile)
+          .redirectOutput(outFile)
+          .redirectError(errFile)
+          .start();
+      final int exitCode;
+      try {
+        exitCode = process.waitFor();
+      } catch (InterruptedException ex) {
+        process.destroyForcibly();
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Rendering has been cancelled");
+      }
+
+      final byte[] formedContent = FileUtils.readFileToByteArray(outFile);
+      if (exitCode != 0 || formedContent.length == 0) {
+        final String errorText = FileUtils.readFileToString(errFile, StandardCharsets.UTF_8).trim();
+        throw new IllegalArgumentException("Can't render, looks like script has syntax error" + (errorText.isEmpty() ? "" : ": " + errorText));
+      }
+      return formedContent;
+    } catch (IOException ex) {
+      throw new IllegalStateException("Can't render image: " + ex.getMessage(), ex);
+    } finally {
+      FileUtils.deleteQuietly(scriptFile);
+      FileUtils.deleteQuietly(outFile);
+      FileUtils.deleteQuietly(errFile);
+    }
   }
 
   @Override
@@ -135,10 +191,12 @@ public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
     }
 
     try {
-      final byte[] image = this.executeDot(text, "png");
+      final byte[] image = this.executeDotCached(text, "png");
       renderedImage.set(ImageIO.read(new ByteArrayInputStream(image)));
     } catch (Exception ex) {
-      LOGGER.error("Can't render DOT script as PNG", ex);
+      if (!Thread.currentThread().isInterrupted()) {
+        LOGGER.error("Can't render DOT script as PNG", ex);
+      }
       error.set(ex);
     }
   }
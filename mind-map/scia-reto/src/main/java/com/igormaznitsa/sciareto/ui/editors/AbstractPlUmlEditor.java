@@ -77,6 +77,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -110,6 +111,7 @@ import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.DiagramDescription;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
 import net.sourceforge.plantuml.error.PSystemError;
+import net.sourceforge.plantuml.version.Version;
 import org.apache.commons.io.FileUtils;
 import org.fife.ui.autocomplete.AutoCompletion;
 import org.fife.ui.rsyntaxtextarea.AbstractTokenMakerFactory;
@@ -131,6 +133,13 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
       Pattern.compile("^\\s*newpage($|\\s.*$)", Pattern.MULTILINE);
 
   private static final int DELAY_AUTOREFRESH_SECONDS = 5;
+
+  /**
+   * Number of pages before and after shown page to be rendered in background.
+   */
+  private static final int PRE_RENDER_PAGES = 2;
+
+  private final RenderExecutor.Slot renderSlot = RenderExecutor.getInstance().makeSlot();
   private final JLabel progressLabel = new JLabel(BigLoaderIconAnimationConroller.LOADING);
 
   private volatile LastRendered lastSuccessfulyRenderedText = null;
@@ -609,6 +618,8 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
 
   @Override
   protected void doDispose() {
+    this.renderSlot.next();
+    BigLoaderIconAnimationConroller.getInstance().unregisterLabel(this.progressLabel);
     eventProcessor.onComplete();
     eventChain.dispose();
   }
@@ -1010,6 +1021,130 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
     return text;
   }
 
+  /**
+   * Get identifier of render engine, it is used as part of render cache key so
+   * that it must be changed if any used tool is changed.
+   *
+   * @return identifier which contains versions of used render tools
+   */
+  @Nonnull
+  protected String getRenderEngineId() {
+    return "plantuml:" + Version.versionString() + ':' + makeDotExecutableId();
+  }
+
+  /**
+   * Check that rendered image depends only on the text and can be cached.
+   *
+   * @param text preprocessed text to be rendered
+   * @return true if rendered image can be cached
+   */
+  protected boolean isRenderCacheable(@Nonnull final String text) {
+    return !(text.contains("!include") || text.contains("!import"));
+  }
+
+  @Nonnull
+  protected static String makeDotExecutableId() {
+    try {
+      final File dotFile = GraphvizUtils.create(null, "png").getDotExe();
+      return dotFile == null ? "none" : dotFile.getAbsolutePath() + ':' + dotFile.lastModified() + ':' + dotFile.length();
+    } catch (Exception ex) {
+      return "none";
+    }
+  }
+
+  /**
+   * Render page of PlantUML script as PNG through render cache.
+   *
+   * @param reader    reader of the script
+   * @param text      preprocessed script text
+   * @param pageIndex zero based page index
+   * @return rendered PNG data, must not be changed
+   * @throws IOException if rendering error
+   */
+  @Nonnull
+  private byte[] renderPageAsPng(@Nonnull final SourceStringReader reader, @Nonnull final String text, final int pageIndex) throws IOException {
+    final String engineId = this.isRenderCacheable(text) ? this.getRenderEngineId() : null;
+    return renderPageAsPng(RenderedImageCache.getInstance(), engineId, reader, text, pageIndex);
+  }
+
+  /**
+   * Render page of PlantUML script as PNG through render cache.
+   *
+   * @param cache     render cache
+   * @param engineId  identifier of render engine, null if image must not be
+   *                  cached
+   * @param reader    reader of the script
+   * @param text      preprocessed script text
+   * @param pageIndex zero based page index
+   * @return rendered PNG data, must not be changed
+   * @throws IOException if rendering error
+   */
+  @Nonnull
+  static byte[] renderPageAsPng(@Nonnull final RenderedImageCache cache, @Nullable final String engineId, @Nonnull final SourceStringReader reader, @Nonnull final String text, final int pageIndex) throws IOException {
+    final String cacheKey = engineId == null ? null : RenderedImageCache.makeKey(engineId, "png", pageIndex, text);
+    byte[] imageData = cacheKey == null ? null : cache.find(cacheKey);
+    if (imageData == null) {
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream(131072);
+      reader.outputImage(buffer, pageIndex, new FileFormatOption(FileFormat.PNG, false));
+      imageData = buffer.toByteArray();
+      if (cacheKey != null) {
+        cache.put(cacheKey, imageData);
+      }
+    }
+    return imageData;
+  }
+
+  /**
+   * Render pages around shown page in background and put them into render
+   * cache, so that paging through multi-page script doesn't wait for render.
+   * It is called when render of the shown page is completed, pages are
+   * rendered as background render only while the text is not changed.
+   *
+   * @param generation generation of render which started the pre-render
+   * @param text       preprocessed script text
+   * @param pageIndex  zero based index of shown page
+   * @param totalPages number of pages in the script
+   */
+  private void preRenderNeighbourPages(final long generation, @Nonnull final String text, final int pageIndex, final int totalPages) {
+    if (!this.isRenderCacheable(text)) {
+      return;
+    }
+    final String engineId = this.getRenderEngineId();
+    this.renderSlot.submit(generation, true, () -> {
+      try {
+        preRenderPages(RenderedImageCache.getInstance(), engineId, text, pageIndex, totalPages, () -> this.renderSlot.isActual(generation));
+      } catch (Exception ex) {
+        logger.warn("Can't pre-render pages: " + ex.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Render pages around page and put them into render cache, images are kept
+   * in render cache as encoded PNG.
+   *
+   * @param cache      render cache
+   * @param engineId   identifier of render engine
+   * @param text       preprocessed script text
+   * @param pageIndex  zero based index of shown page
+   * @param totalPages number of pages in the script
+   * @param actual     checks that rendered text is still actual
+   * @throws IOException if rendering error
+   */
+  static void preRenderPages(@Nonnull final RenderedImageCache cache, @Nonnull final String engineId, @Nonnull final String text, final int pageIndex, final int totalPages, @Nonnull final BooleanSupplier actual) throws IOException {
+    final SourceStringReader reader = new SourceStringReader(text, "UTF-8");
+    for (int distance = 1; distance <= PRE_RENDER_PAGES; distance++) {
+      for (final int page : new int[] {pageIndex + distance, pageIndex - distance}) {
+        if (!actual.getAsBoolean() || Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        if (page >= 0 && page < totalPages) {
+          renderPageAsPng(cache, engineId, reader, text, page);
+        }
+      }
+    }
+  }
+
   protected void resetLastRendered() {
     this.lastSuccessfulyRenderedText = null;
   }
@@ -1067,7 +1202,10 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
         this.mainPanel
             .addPropertyChangeListener(JSplitPane.DIVIDER_LOCATION_PROPERTY, dividerListener);
 
-        MainFrame.REACTOR_SCHEDULER.schedule(() -> {
+        final long generation = this.renderSlot.next();
+
+        final Runnable removeDividerListener = () -> SwingUtilities.invokeLater(() -> mainPanel.removePropertyChangeListener(dividerListener));
+        final boolean queued = this.renderSlot.submit(generation, false, () -> {
           BigLoaderIconAnimationConroller.getInstance().registerLabel(progressLabel);
           try {
             try {
@@ -1084,7 +1222,7 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
                 mainPanel.setDividerLocation(dividerLocation.get());
               });
             } catch (InterruptedException ex) {
-              Thread.currentThread().interrupt();
+              SwingUtilities.invokeLater(() -> mainPanel.removePropertyChangeListener(dividerListener));
               return;
             } catch (InvocationTargetException ex) {
               throw new RuntimeException(ex);
@@ -1097,11 +1235,9 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
               this.doCustomRendering(currentText.editorText, imageIndex - 1, generatedImage,
                   detectedError);
             } else {
-              final ByteArrayOutputStream buffer = new ByteArrayOutputStream(131072);
               try {
-                final DiagramDescription description = reader.outputImage(buffer, imageIndex - 1,
-                    new FileFormatOption(FileFormat.PNG, false));
-                generatedImage.set(ImageIO.read(new ByteArrayInputStream(buffer.toByteArray())));
+                final byte[] imageData = this.renderPageAsPng(reader, theText, imageIndex - 1);
+                generatedImage.set(ImageIO.read(new ByteArrayInputStream(imageData)));
               } catch (Exception ex) {
                 detectedError.set(ex);
               }
@@ -1110,6 +1246,10 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
             SwingUtilities.invokeLater(() -> {
               mainPanel.removePropertyChangeListener(dividerListener);
 
+              if (!renderSlot.isActual(generation)) {
+                return;
+              }
+
               final Exception error = detectedError.get();
               if (error == null) {
                 lastSuccessfulyRenderedText = currentText;
@@ -1130,11 +1270,20 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
               mainPanel.setDividerLocation(dividerLocation.get());
             });
 
+            if (!customRendering && totalPages > 1 && detectedError.get() == null) {
+              // background render waits for free render thread, it doesn't hold the current one
+              this.preRenderNeighbourPages(generation, theText, imageIndex - 1, totalPages);
+            }
           } finally {
             this.lastSuccessfulyRenderedText = null;
-            BigLoaderIconAnimationConroller.getInstance().unregisterLabel(progressLabel);
+            if (this.renderSlot.isActual(generation)) {
+              BigLoaderIconAnimationConroller.getInstance().unregisterLabel(progressLabel);
+            }
           }
-        });
+        }, removeDividerListener);
+        if (!queued) {
+          removeDividerListener.run();
+        }
       }
     } catch (final Exception ex) {
       logger.error("Error of script rendering:" + ex);
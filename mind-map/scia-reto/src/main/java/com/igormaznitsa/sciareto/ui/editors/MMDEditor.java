@@ -40,6 +40,7 @@ import com.igormaznitsa.mindmap.model.ExtraNote;
 import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MMapURI;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapHistory;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.plugins.api.ExternallyExecutedPlugin;
 import com.igormaznitsa.mindmap.plugins.api.PluginContext;
@@ -65,6 +66,7 @@ import com.igormaznitsa.sciareto.preferences.PreferencesManager;
 import com.igormaznitsa.sciareto.preferences.SystemFileExtensionManager;
 import com.igormaznitsa.sciareto.ui.DialogProviderManager;
 import com.igormaznitsa.sciareto.ui.FindTextScopeProvider;
+import com.igormaznitsa.sciareto.ui.SystemUtils;
 import com.igormaznitsa.sciareto.ui.UiUtils;
 import com.igormaznitsa.sciareto.ui.editors.mmeditors.ColorAttributePanel;
 import com.igormaznitsa.sciareto.ui.editors.mmeditors.FileEditPanel;
@@ -94,17 +96,16 @@ import java.awt.geom.Rectangle2D;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -113,7 +114,9 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileFilter;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 
@@ -121,6 +124,8 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
 
   private static final long serialVersionUID = -1011638261448046208L;
 
+  private static final int BACKUP_DELAY_MS = 1000;
+
   private final MindMapPanel mindMapPanel;
 
   private final TabTitle title;
@@ -128,10 +133,11 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
   private final Context context;
 
   private boolean dragAcceptableType;
-  private final transient UndoRedoStorage<String> undoStorage = new UndoRedoStorage<>(5);
+  private final transient MindMapHistory history = new MindMapHistory(MindMapHistory.DEFAULT_MAX_DEPTH, MindMapHistory.DEFAULT_MAX_MEMORY);
 
   private final AtomicBoolean preventAddUndo = new AtomicBoolean();
-  private final AtomicReference<String> currentModelState = new AtomicReference<>();
+
+  private final transient Timer backupTimer = new Timer(BACKUP_DELAY_MS, e -> backup());
 
   private boolean firstLayouting = true;
 
@@ -163,6 +169,7 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
 
   public MMDEditor(@Nonnull final Context context, @Nonnull File file) throws IOException {
     super();
+    this.backupTimer.setRepeats(false);
     this.context = context;
     this.title = new TabTitle(context, this, file);
     this.mindMapPanel = new MindMapPanel(this);
@@ -200,7 +207,7 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
 
     loadContent(file);
-    this.currentModelState.set(this.mindMapPanel.getModel().packToString());
+    this.history.reset(this.mindMapPanel.getModel());
   }
 
   public void rootToCentre() {
@@ -287,12 +294,12 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
 
   @Override
   public boolean isRedo() {
-    return this.undoStorage.hasRedo();
+    return this.history.hasRedo();
   }
 
   @Override
   public boolean isUndo() {
-    return this.undoStorage.hasUndo();
+    return this.history.hasUndo();
   }
 
   @Nonnull
@@ -306,8 +313,7 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
     final MindMap map = new MindMap(new StringReader(textFile.readContentAsUtf8()));
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
 
-    this.undoStorage.clearRedo();
-    this.undoStorage.clearUndo();
+    this.history.reset(map);
 
     this.title.setChanged(false);
 
@@ -326,13 +332,18 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
           return this.saveDocumentAs();
         }
         
-        final byte [] content = this.mindMapPanel.getModel().write(new StringWriter(16384)).toString().getBytes(StandardCharsets.UTF_8);
-        FileUtils.writeByteArrayToFile(file, content);
-        this.currentTextFile.set(new TextFile(file, false, content)); 
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        final long length = SystemUtils.saveMindMap(file, this.mindMapPanel.getModel(), digest);
+        this.currentTextFile.set(new TextFile(file, length, digest.digest()));
+
+        final NodeProject project = this.context.findProjectForFile(file);
+        if (project != null) {
+          project.getLinkIndex().notifyMapSaved(file, this.mindMapPanel.getModel());
+        }
         this.title.setChanged(false);
         this.deleteBackup();
         result = true;
-        this.undoStorage.setFlagThatSomeStateLost();
+        this.history.setFlagThatSomeStateLost();
       }
     } else {
       result = true;
@@ -432,18 +443,28 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
     return this.mindMapPanel.getModel().packToString();
   }
 
+  @Override
+  public void deleteBackup() {
+    this.backupTimer.stop();
+    super.deleteBackup();
+  }
+
+  @Override
+  protected void doDispose() {
+    this.backupTimer.stop();
+    super.doDispose();
+  }
+
   @Override
   public void onMindMapModelChanged(@Nonnull final MindMapPanel source, final boolean addToHistory) {
-    if (addToHistory && !this.preventAddUndo.get() && this.currentModelState.get() != null) {
-      final String state = this.currentModelState.getAndSet(source.getModel().packToString());
-      backup(state);
-      this.undoStorage.addToUndo(state);
-      this.undoStorage.clearRedo();
-      if (addToHistory) {
+    if (!this.preventAddUndo.get() && this.history.getMap() != null) {
+      if (this.history.getMap() != source.getModel()) {
+        this.history.replaceMap(source.getModel());
+      }
+      if (addToHistory && this.history.commit()) {
+        this.backupTimer.restart();
         this.title.setChanged(true);
       }
-    } else {
-      this.currentModelState.set(source.getModel().packToString());
     }
 
     try {
@@ -457,39 +478,42 @@ public final class MMDEditor extends AbstractTextEditor implements PluginContext
   @Override
   public boolean redo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasRedo()) {
-        this.undoStorage.addToUndo(this.currentModelState.getAndSet(this.undoStorage.fromRedo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel.setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
-        }
+      if (this.history.hasRedo()) {
+        showHistoryState(this.history.redo());
       }
     }
-    return this.undoStorage.hasRedo();
+    return this.history.hasRedo();
   }
 
   @Override
   public boolean undo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasUndo()) {
-        this.undoStorage.addToRedo(this.currentModelState.getAndSet(this.undoStorage.fromUndo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel.setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
+      if (this.history.hasUndo()) {
+        showHistoryState(this.history.undo());
+      }
+    }
+    return this.history.hasUndo();
+  }
+
+  private void showHistoryState(@Nullable final MindMap map) {
+    if (map != null) {
+      this.preventAddUndo.set(true);
+      try {
+        if (map == this.mindMapPanel.getModel()) {
+          final List<Topic> selected = map.removeNonExistingTopics(Arrays.asList(this.mindMapPanel.getSelectedTopics()));
+          this.mindMapPanel.removeAllSelection();
+          for (final Topic t : selected) {
+            this.mindMapPanel.select(t, false);
+          }
+          this.mindMapPanel.doNotifyModelChanged(false);
+        } else {
+          this.mindMapPanel.setModel(map, true);
         }
+        this.title.setChanged(this.history.hasUndo() || this.history.hasLostStates());
+      } finally {
+        this.preventAddUndo.set(false);
       }
     }
-    return this.undoStorage.hasUndo();
   }
 
   @Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Executor of script renders shared by all editors. Renders are executed by own
+ * worker threads, their number limits number of renders made in the same time,
+ * so that waiting renders don't occupy threads of the common scheduler.
+ * Background renders are started only when there is no waiting foreground
+ * render.
+ */
+final class RenderExecutor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RenderExecutor.class);
+
+  /**
+   * Max number of renders executed in the same time by all editors, can be
+   * changed by system property.
+   */
+  static final int MAX_PARALLEL_RENDERS = Math.max(1, Integer.getInteger("sciareto.render.parallelism", Math.max(1, Runtime.getRuntime().availableProcessors() / 2))); //NOI18N
+
+  private static final RenderExecutor INSTANCE = new RenderExecutor(MAX_PARALLEL_RENDERS);
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong jobCounter = new AtomicLong();
+
+  RenderExecutor(final int threads) {
+    final AtomicInteger threadCounter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> {
+      final Thread thread = new Thread(runnable, "sr-render-" + threadCounter.incrementAndGet()); //NOI18N
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @Nonnull
+  static RenderExecutor getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Make new render slot, slot keeps renders of single editor.
+   *
+   * @return new slot, must not be null
+   */
+  @Nonnull
+  Slot makeSlot() {
+    return new Slot();
+  }
+
+  void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  boolean awaitTermination(final long timeoutMs) throws InterruptedException {
+    return this.executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Renders of single editor. Only renders of the latest generation are
+   * executed, start of new generation cancels waiting renders and interrupts
+   * running ones.
+   */
+  final class Slot {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Set<Job> jobs = new HashSet<>();
+
+    private Slot() {
+    }
+
+    /**
+     * Start new generation and cancel all renders of previous ones.
+     *
+     * @return the new generation
+     */
+    long next() {
+      final long result = this.generation.incrementAndGet();
+      synchronized (this.jobs) {
+        for (final Job job : this.jobs) {
+          job.cancel();
+        }
+        this.jobs.clear();
+      }
+      return result;
+    }
+
+    boolean isActual(final long generation) {
+      return this.generation.get() == generation;
+    }
+
+    /**
+     * Queue render of a generation.
+     *
+     * @param generation generation of the render
+     * @param background true if the render is background one and can wait
+     *                   for foreground renders
+     * @param render     render to be executed
+     * @return false if the generation is not actual and render is not queued
+     */
+    boolean submit(final long generation, final boolean background, @Nonnull final Runnable render) {
+      return this.submit(generation, background, render, null);
+    }
+
+    /**
+     * Queue render of a generation.
+     *
+     * @param generation generation of the render
+     * @param background true if the render is background one and can wait
+     *                   for foreground renders
+     * @param render     render to be executed
+     * @param skipped    called instead of render if the render was cancelled
+     *                   before start, can be null
+     * @return false if the generation is not actual and render is not queued
+     */
+    boolean submit(final long generation, final boolean background, @Nonnull final Runnable render, @Nullable final Runnable skipped) {
+      final Job job = new Job(this, generation, background ? 1 : 0, jobCounter.incrementAndGet(), render, skipped);
+      synchronized (this.jobs) {
+        if (!this.isActual(generation)) {
+          return false;
+        }
+        this.jobs.add(job);
+      }
+      executor.execute(job);
+      return true;
+    }
+
+    private void remove(@Nonnull final Job job) {
+      synchronized (this.jobs) {
+        this.jobs.remove(job);
+      }
+    }
+  }
+
+  private static final class Job implements Runnable, Comparable<Job> {
+
+    private final Slot slot;
+    private final long generation;
+    private final int priority;
+    private final long order;
+    private final Runnable render;
+    private final Runnable skipped;
+
+    private boolean cancelled;
+    private Thread thread;
+
+    private Job(@Nonnull final Slot slot, final long generation, final int priority, final long order, @Nonnull final Runnable render, @Nullable final Runnable skipped) {
+      this.slot = slot;
+      this.generation = generation;
+      this.priority = priority;
+      this.order = order;
+      this.render = render;
+      this.skipped = skipped;
+    }
+
+    private synchronized void cancel() {
+      this.cancelled = true;
+      if (this.thread != null) {
+        this.thread.interrupt();
+      }
+    }
+
+    @Override
+    public void run() {
+      final boolean skip;
+      synchronized (this) {
+        skip = this.cancelled || !this.slot.isActual(this.generation);
+        if (!skip) {
+          this.thread = Thread.currentThread();
+        }
+      }
+      if (skip) {
+        this.slot.remove(this);
+        if (this.skipped != null) {
+          this.skipped.run();
+        }
+        return;
+      }
+      try {
+        this.render.run();
+      } catch (Exception ex) {
+        LOGGER.error("Error during render", ex); //NOI18N
+      } finally {
+        synchronized (this) {
+          this.thread = null;
+          // clear interruption made by cancel, the worker thread is reused
+          Thread.interrupted();
+        }
+        this.slot.remove(this);
+      }
+    }
+
+    @Override
+    public int compareTo(@Nonnull final Job that) {
+      final int result = Integer.compare(this.priority, that.priority);
+      return result == 0 ? Long.compare(this.order, that.order) : result;
+    }
+  }
+}
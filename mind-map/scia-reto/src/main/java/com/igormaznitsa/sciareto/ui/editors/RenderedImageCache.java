@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Two level cache of rendered diagrams shared by all script editors. Records
+ * are kept as encoded image bytes in memory LRU and in cache folder on disk,
+ * key is hash of render engine identifier, format, page index and text to be
+ * rendered, so that any change of them makes new record and records are never
+ * invalidated. Size of both levels is limited, the oldest records are removed.
+ * Disk level is placed in the user home folder and it is accessible only for
+ * the owner, if the folder can't be prepared then only memory level is used.
+ */
+public final class RenderedImageCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RenderedImageCache.class);
+
+  private static final long DEFAULT_MAX_MEMORY = 32L * 1024L * 1024L;
+  private static final long DEFAULT_MAX_DISK = 256L * 1024L * 1024L;
+  private static final String FILE_EXTENSION = ".bin"; //NOI18N
+  private static final String TEMP_EXTENSION = ".tmp"; //NOI18N
+  private static final long STALE_TEMP_FILE_MS = 60000L;
+  private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------"); //NOI18N
+
+  private static final RenderedImageCache INSTANCE = new RenderedImageCache(new File(FileUtils.getUserDirectory(), ".sciareto" + File.separatorChar + "render-cache"), DEFAULT_MAX_MEMORY, DEFAULT_MAX_DISK); //NOI18N
+
+  private final File folder;
+  private final long maxMemory;
+  private final long maxDisk;
+  private final Map<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+  private long usedMemory;
+
+  private final Object diskLock = new Object();
+  private Boolean folderReady;
+  private long usedDisk = -1L;
+
+  RenderedImageCache(@Nonnull final File folder, final long maxMemory, final long maxDisk) {
+    this.folder = folder;
+    this.maxMemory = maxMemory;
+    this.maxDisk = maxDisk;
+  }
+
+  @Nonnull
+  public static RenderedImageCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Make key of rendered page.
+   *
+   * @param engine    identifier of render engine, must contain version
+   * @param format    format of rendered data
+   * @param pageIndex zero based page index
+   * @param text      text to be rendered, after all preprocessing
+   * @return key of the record
+   */
+  @Nonnull
+  public static String makeKey(@Nonnull final String engine, @Nonnull final String format, final int pageIndex, @Nonnull final String text) {
+    final MessageDigest digest = DigestUtils.getSha256Digest();
+    digest.update(engine.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(format.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(Integer.toString(pageIndex).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(text.getBytes(StandardCharsets.UTF_8));
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  /**
+   * Find cached data, found disk record is moved into memory.
+   *
+   * @param key key of record
+   * @return found data or null, returned array must not be changed
+   */
+  @Nullable
+  public byte[] find(@Nonnull final String key) {
+    synchronized (this.memory) {
+      final byte[] found = this.memory.get(key);
+      if (found != null) {
+        return found;
+      }
+    }
+
+    if (!this.prepareFolder()) {
+      return null;
+    }
+
+    final File file = new File(this.folder, key + FILE_EXTENSION);
+    if (file.isFile()) {
+      try {
+        final byte[] data = FileUtils.readFileToByteArray(file);
+        if (!file.setLastModified(System.currentTimeMillis())) {
+          LOGGER.warn("Can't update time of cache file: " + file); //NOI18N
+        }
+        putIntoMemory(key, data);
+        return data;
+      } catch (IOException ex) {
+        LOGGER.warn("Can't read render cache file: " + file); //NOI18N
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Put data into cache.
+   *
+   * @param key  key of record
+   * @param data data to be cached, the array must not be changed after call
+   */
+  public void put(@Nonnull final String key, @Nonnull final byte[] data) {
+    putIntoMemory(key, data);
+
+    if (!this.prepareFolder()) {
+      return;
+    }
+
+    synchronized (this.diskLock) {
+      if (this.usedDisk < 0L) {
+        trimDisk();
+      }
+    }
+
+    final File file = new File(this.folder, key + FILE_EXTENSION);
+    if (!file.isFile()) {
+      final File tempFile = new File(this.folder, key + '.' + Thread.currentThread().getId() + TEMP_EXTENSION);
+      try {
+        FileUtils.writeByteArrayToFile(tempFile, data, false);
+        try {
+          Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+          Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        synchronized (this.diskLock) {
+          this.usedDisk += data.length;
+          if (this.usedDisk > this.maxDisk) {
+            trimDisk();
+          }
+        }
+      } catch (IOException ex) {
+        LOGGER.warn("Can't write render cache file: " + file + " (" + ex.getMessage() + ')'); //NOI18N
+        FileUtils.deleteQuietly(tempFile);
+      }
+    }
+  }
+
+  /**
+   * Create cache folder if needed and restrict access to it by the owner, it is
+   * made once.
+   *
+   * @return true if disk level can be used
+   */
+  private boolean prepareFolder() {
+    synchronized (this.diskLock) {
+      if (this.folderReady == null) {
+        boolean ready = false;
+        try {
+          final Path path = this.folder.toPath();
+          final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix"); //NOI18N
+          if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (posix) {
+              Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            } else {
+              Files.createDirectories(path);
+            }
+          }
+          if (Files.isSymbolicLink(path) || !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            LOGGER.warn("Render cache folder is not a plain folder: " + path); //NOI18N
+          } else if (posix) {
+            if (!OWNER_ONLY.equals(Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS))) {
+              Files.setPosixFilePermissions(path, OWNER_ONLY);
+            }
+            ready = true;
+          } else {
+            final File file = path.toFile();
+            ready = file.setReadable(false, false) && file.setReadable(true, true)
+                && file.setWritable(false, false) && file.setWritable(true, true)
+                && file.setExecutable(false, false) && file.setExecutable(true, true);
+            if (!ready) {
+              LOGGER.warn("Can't restrict access to render cache folder: " + path); //NOI18N
+            }
+          }
+        } catch (IOException | UnsupportedOperationException ex) {
+          LOGGER.warn("Can't prepare render cache folder: " + this.folder + " (" + ex.getMessage() + ')'); //NOI18N
+        }
+        this.folderReady = ready;
+      }
+      return this.folderReady;
+    }
+  }
+
+  private void putIntoMemory(@Nonnull final String key, @Nonnull final byte[] data) {
+    if (data.length > this.maxMemory) {
+      return;
+    }
+    synchronized (this.memory) {
+      final byte[] prev = this.memory.put(key, data);
+      if (prev != null) {
+        this.usedMemory -= prev.length;
+      }
+      this.usedMemory += data.length;
+      while (this.usedMemory > this.maxMemory) {
+        final Map.Entry<String, byte[]> eldest = this.memory.entrySet().iterator().next();
+        this.usedMemory -= eldest.getValue().length;
+        this.memory.remove(eldest.getKey());
+      }
+    }
+  }
+
+  /**
+   * Remove the oldest files of disk cache to bring its size under the limit
+   * with some reserve, so that trimming is not made for every put. Also it
+   * removes temporary files left by crashed writes. Must be called under disk
+   * lock.
+   */
+  private void trimDisk() {
+    final File[] files = this.folder.listFiles();
+    if (files == null) {
+      this.usedDisk = 0L;
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+    final long target = this.maxDisk - this.maxDisk / 10L;
+    final long staleTime = System.currentTimeMillis() - STALE_TEMP_FILE_MS;
+    long total = 0L;
+    for (final File f : files) {
+      if (f.getName().endsWith(TEMP_EXTENSION)) {
+        if (f.lastModified() < staleTime) {
+          FileUtils.deleteQuietly(f);
+        }
+        continue;
+      }
+      final long length = f.length();
+      if (total + length > target) {
+        FileUtils.deleteQuietly(f);
+      } else {
+        total += length;
+      }
+    }
+    this.usedDisk = total;
+  }
+}
@@ -47,7 +47,7 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
   private static final long serialVersionUID = 6804581090800919466L;
   private static final float SCALE_STEP = 0.05f;
   private final MindMapPanelConfig config = new MindMapPanelConfig();
-  private BufferedImage image;
+  private TiledImage image;
   private float scale = 1.0f;
 
   public static final int IMG_UNIT_INCREMENT = 16;
@@ -228,7 +228,7 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
     if (image == null) {
       return new Dimension(16, 16);
     } else {
-      return new Dimension(Math.round(this.image.getWidth() * this.scale), Math.round(this.image.getHeight() * this.scale));
+      return new Dimension(this.image.getScaledWidth(this.scale), this.image.getScaledHeight(this.scale));
     }
   }
 
@@ -251,17 +251,17 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
       gfx.drawString(text, (bounds.width - gfx.getFontMetrics().stringWidth(text)) / 2, (bounds.height - gfx.getFontMetrics().getMaxAscent()) / 2);
     } else {
       final Dimension size = getPreferredSize();
-      gfx.drawImage(this.image, Math.max(0, (bounds.width - size.width) / 2), Math.max(0, (bounds.height - size.height) / 2), size.width, size.height, null);
+      this.image.paint(gfx, Math.max(0, (bounds.width - size.width) / 2), Math.max(0, (bounds.height - size.height) / 2), this.scale, this.config.getRenderQuality());
     }
   }
 
   @Nullable
   public BufferedImage getImage() {
-    return this.image;
+    return this.image == null ? null : this.image.getImage();
   }
 
   public void setImage(@Nullable final BufferedImage image, final boolean resetZoom) {
-    this.image = image;
+    this.image = image == null ? null : new TiledImage(image);
     if (resetZoom) {
       setScale(1.0f);
     }
@@ -52,6 +52,12 @@ public final class TextFile {
     }
   }
   
+  public TextFile(@Nonnull final File file, final long length, @Nonnull final byte[] hash) {
+    this.file = file;
+    this.length = length;
+    this.hash = hash.clone();
+  }
+
   @Nonnull
   public File getFile() {
     return this.file;
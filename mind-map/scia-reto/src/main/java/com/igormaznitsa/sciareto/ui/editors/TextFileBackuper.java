@@ -19,6 +19,7 @@
 
 package com.igormaznitsa.sciareto.ui.editors;
 
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import java.io.BufferedInputStream;
@@ -29,10 +30,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
@@ -40,14 +47,22 @@ import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
+/**
+ * Background writer of backup files for edited texts. Requests are coalesced
+ * per file so that only the latest content is written if the writer can't
+ * follow editing, adding of request never blocks caller. Backup is written
+ * into temporary file which atomically replaces the previous backup, so that
+ * crash during write can't corrupt existing backup.
+ */
 public class TextFileBackuper {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TextFileBackuper.class);
 
-  private static final BackupContent END_WORK = new BackupContent(new File("/some/non-existing/fake/file"), null);
+  private static final long COALESCE_DELAY_MS = 500L;
 
   private static void writeLong(final long value, @Nonnull final OutputStream out) throws IOException {
     final byte[] splitted = new byte[8];
@@ -126,8 +141,15 @@ public class TextFileBackuper {
     }
   }
 
+  /**
+   * Stop the writer thread, all already added requests are processed before
+   * stop.
+   */
   public void finish() {
-    this.add(END_WORK);
+    synchronized (this.pending) {
+      this.finished = true;
+      this.pending.notifyAll();
+    }
   }
 
   @Nullable
@@ -146,9 +168,8 @@ public class TextFileBackuper {
   }
 
   @Nonnull
-  private byte[] prepareContent(@Nonnull final String content) {
-    final ByteArrayOutputStream bao = new ByteArrayOutputStream(content.length() << 1);
-    final byte[] textAsBytes = content.getBytes(StandardCharsets.UTF_8);
+  private byte[] prepareContent(@Nonnull final byte[] textAsBytes) {
+    final ByteArrayOutputStream bao = new ByteArrayOutputStream(textAsBytes.length + 64);
     final CRC32 crc32 = new CRC32();
     crc32.update(textAsBytes);
     final long crc32value = crc32.getValue();
@@ -157,7 +178,7 @@ public class TextFileBackuper {
     try {
       writeLong(timestamp, bao);
       writeLong(crc32value, bao);
-      final ByteArrayOutputStream packedDataBuffer = new ByteArrayOutputStream(content.length());
+      final ByteArrayOutputStream packedDataBuffer = new ByteArrayOutputStream(Math.max(32, textAsBytes.length / 2));
       final DeflaterOutputStream zos = new DeflaterOutputStream(packedDataBuffer, new Deflater(2));
       IOUtils.write(textAsBytes, zos);
       zos.flush();
@@ -186,16 +207,41 @@ public class TextFileBackuper {
   }
 
   private static final AtomicReference<TextFileBackuper> instance = new AtomicReference<>();
-  private final BlockingQueue<BackupContent> contentQueue = new ArrayBlockingQueue<>(32);
+  private final Map<File, BackupContent> pending = new LinkedHashMap<>();
+  private final Map<File, byte[]> lastWrittenDigests = new HashMap<>();
+  private final AtomicLong writtenBackups = new AtomicLong();
+  private boolean finished;
+  private Thread thread;
+
+  TextFileBackuper() {
 
-  private TextFileBackuper() {
+  }
+
+  void start() {
+    this.thread = new Thread(this::run, "edit-text-content-backuper");
+    this.thread.setDaemon(false);
+    this.thread.start();
+  }
 
+  /**
+   * Wait for stop of the writer thread after {@link #finish()}.
+   *
+   * @param timeoutMs max time to wait in milliseconds
+   * @return true if the thread is stopped
+   * @throws InterruptedException if interrupted during wait
+   */
+  boolean awaitTermination(final long timeoutMs) throws InterruptedException {
+    this.thread.join(timeoutMs);
+    return !this.thread.isAlive();
   }
 
-  private void start() {
-    final Thread thread = new Thread(this::run, "edit-text-content-backuper");
-    thread.setDaemon(false);
-    thread.start();
+  /**
+   * Get number of backup files written since start.
+   *
+   * @return number of written backups
+   */
+  long getWrittenBackups() {
+    return this.writtenBackups.get();
   }
 
   @Nonnull
@@ -210,62 +256,97 @@ public class TextFileBackuper {
     final File backup1 = new File(root, makeBackupFileName(file, 1));
     FileUtils.deleteQuietly(backup0);
     FileUtils.deleteQuietly(backup1);
+    this.lastWrittenDigests.remove(file);
   }
 
-  private void backup(@Nonnull final File file, @Nonnull final byte[] data) {
+  private void backup(@Nonnull final File file, @Nonnull final String content) {
+    final byte[] textAsBytes = content.getBytes(StandardCharsets.UTF_8);
+    final byte[] digest = DigestUtils.sha256(textAsBytes);
+    final byte[] lastDigest = this.lastWrittenDigests.get(file);
+    if (lastDigest != null && Arrays.equals(lastDigest, digest) && findBackupForFile(file) != null) {
+      return;
+    }
+
+    final byte[] data = prepareContent(textAsBytes);
     if (data.length > 0) {
       final File root = file.getParentFile();
       final File backup0 = new File(root, makeBackupFileName(file, 0));
       final File backup1 = new File(root, makeBackupFileName(file, 1));
 
       try {
-        if (backup1.isFile()) {
-          FileUtils.forceDelete(backup1);
-        }
         FileUtils.writeByteArrayToFile(backup1, data, false);
-        if (backup0.isFile()) {
-          FileUtils.forceDelete(backup0);
-        }
-        if (!backup1.renameTo(backup0)) {
-          LOGGER.error("Can't rename backup file " + backup1 + " to " + backup0);
+        try {
+          Files.move(backup1.toPath(), backup0.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+          Files.move(backup1.toPath(), backup0.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
+        this.lastWrittenDigests.put(file, digest);
+        this.writtenBackups.incrementAndGet();
       } catch (IOException ex) {
         LOGGER.error("Can't save backup file: " + file, ex);
       }
+    }
+  }
 
+  @Nonnull
+  @MustNotContainNull
+  private List<BackupContent> takePending() throws InterruptedException {
+    synchronized (this.pending) {
+      while (this.pending.isEmpty() && !this.finished) {
+        this.pending.wait();
+      }
+      if (!this.finished) {
+        final long end = System.currentTimeMillis() + COALESCE_DELAY_MS;
+        long delay = COALESCE_DELAY_MS;
+        while (delay > 0L && !this.finished) {
+          this.pending.wait(delay);
+          delay = end - System.currentTimeMillis();
+        }
+      }
+      final List<BackupContent> result = new ArrayList<>(this.pending.values());
+      this.pending.clear();
+      return result;
     }
   }
 
   private void run() {
     while (!Thread.currentThread().isInterrupted()) {
       try {
-        final BackupContent item = this.contentQueue.poll(5, TimeUnit.SECONDS);
-        if (item != null) {
-          if (item == END_WORK) {
-            break;
-          }
+        final List<BackupContent> items = takePending();
+        for (final BackupContent item : items) {
           if (item.content == null) {
             removeBackup(item.originalFile);
           } else {
-            backup(item.originalFile, prepareContent(item.content));
+            backup(item.originalFile, item.content);
+          }
+        }
+        synchronized (this.pending) {
+          if (this.finished && this.pending.isEmpty()) {
+            break;
           }
         }
       } catch (InterruptedException ex) {
         Thread.currentThread().interrupt();
       }
     }
-
   }
 
+  /**
+   * Add backup request, previous not processed request for the same file is
+   * replaced.
+   *
+   * @param content content to be saved as backup, null content means removing
+   * of backup
+   */
   public void add(@Nonnull final BackupContent content) {
-    try {
-      final boolean placed = this.contentQueue.offer(content, 1, TimeUnit.SECONDS);
-      if (!placed) {
-        LOGGER.error("Can't place content into queue for timeout, content is " + content);
+    synchronized (this.pending) {
+      if (this.finished) {
+        LOGGER.warn("Backuper is finished, request is ignored for " + content.originalFile);
+      } else {
+        this.pending.remove(content.originalFile);
+        this.pending.put(content.originalFile, content);
+        this.pending.notifyAll();
       }
-    } catch (InterruptedException ex) {
-      LOGGER.error("Can't place content into queue for interruption, content is " + content);
-      Thread.currentThread().interrupt();
     }
   }
 
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Image model for drawing of big images in any scale. Scaled image is drawn by
+ * tiles which are prepared only for visible area and kept in LRU cache, so that
+ * repaint during panning just copies ready tiles. For scale less than 1 tiles
+ * are made from pyramid of pre-scaled images where every level is half of the
+ * previous one, levels are made lazily. Must be used only from Swing UI
+ * thread.
+ */
+final class TiledImage {
+
+  static final int TILE_SIZE = 256;
+  private static final int MAX_CACHED_TILES = 128;
+
+  private final List<BufferedImage> levels = new ArrayList<>();
+  private final Map<Long, BufferedImage> tiles = new LinkedHashMap<Long, BufferedImage>(64, 0.75f, true) {
+    private static final long serialVersionUID = -2384620145590738641L;
+
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<Long, BufferedImage> eldest) {
+      return this.size() > Math.max(MAX_CACHED_TILES, visibleTiles * 2);
+    }
+  };
+
+  private int visibleTiles;
+  private float tilesScale = -1.0f;
+  private RenderQuality tilesQuality;
+
+  TiledImage(@Nonnull final BufferedImage image) {
+    this.levels.add(image);
+  }
+
+  @Nonnull
+  BufferedImage getImage() {
+    return this.levels.get(0);
+  }
+
+  int getScaledWidth(final float scale) {
+    return Math.round(this.getImage().getWidth() * scale);
+  }
+
+  int getScaledHeight(final float scale) {
+    return Math.round(this.getImage().getHeight() * scale);
+  }
+
+  /**
+   * Find pyramid level for scale, it is the smallest level which is still not
+   * smaller than the scaled image.
+   *
+   * @param scale scale of image
+   * @return index of level, 0 is the original image
+   */
+  static int findLevel(final float scale) {
+    int level = 0;
+    float levelScale = scale;
+    while (levelScale <= 0.5f) {
+      levelScale *= 2.0f;
+      level++;
+    }
+    return level;
+  }
+
+  @Nonnull
+  private BufferedImage getLevel(final int level) {
+    while (this.levels.size() <= level) {
+      final BufferedImage prev = this.levels.get(this.levels.size() - 1);
+      final int width = Math.max(1, prev.getWidth() / 2);
+      final int height = Math.max(1, prev.getHeight() / 2);
+      if (width == prev.getWidth() && height == prev.getHeight()) {
+        return prev;
+      }
+      final BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D gfx = next.createGraphics();
+      try {
+        gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        gfx.drawImage(prev, 0, 0, width, height, null);
+      } finally {
+        gfx.dispose();
+      }
+      this.levels.add(next);
+    }
+    return this.levels.get(level);
+  }
+
+  @Nonnull
+  private BufferedImage makeTile(final int column, final int row, final float scale, @Nonnull final RenderQuality quality) {
+    final int level = findLevel(scale);
+    final BufferedImage levelImage = this.getLevel(level);
+    final double levelScale = (double) this.getScaledWidth(scale) / (double) levelImage.getWidth();
+    final double levelScaleY = (double) this.getScaledHeight(scale) / (double) levelImage.getHeight();
+
+    final int tileX = column * TILE_SIZE;
+    final int tileY = row * TILE_SIZE;
+    final int width = Math.max(1, Math.min(TILE_SIZE, this.getScaledWidth(scale) - tileX));
+    final int height = Math.max(1, Math.min(TILE_SIZE, this.getScaledHeight(scale) - tileY));
+
+    final BufferedImage tile = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = tile.createGraphics();
+    try {
+      quality.prepare(gfx);
+      gfx.translate(-tileX, -tileY);
+      gfx.scale(levelScale, levelScaleY);
+      gfx.drawImage(levelImage, 0, 0, null);
+    } finally {
+      gfx.dispose();
+    }
+    return tile;
+  }
+
+  @Nonnull
+  private BufferedImage findTile(final int column, final int row, final float scale, @Nonnull final RenderQuality quality) {
+    if (this.tilesScale != scale || this.tilesQuality != quality) {
+      this.tiles.clear();
+      this.tilesScale = scale;
+      this.tilesQuality = quality;
+    }
+    final Long key = ((long) column << 32) | (row & 0xFFFFFFFFL);
+    BufferedImage result = this.tiles.get(key);
+    if (result == null) {
+      result = this.makeTile(column, row, scale, quality);
+      this.tiles.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Draw visible part of scaled image.
+   *
+   * @param gfx     graphics to draw
+   * @param x       x coordinate of image left top corner
+   * @param y       y coordinate of image left top corner
+   * @param scale   scale of image
+   * @param quality render quality
+   */
+  void paint(@Nonnull final Graphics2D gfx, final int x, final int y, final float scale, @Nonnull final RenderQuality quality) {
+    final int scaledWidth = this.getScaledWidth(scale);
+    final int scaledHeight = this.getScaledHeight(scale);
+
+    if (scale == 1.0f) {
+      gfx.drawImage(this.getImage(), x, y, null);
+      return;
+    }
+
+    final Rectangle imageArea = new Rectangle(x, y, scaledWidth, scaledHeight);
+    final Rectangle clip = gfx.getClipBounds();
+    final Rectangle visible = clip == null ? imageArea : imageArea.intersection(clip);
+    if (visible.isEmpty()) {
+      return;
+    }
+
+    final int firstColumn = (visible.x - x) / TILE_SIZE;
+    final int lastColumn = (visible.x + visible.width - 1 - x) / TILE_SIZE;
+    final int firstRow = (visible.y - y) / TILE_SIZE;
+    final int lastRow = (visible.y + visible.height - 1 - y) / TILE_SIZE;
+
+    this.visibleTiles = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int column = firstColumn; column <= lastColumn; column++) {
+        final BufferedImage tile = this.findTile(column, row, scale, quality);
+        gfx.drawImage(tile, x + column * TILE_SIZE, y + row * TILE_SIZE, null);
+      }
+    }
+  }
+}
@@ -1,87 +0,0 @@
-/* 
- * Copyright (C) 2018 Igor Maznitsa.
- *
- * This library is free software; you can redistribute it and/or
- * modify it under the terms of the GNU Lesser General Public
- * License as published by the Free Software Foundation; either
- * version 2.1 of the License, or (at your option) any later version.
- *
- * This library is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
- * Lesser General Public License for more details.
- *
- * You should have received a copy of the GNU Lesser General Public
- * License along with this library; if not, write to the Free Software
- * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
- * MA 02110-1301  USA
- */
-package com.igormaznitsa.sciareto.ui.editors;
-
-import java.util.ArrayList;
-import java.util.List;
-import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
-
-public final class UndoRedoStorage<T> {
-
-  private final List<T> undoItems = new ArrayList<>();
-  private final List<T> redoItems = new ArrayList<>();
-  private final int maxSize;
-
-  private boolean hasUndoStateRemovedForFullBuffer = false;
-
-  public UndoRedoStorage(final int max) {
-    this.maxSize = max;
-  }
-
-  public boolean hasUndo() {
-    return !this.undoItems.isEmpty();
-  }
-
-  public boolean hasRedo() {
-    return !this.redoItems.isEmpty();
-  }
-
-  @Nullable
-  public T fromUndo() {
-    return this.undoItems.isEmpty() ? null : this.undoItems.remove(this.undoItems.size() - 1);
-  }
-
-  @Nullable
-  public T fromRedo() {
-    return this.redoItems.isEmpty() ? null : this.redoItems.remove(this.redoItems.size() - 1);
-  }
-
-  public void addToRedo(@Nonnull final T val) {
-    this.redoItems.add(val);
-    while (this.redoItems.size() > maxSize) {
-      this.redoItems.remove(0);
-    }
-  }
-
-  public void clearRedo() {
-    this.redoItems.clear();
-  }
-
-  public void clearUndo() {
-    this.hasUndoStateRemovedForFullBuffer = false;
-    this.undoItems.clear();
-  }
-
-  public void setFlagThatSomeStateLost(){
-    this.hasUndoStateRemovedForFullBuffer = true;
-  }
-  
-  public boolean hasRemovedUndoStateForFullBuffer() {
-    return this.hasUndoStateRemovedForFullBuffer;
-  }
-
-  public void addToUndo(@Nonnull final T val) {
-    this.undoItems.add(val);
-    while (this.undoItems.size() > maxSize) {
-      this.hasUndoStateRemovedForFullBuffer = true;
-      this.undoItems.remove(0);
-    }
-  }
-}
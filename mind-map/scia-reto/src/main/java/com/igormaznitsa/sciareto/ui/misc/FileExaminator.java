@@ -23,8 +23,11 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nonnull;
-import com.igormaznitsa.meta.common.utils.Assertions;
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
 
 public class FileExaminator {
 
@@ -34,67 +37,108 @@ public class FileExaminator {
     this.file = file;
   }
 
+  /**
+   * Check that file contains byte pattern. Both variants are expected as
+   * lower and upper case representation of the same text, if they have the
+   * same length then every byte of file data can match byte of any variant in
+   * the same position, otherwise variants are searched as two different
+   * patterns. Whole file is streamed through the buffer so that matches
+   * crossing buffer border are found too, search uses Horspool algorithm for
+   * set of patterns.
+   *
+   * @param dataBuffer buffer to be used for file read, if it is too small then
+   * new one will be allocated
+   * @param dataArr1 the first variant of data
+   * @param dataArr2 the second variant of data
+   * @return true if file contains data, false otherwise
+   * @throws IOException if any transport error
+   */
   public boolean doesContainData(@Nonnull final byte[] dataBuffer, @Nonnull final byte[] dataArr1, @Nonnull final byte[] dataArr2) throws IOException {
-    Assertions.assertTrue("Length must be the same", dataArr1.length == dataArr2.length);
+    final List<Pattern> patterns = dataArr1.length == dataArr2.length
+        ? Collections.singletonList(new Pattern(dataArr1, dataArr2))
+        : Arrays.asList(new Pattern(dataArr1, dataArr1), new Pattern(dataArr2, dataArr2));
 
-    boolean result = false;
+    final int minLen = Math.min(dataArr1.length, dataArr2.length);
+    final int maxLen = Math.max(dataArr1.length, dataArr2.length);
 
-    final int len = dataArr1.length;
+    if (minLen == 0 || this.file.length() < minLen) {
+      return false;
+    }
 
-    if (len != 0 && this.file.length() >= len) {
-      final ByteBuffer buffer = ByteBuffer.wrap(dataBuffer);
-      final int[] counters = new int[len];
+    final int[] shifts = makeShiftTable(patterns, minLen);
+    final byte[] buffer = dataBuffer.length >= maxLen * 2 ? dataBuffer : new byte[maxLen * 2];
 
-      try (final FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
-        buffer.clear();
+    try (final FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+      int filled = 0;
+      boolean endOfFile = false;
 
-        while (buffer.hasRemaining() && !Thread.currentThread().isInterrupted()) {
-          int read = channel.read(buffer);
-          if (read < 0) {
+      while (!endOfFile && !Thread.currentThread().isInterrupted()) {
+        final ByteBuffer readBuffer = ByteBuffer.wrap(buffer, filled, buffer.length - filled);
+        while (readBuffer.hasRemaining()) {
+          if (channel.read(readBuffer) < 0) {
+            endOfFile = true;
             break;
           }
         }
+        filled = readBuffer.position();
 
-        if (dataArr1.length == 1) {
-          for (int i = 0; i < buffer.position() && !Thread.currentThread().isInterrupted(); i++) {
-            final byte b = buffer.get(i);
-            if (b == dataArr1[0] || b == dataArr2[0]) {
-              result = true;
-              break;
-            }
-          }
-        } else {
-          mainLoop:
-          for (int i = 0; i < buffer.position() && !Thread.currentThread().isInterrupted(); i++) {
-            final byte b = buffer.get(i);
-            for (int j = 0; j < len; j++) {
-              int c = counters[j];
-              if (c == 0) {
-                continue;
-              }
-              if (b == dataArr1[c] || b == dataArr2[c]) {
-                c++;
-                if (c == len) {
-                  result = true;
-                  break mainLoop;
-                }
-                counters[j] = c;
-              } else {
-                counters[j] = 0;
-              }
-            }
-            if (b == dataArr1[0] || b == dataArr2[0]) {
-              for (int j = 0; j < len; j++) {
-                if (counters[j] == 0) {
-                  counters[j] = 1;
-                  break;
-                }
-              }
+        final int lastStart = endOfFile ? filled - minLen : filled - maxLen;
+        int pos = 0;
+        while (pos <= lastStart) {
+          for (final Pattern p : patterns) {
+            if (p.isMatchAt(buffer, pos, filled)) {
+              return true;
             }
           }
+          pos += shifts[buffer[pos + minLen - 1] & 0xFF];
+        }
+
+        if (!endOfFile) {
+          filled -= pos;
+          System.arraycopy(buffer, pos, buffer, 0, filled);
         }
       }
     }
+    return false;
+  }
+
+  @Nonnull
+  private static int[] makeShiftTable(@Nonnull @MustNotContainNull final List<Pattern> patterns, final int windowLength) {
+    final int[] result = new int[256];
+    Arrays.fill(result, windowLength);
+    for (final Pattern p : patterns) {
+      for (int i = 0; i < windowLength - 1; i++) {
+        final int index1 = p.variant1[i] & 0xFF;
+        final int index2 = p.variant2[i] & 0xFF;
+        result[index1] = Math.min(result[index1], windowLength - 1 - i);
+        result[index2] = Math.min(result[index2], windowLength - 1 - i);
+      }
+    }
     return result;
   }
+
+  private static final class Pattern {
+
+    private final byte[] variant1;
+    private final byte[] variant2;
+
+    private Pattern(@Nonnull final byte[] variant1, @Nonnull final byte[] variant2) {
+      this.variant1 = variant1;
+      this.variant2 = variant2;
+    }
+
+    private boolean isMatchAt(@Nonnull final byte[] buffer, final int pos, final int filled) {
+      final int len = this.variant1.length;
+      if (pos + len > filled) {
+        return false;
+      }
+      for (int i = len - 1; i >= 0; i--) {
+        final byte b = buffer[pos + i];
+        if (b != this.variant1[i] && b != this.variant2[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
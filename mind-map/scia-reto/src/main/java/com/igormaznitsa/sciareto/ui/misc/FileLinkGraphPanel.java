@@ -19,14 +19,14 @@
 package com.igormaznitsa.sciareto.ui.misc;
 
 import com.google.common.base.Function;
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.model.MMapURI;
-import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
-import com.igormaznitsa.sciareto.ui.MapUtils;
+import com.igormaznitsa.sciareto.ui.MainFrame;
 import com.igormaznitsa.sciareto.ui.UiUtils;
 import edu.uci.ics.jung.algorithms.layout.CircleLayout;
-import edu.uci.ics.jung.algorithms.layout.ISOMLayout;
+import edu.uci.ics.jung.algorithms.layout.Layout;
 import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.util.EdgeType;
@@ -54,11 +54,14 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.io.File;
-import java.io.StringReader;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.Icon;
@@ -69,6 +72,8 @@ import javax.swing.SwingUtilities;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringEscapeUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
 
 public final class FileLinkGraphPanel extends javax.swing.JPanel {
 
@@ -78,6 +83,13 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
 
   private FileVertex selectedVertex;
 
+  private static final Dimension SCROLL_COMPONENT_SIZE = new Dimension(600, 450);
+  private static final Dimension LAYOUT_SIZE = new Dimension(2000, 2000);
+
+  private final AtomicBoolean cancelled = new AtomicBoolean();
+  private final JLabel labelProgress = new JLabel("Loading mind map links...");
+  private final Disposable loading;
+
   private static final Color COLOR_BACKGROUND = Color.WHITE;
   private static final Color COLOR_ARROW = Color.ORANGE.darker();
   private static final Color COLOR_LABELS = Color.BLACK;
@@ -159,21 +171,23 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
   }
 
   @Nonnull
-  private Graph<FileVertex, Number> makeGraph(@Nullable final File projectFolder, @Nullable final File startMindMap) {
+  private static Graph<FileVertex, Number> makeGraph(@Nullable final File projectFolder, @Nullable final File startMindMap, @Nonnull final AtomicBoolean cancelled, @Nonnull final IntConsumer progress) {
     final DirectedSparseGraph<FileVertex, Number> result = new DirectedSparseGraph<>();
 
     final AtomicInteger edgeCounter = new AtomicInteger();
 
     final Set<File> mapFilesInProcessing = new HashSet<>();
 
+    final GraphContext context = new GraphContext(result, projectFolder, edgeCounter, mapFilesInProcessing, cancelled, progress);
+
     if (startMindMap != null) {
-      addMindMapAndFillByItsLinks(null, result, projectFolder, startMindMap, edgeCounter, mapFilesInProcessing);
+      addMindMapAndFillByItsLinks(null, context, startMindMap);
     } else if (projectFolder != null) {
       final Iterator<File> iterator = FileUtils.iterateFiles(projectFolder, new String[]{"mmd"}, true); //NOI18N
-      while (iterator.hasNext()) {
+      while (iterator.hasNext() && !cancelled.get()) {
         final File mmdFile = iterator.next();
         if (mmdFile.isFile()) {
-          addMindMapAndFillByItsLinks(null, result, projectFolder, mmdFile, edgeCounter, mapFilesInProcessing);
+          addMindMapAndFillByItsLinks(null, context, mmdFile);
         }
       }
     }
@@ -181,26 +195,54 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
     return result;
   }
 
+  private static final class GraphContext {
+
+    private final Graph<FileVertex, Number> graph;
+    private final File projectFolder;
+    private final AtomicInteger edgeCounter;
+    private final Set<File> mapFilesInProcessing;
+    private final AtomicBoolean cancelled;
+    private final IntConsumer progress;
+
+    private GraphContext(@Nonnull final Graph<FileVertex, Number> graph, @Nullable final File projectFolder, @Nonnull final AtomicInteger edgeCounter, @Nonnull @MustNotContainNull final Set<File> mapFilesInProcessing, @Nonnull final AtomicBoolean cancelled, @Nonnull final IntConsumer progress) {
+      this.graph = graph;
+      this.projectFolder = projectFolder;
+      this.edgeCounter = edgeCounter;
+      this.mapFilesInProcessing = mapFilesInProcessing;
+      this.cancelled = cancelled;
+      this.progress = progress;
+    }
+  }
+
   @Nullable
-  private static FileVertex addMindMapAndFillByItsLinks(@Nullable final FileVertex parent, @Nonnull final @Nullable Graph<FileVertex, Number> graph, @Nullable final File projectFolder, @Nonnull final File mindMapFile, @Nonnull final AtomicInteger edgeCounter, @Nonnull Set<File> mapFilesInProcessing) {
+  private static FileVertex addMindMapAndFillByItsLinks(@Nullable final FileVertex parent, @Nonnull final GraphContext context, @Nonnull final File mindMapFile) {
+    if (context.cancelled.get()) {
+      return null;
+    }
+
+    final Graph<FileVertex, Number> graph = context.graph;
+    final File projectFolder = context.projectFolder;
 
-    MindMap map;
+    List<MMapURI> links;
 
     FileVertex thisVertex;
 
     try {
 
       thisVertex = new FileVertex(mindMapFile, FileVertexType.MINDMAP);
-      map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, "UTF-8"))); //NOI18N
+      links = MindMapLinkCache.getInstance().findFileLinks(mindMapFile);
+      if (links == null) {
+        throw new IOException("Can't parse mind map"); //NOI18N
+      }
 
       if (parent != null) {
-        for (final MMapURI fileUri : MapUtils.extractAllFileLinks(map)) {
+        for (final MMapURI fileUri : links) {
           if (parent.getFile().equals(fileUri.asFile(projectFolder))) {
-            graph.addEdge(edgeCounter.getAndIncrement(), thisVertex, parent, EdgeType.DIRECTED);
+            graph.addEdge(context.edgeCounter.getAndIncrement(), thisVertex, parent, EdgeType.DIRECTED);
             break;
           }
         }
-        if (mapFilesInProcessing.contains(mindMapFile)) {
+        if (context.mapFilesInProcessing.contains(mindMapFile)) {
           return null;
         }
       }
@@ -208,15 +250,16 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
     catch (final Exception ex) {
       LOGGER.error("Can't load mind map : " + mindMapFile, ex); //NOI18N
       thisVertex = new FileVertex(mindMapFile, FileVertexType.UNKNOWN);
-      map = null;
+      links = null;
     }
 
-    mapFilesInProcessing.add(mindMapFile);
+    context.mapFilesInProcessing.add(mindMapFile);
+    context.progress.accept(context.mapFilesInProcessing.size());
 
     graph.addVertex(thisVertex);
 
-    if (map != null) {
-      for (final MMapURI fileUri : MapUtils.extractAllFileLinks(map)) {
+    if (links != null) {
+      for (final MMapURI fileUri : links) {
         final FileVertex that;
 
         final File convertedFile = convertUriInFile(mindMapFile, projectFolder, fileUri);
@@ -231,7 +274,7 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
             if (convertedFile.equals(mindMapFile)) {
               that = thisVertex;
             } else {
-              that = addMindMapAndFillByItsLinks(thisVertex, graph, projectFolder, convertedFile, edgeCounter, mapFilesInProcessing);
+              that = addMindMapAndFillByItsLinks(thisVertex, context, convertedFile);
             }
           } else {
             that = new FileVertex(convertedFile, FileVertexType.DOCUMENT);
@@ -242,7 +285,7 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
         }
 
         if (that != null) {
-          graph.addEdge(edgeCounter.getAndIncrement(), thisVertex, that, EdgeType.DIRECTED);
+          graph.addEdge(context.edgeCounter.getAndIncrement(), thisVertex, that, EdgeType.DIRECTED);
         }
       }
     }
@@ -273,18 +316,58 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
   public FileLinkGraphPanel(@Nullable final File projectFolder, @Nullable final File startMindMap) {
     initComponents();
 
-    final Dimension SCROLL_COMPONENT_SIZE = new Dimension(600, 450);
+    this.labelProgress.setHorizontalAlignment(JLabel.CENTER);
+    this.labelProgress.setPreferredSize(SCROLL_COMPONENT_SIZE);
+    this.add(this.labelProgress, BorderLayout.CENTER);
 
-    final Graph<FileVertex, Number> graph = makeGraph(projectFolder, startMindMap);
+    UiUtils.makeOwningDialogResizable(this);
 
-    if (graph.getVertexCount() == 0) {
+    final AtomicInteger lastShownProgress = new AtomicInteger();
+    final IntConsumer progress = (int processed) -> {
+      if (processed - lastShownProgress.get() >= 16) {
+        lastShownProgress.set(processed);
+        SwingUtilities.invokeLater(() -> labelProgress.setText("Processed mind maps: " + processed));
+      }
+    };
+
+    this.loading = Mono.fromCallable(() -> {
+      final Graph<FileVertex, Number> graph = makeGraph(projectFolder, startMindMap, this.cancelled, progress);
+      final CircleLayout<FileVertex, Number> layout = new CircleLayout<>(graph);
+      layout.setSize(LAYOUT_SIZE);
+      return layout;
+    })
+        .subscribeOn(MainFrame.REACTOR_SCHEDULER)
+        .subscribe(
+            layout -> SwingUtilities.invokeLater(() -> {
+              if (!this.cancelled.get()) {
+                showGraph(layout);
+              }
+            }),
+            error -> {
+              LOGGER.error("Can't make graph of mind map links", error); //NOI18N
+              SwingUtilities.invokeLater(() -> labelProgress.setText("Can't make graph : " + error.getMessage()));
+            });
+  }
 
-      this.add(new JLabel("There is not any Mind map in the project!"), BorderLayout.CENTER);
+  @Override
+  public void removeNotify() {
+    this.cancelled.set(true);
+    this.loading.dispose();
+    super.removeNotify();
+  }
 
-    } else {
-      final ISOMLayout<FileVertex, Number> graphLayout = new ISOMLayout<>(graph);
+  private void showGraph(@Nonnull final Layout<FileVertex, Number> graphLayout) {
+    final Graph<FileVertex, Number> graph = graphLayout.getGraph();
+
+    this.remove(this.labelProgress);
 
-      final VisualizationModel<FileVertex, Number> viewModel = new DefaultVisualizationModel<>(graphLayout, new Dimension(2000, 2000));
+    if (graph.getVertexCount() == 0) {
+      final JLabel label = new JLabel("There is not any Mind map in the project!");
+      label.setHorizontalAlignment(JLabel.CENTER);
+      label.setPreferredSize(SCROLL_COMPONENT_SIZE);
+      this.add(label, BorderLayout.CENTER);
+    } else {
+      final VisualizationModel<FileVertex, Number> viewModel = new DefaultVisualizationModel<>(graphLayout, LAYOUT_SIZE);
       final VisualizationViewer<FileVertex, Number> graphViewer = new VisualizationViewer<>(viewModel, new Dimension(800, 800));
 
       final DefaultModalGraphMouse graphMouse = new DefaultModalGraphMouse() {
@@ -299,8 +382,6 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
 
       };
       graphViewer.setGraphMouse(graphMouse);
-      graphViewer.setGraphLayout(new CircleLayout<>(graph));
-
       graphViewer.getRenderContext().setVertexIconTransformer(new Function<FileVertex, Icon>() {
         @Override
         public Icon apply(@Nonnull final FileVertex f) {
@@ -359,8 +440,6 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
       final GraphZoomScrollPane scroll = new GraphZoomScrollPane(graphViewer);
       scroll.setPreferredSize(SCROLL_COMPONENT_SIZE);
 
-      UiUtils.makeOwningDialogResizable(this);
-
       graphViewer.scaleToLayout(new LayoutScalingControl());
 
       final JButton layoutButton = new JButton(RELAYOUT_ICON);
@@ -381,6 +460,9 @@ public final class FileLinkGraphPanel extends javax.swing.JPanel {
 
       this.add(scroll, BorderLayout.CENTER);
     }
+
+    this.revalidate();
+    this.repaint();
   }
 
   @Nullable
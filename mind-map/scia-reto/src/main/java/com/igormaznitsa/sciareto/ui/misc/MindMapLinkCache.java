@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.misc;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraFile;
+import com.igormaznitsa.mindmap.model.MMapURI;
+import com.igormaznitsa.mindmap.model.MindMapExtraScanner;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Application wide cache of file links extracted from mind map files. Every
+ * record is valid while last modification time and size of the file are not
+ * changed, so that only changed maps are parsed again.
+ */
+public final class MindMapLinkCache {
+
+  private static final int MAX_RECORDS = 4096;
+
+  private static final MindMapLinkCache INSTANCE = new MindMapLinkCache();
+
+  private static final class Record {
+
+    private final long lastModified;
+    private final long size;
+    private final List<MMapURI> links;
+
+    private Record(final long lastModified, final long size, @Nullable @MustNotContainNull final List<MMapURI> links) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.links = links;
+    }
+  }
+
+  private final Map<File, Record> records = new LinkedHashMap<File, Record>(256, 0.75f, true) {
+    private static final long serialVersionUID = 2265128378446178651L;
+
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<File, Record> eldest) {
+      return this.size() > MAX_RECORDS;
+    }
+  };
+
+  private MindMapLinkCache() {
+  }
+
+  @Nonnull
+  public static MindMapLinkCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get file links of mind map.
+   *
+   * @param mindMapFile mind map file, must not be null
+   * @return list of file links in topic order or null if the file can't be
+   * parsed as mind map
+   * @throws IOException if the file can't be read
+   */
+  @Nullable
+  @MustNotContainNull
+  public List<MMapURI> findFileLinks(@Nonnull final File mindMapFile) throws IOException {
+    final BasicFileAttributes attrs = Files.readAttributes(mindMapFile.toPath(), BasicFileAttributes.class);
+    final long lastModified = attrs.lastModifiedTime().toMillis();
+
+    synchronized (this.records) {
+      final Record record = this.records.get(mindMapFile);
+      if (record != null && record.lastModified == lastModified && record.size == attrs.size()) {
+        return record.links;
+      }
+    }
+
+    List<MMapURI> links;
+    try (final Reader reader = new InputStreamReader(new FileInputStream(mindMapFile), StandardCharsets.UTF_8)) {
+      final List<MMapURI> found = new ArrayList<>();
+      MindMapExtraScanner.scan(reader, EnumSet.of(Extra.ExtraType.FILE), (path, extra) -> found.add(((ExtraFile) extra).getValue()));
+      links = Collections.unmodifiableList(found);
+    } catch (IllegalArgumentException ex) {
+      links = null;
+    }
+
+    synchronized (this.records) {
+      this.records.put(mindMapFile, new Record(lastModified, attrs.size(), links));
+    }
+    return links;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.misc;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Search through files of node tree where check of every file is executed in
+ * bounded pool of worker threads. Found files are reported in tree order and
+ * number of checks waiting for report is limited, so that memory is not
+ * wasted on big trees. Search must be started in its own thread, interruption
+ * of the thread stops the search and interrupts all workers.
+ */
+public final class ParallelNodeSearch {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelNodeSearch.class);
+
+  public static final int DEFAULT_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  @FunctionalInterface
+  public interface FileCheck {
+
+    boolean isFound(@Nonnull NodeFileOrFolder file) throws Exception;
+  }
+
+  private static final class Pending {
+
+    private final NodeFileOrFolder file;
+    private final Future<Boolean> result;
+
+    private Pending(@Nonnull final NodeFileOrFolder file, @Nonnull final Future<Boolean> result) {
+      this.file = file;
+      this.result = result;
+    }
+  }
+
+  private final int parallelism;
+  private final String threadName;
+  private final FileCheck check;
+  private final Consumer<NodeFileOrFolder> foundConsumer;
+  private final IntConsumer progressConsumer;
+
+  private final Deque<Pending> pending = new ArrayDeque<>();
+  private int progress;
+
+  /**
+   * Constructor.
+   *
+   * @param parallelism number of worker threads, must be positive
+   * @param threadName name of worker threads
+   * @param check check of file, called in worker threads
+   * @param foundConsumer consumer of found files, called in search thread in
+   * tree order
+   * @param progressConsumer consumer of number of processed nodes, called in
+   * search thread
+   */
+  public ParallelNodeSearch(
+      final int parallelism,
+      @Nonnull final String threadName,
+      @Nonnull final FileCheck check,
+      @Nonnull final Consumer<NodeFileOrFolder> foundConsumer,
+      @Nonnull final IntConsumer progressConsumer
+  ) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive : " + parallelism); //NOI18N
+    }
+    this.parallelism = parallelism;
+    this.threadName = threadName;
+    this.check = check;
+    this.foundConsumer = foundConsumer;
+    this.progressConsumer = progressConsumer;
+  }
+
+  /**
+   * Check all files in subtree of every root node.
+   *
+   * @param roots root nodes, their children are processed
+   * @throws InterruptedException if search thread has been interrupted
+   */
+  public void search(@Nonnull final Iterable<? extends NodeFileOrFolder> roots) throws InterruptedException {
+    final AtomicInteger threadCounter = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, (Runnable r) -> {
+      final Thread thread = new Thread(r, this.threadName + '-' + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      for (final NodeFileOrFolder root : roots) {
+        for (final NodeFileOrFolder node : root) {
+          processNode(executor, node);
+        }
+      }
+      while (!this.pending.isEmpty()) {
+        reportHead();
+      }
+    } finally {
+      executor.shutdownNow();
+      for (final Pending p : this.pending) {
+        p.result.cancel(true);
+      }
+      this.pending.clear();
+    }
+  }
+
+  private void processNode(@Nonnull final ExecutorService executor, @Nonnull final NodeFileOrFolder node) throws InterruptedException {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new InterruptedException();
+    }
+    if (node.isLeaf()) {
+      this.pending.add(new Pending(node, executor.submit(() -> this.check.isFound(node))));
+      while (this.pending.size() > this.parallelism * 4 || (!this.pending.isEmpty() && this.pending.peekFirst().result.isDone())) {
+        reportHead();
+      }
+    } else {
+      this.progressConsumer.accept(++this.progress);
+      for (final NodeFileOrFolder child : node) {
+        processNode(executor, child);
+      }
+    }
+  }
+
+  private void reportHead() throws InterruptedException {
+    final Pending head = this.pending.removeFirst();
+    try {
+      if (head.result.get()) {
+        this.foundConsumer.accept(head.file);
+      }
+    } catch (ExecutionException ex) {
+      LOGGER.error("Error during check of file : " + head.file, ex.getCause()); //NOI18N
+    }
+    this.progressConsumer.accept(++this.progress);
+  }
+}
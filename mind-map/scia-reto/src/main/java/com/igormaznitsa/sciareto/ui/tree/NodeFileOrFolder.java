@@ -23,7 +23,6 @@ import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.annotation.ReturnsOriginal;
 import com.igormaznitsa.meta.common.utils.ArrayUtils;
 import com.igormaznitsa.meta.common.utils.Assertions;
-import com.igormaznitsa.meta.common.utils.IOUtils;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
@@ -31,16 +30,24 @@ import com.igormaznitsa.sciareto.preferences.PrefUtils;
 import com.igormaznitsa.sciareto.ui.MainFrame;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -49,10 +56,7 @@ import javax.swing.event.TreeModelListener;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
-import reactor.core.Exceptions;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.SignalType;
 
 public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>, Iterable<NodeFileOrFolder> {
 
@@ -62,7 +66,7 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
 
   protected final List<NodeFileOrFolder> children;
   protected final boolean folderFlag;
-  private final boolean readonly;
+  private volatile Boolean readonly;
   protected volatile String name;
   private volatile boolean noAccess;
   private volatile boolean disposed = false;
@@ -88,12 +92,12 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     this.readonly = readOnly;
   }
 
-  protected static boolean isFileHidden(@Nonnull final Path path) {
-    try {
-      return Files.isHidden(path);
-    } catch (IOException ex) {
-      throw Exceptions.propagate(ex);
-    }
+  private NodeFileOrFolder(@Nonnull final NodeFileOrFolder parent, final boolean folder, @Nonnull final String name) {
+    this.parent = parent;
+    this.name = name;
+    this.children = folder ? Collections.synchronizedList(new ArrayList<>()) : Collections.EMPTY_LIST;
+    this.folderFlag = folder;
+    this.readonly = null;
   }
 
   public boolean isLoading() {
@@ -112,8 +116,30 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     }
   }
 
+  void resetReadOnlyFlag() {
+    this.readonly = null;
+  }
+
+  @Nullable
+  public NodeFileOrFolder findChild(@Nonnull final String name) {
+    synchronized (this.children) {
+      for (final NodeFileOrFolder c : this.children) {
+        if (name.equals(c.name)) {
+          return c;
+        }
+      }
+    }
+    return null;
+  }
+
   public boolean isReadOnly() {
-    return this.readonly;
+    Boolean result = this.readonly;
+    if (result == null) {
+      final File file = makeFileForNode();
+      result = file == null || !Files.isWritable(file.toPath());
+      this.readonly = result;
+    }
+    return result;
   }
 
   public boolean isProjectKnowledgeFolder() {
@@ -165,63 +191,48 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     readSubtree(PrefUtils.isShowHiddenFilesAndFolders()).subscribeOn(MainFrame.REACTOR_SCHEDULER).subscribe();
   }
 
-  private void clearChildren() {
-    try {
-      this.children.forEach(NodeFileOrFolder::dispose);
-    } finally {
-      this.children.clear();
+  private void replaceChildren(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> newChildren) {
+    synchronized (this.children) {
+      try {
+        this.children.forEach(NodeFileOrFolder::dispose);
+      } finally {
+        this.children.clear();
+        this.children.addAll(newChildren);
+      }
     }
   }
 
+  private static boolean isHidden(@Nonnull final Path path, @Nullable final BasicFileAttributes attrs) {
+    if (attrs instanceof DosFileAttributes) {
+      return ((DosFileAttributes) attrs).isHidden();
+    }
+    final Path fileName = path.getFileName();
+    return fileName != null && fileName.toString().startsWith("."); //NOI18N
+  }
+
+  /**
+   * Read whole subtree of the folder. File system is walked once in the
+   * subscribing thread, attributes of every entry are read only once and
+   * children of every folder are collected in local buffer and published
+   * sorted after the folder walk end, so that the current tree is not changed
+   * until the subtree is ready.
+   *
+   * @param addHiddenFilesAndFolders flag to show hidden files and folders
+   * @return mono which emits the node after load, must not be null
+   */
   @Nonnull
   public Mono<NodeFileOrFolder> readSubtree(final boolean addHiddenFilesAndFolders) {
     if (this.folderFlag) {
-      final boolean parentIsProjectGroup = this.parent instanceof NodeProjectGroup;
-      return Flux.using(() -> {
-        this.clearChildren();
-        final File nodeFile = makeFileForNode();
+      return Mono.create(sink -> {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        sink.onDispose(() -> cancelled.set(true));
         try {
-          return new SynchroPathIterator(nodeFile.toPath());
+          new SubtreeReader(this, addHiddenFilesAndFolders, cancelled).read();
+          sink.success(this);
         } catch (Exception ex) {
-          LOGGER.warn("Error '" + ex.getClass().getCanonicalName() + "' during access to path: " + nodeFile.getPath());
-          this.noAccess = true;
-          return new DirectoryStream<Path>() {
-            @Override
-            public Iterator<Path> iterator() {
-              return Collections.emptyIterator();
-            }
-
-            @Override
-            public void close() throws IOException {
-            }
-          };
+          sink.error(ex);
         }
-      }, Flux::fromIterable, IOUtils::closeQuetly)
-          .parallel()
-          .runOn(MainFrame.REACTOR_SCHEDULER)
-          .doOnError(error -> {
-            LOGGER.warn("Error during path " + makeFileForNode().getName() + " opening: " + error.getMessage());
-            this.noAccess = true;
-          })
-          .filter(f -> {
-            if (parentIsProjectGroup) {
-              return addHiddenFilesAndFolders || !isFileHidden(f) || Context.KNOWLEDGE_FOLDER.equals(f.getFileName().toString());
-            } else {
-              return addHiddenFilesAndFolders || !isFileHidden(f);
-            }
-          })
-          .map(f -> {
-            NodeFileOrFolder newItem = new NodeFileOrFolder(this, Files.isDirectory(f), f.getFileName().toString(), addHiddenFilesAndFolders, !Files.isWritable(f));
-            this.children.add(newItem);
-            return newItem;
-          })
-          .flatMap(f -> f.readSubtree(addHiddenFilesAndFolders))
-          .reduce((x, y) -> this)
-          .doFinally(signalType -> {
-            if (signalType == SignalType.ON_COMPLETE) {
-              this.children.sort(this);
-            }
-          });
+      });
     } else {
       return Mono.empty();
     }
@@ -441,41 +452,107 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
 
   }
 
-  private static final class SynchroPathIterator implements DirectoryStream<Path> {
+  private static final class SubtreeReader extends SimpleFileVisitor<Path> {
+
+    private final NodeFileOrFolder root;
+    private final boolean addHiddenFilesAndFolders;
+    private final AtomicBoolean cancelled;
+    private final Deque<NodeFileOrFolder> folders = new ArrayDeque<>();
+    private final Deque<List<NodeFileOrFolder>> buffers = new ArrayDeque<>();
 
-    private final Iterator<Path> iterator;
-    private final AtomicReference<DirectoryStream<Path>> directoryStream;
+    private SubtreeReader(@Nonnull final NodeFileOrFolder root, final boolean addHiddenFilesAndFolders, @Nonnull final AtomicBoolean cancelled) {
+      this.root = root;
+      this.addHiddenFilesAndFolders = addHiddenFilesAndFolders;
+      this.cancelled = cancelled;
+    }
+
+    private void read() throws IOException {
+      final File rootFile = Assertions.assertNotNull(this.root.makeFileForNode());
+      this.root.noAccess = false;
+      Files.walkFileTree(rootFile.toPath(), EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, this);
+    }
 
-    SynchroPathIterator(final Path path) throws IOException {
-      this.directoryStream = new AtomicReference<>(Files.newDirectoryStream(path));
-      this.iterator = directoryStream.get().iterator();
+    private boolean isAllowed(@Nonnull final Path path, @Nullable final BasicFileAttributes attrs) {
+      if (this.addHiddenFilesAndFolders || !isHidden(path, attrs)) {
+        return true;
+      }
+      return this.folders.peekLast().parent instanceof NodeProjectGroup && Context.KNOWLEDGE_FOLDER.equals(path.getFileName().toString());
     }
 
     @Override
-    public void close() throws IOException {
-      final DirectoryStream<Path> ds = this.directoryStream.getAndSet(null);
-      if (ds != null) {
-        ds.close();
+    @Nonnull
+    public FileVisitResult preVisitDirectory(@Nonnull final Path dir, @Nonnull final BasicFileAttributes attrs) throws IOException {
+      if (this.cancelled.get()) {
+        return FileVisitResult.TERMINATE;
+      }
+      final NodeFileOrFolder folder;
+      if (this.folders.isEmpty()) {
+        folder = this.root;
+      } else if (isAllowed(dir, attrs)) {
+        folder = new NodeFileOrFolder(this.folders.peekLast(), true, dir.getFileName().toString());
+        this.buffers.peekLast().add(folder);
+      } else {
+        return FileVisitResult.SKIP_SUBTREE;
       }
+      this.folders.addLast(folder);
+      this.buffers.addLast(new ArrayList<>());
+      return FileVisitResult.CONTINUE;
     }
 
     @Override
-    public Iterator<Path> iterator() {
-      return new Iterator<Path>() {
-        @Override
-        public boolean hasNext() {
-          synchronized (iterator) {
-            return iterator.hasNext();
-          }
-        }
+    @Nonnull
+    public FileVisitResult visitFile(@Nonnull final Path file, @Nonnull final BasicFileAttributes attrs) throws IOException {
+      if (this.cancelled.get()) {
+        return FileVisitResult.TERMINATE;
+      }
+      if (isAllowed(file, attrs)) {
+        this.buffers.peekLast().add(new NodeFileOrFolder(this.folders.peekLast(), false, file.getFileName().toString()));
+      }
+      return FileVisitResult.CONTINUE;
+    }
 
-        @Override
-        public Path next() {
-          synchronized (iterator) {
-            return iterator.next();
-          }
+    @Override
+    @Nonnull
+    public FileVisitResult visitFileFailed(@Nonnull final Path file, @Nonnull final IOException exc) throws IOException {
+      if (this.folders.isEmpty()) {
+        LOGGER.warn("Error '" + exc.getClass().getCanonicalName() + "' during access to path: " + file); //NOI18N
+        this.root.noAccess = true;
+        this.root.replaceChildren(Collections.<NodeFileOrFolder>emptyList());
+        return FileVisitResult.TERMINATE;
+      }
+      if (isAllowed(file, null)) {
+        final NodeFileOrFolder node;
+        if (exc instanceof FileSystemLoopException || Files.isDirectory(file)) {
+          LOGGER.warn("Error '" + exc.getClass().getCanonicalName() + "' during access to folder: " + file); //NOI18N
+          node = new NodeFileOrFolder(this.folders.peekLast(), true, file.getFileName().toString());
+          node.noAccess = true;
+        } else {
+          node = new NodeFileOrFolder(this.folders.peekLast(), false, file.getFileName().toString());
         }
-      };
+        this.buffers.peekLast().add(node);
+      }
+      return this.cancelled.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    @Nonnull
+    public FileVisitResult postVisitDirectory(@Nonnull final Path dir, @Nullable final IOException exc) throws IOException {
+      final NodeFileOrFolder folder = this.folders.removeLast();
+      final List<NodeFileOrFolder> buffer = this.buffers.removeLast();
+      if (exc != null) {
+        LOGGER.warn("Error '" + exc.getClass().getCanonicalName() + "' during access to path: " + dir); //NOI18N
+        folder.noAccess = true;
+      }
+      if (this.cancelled.get()) {
+        return FileVisitResult.TERMINATE;
+      }
+      buffer.sort(folder);
+      if (folder == this.root) {
+        folder.replaceChildren(buffer);
+      } else {
+        folder.children.addAll(buffer);
+      }
+      return FileVisitResult.CONTINUE;
     }
   }
 }
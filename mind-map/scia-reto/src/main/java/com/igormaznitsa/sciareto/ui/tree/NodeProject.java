@@ -19,6 +19,7 @@
 package com.igormaznitsa.sciareto.ui.tree;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.meta.annotation.UiThread;
 import com.igormaznitsa.meta.common.utils.Assertions;
 import com.igormaznitsa.mindmap.model.MMapURI;
 import com.igormaznitsa.mindmap.model.MindMap;
@@ -27,21 +28,23 @@ import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.preferences.PrefUtils;
 import com.igormaznitsa.sciareto.ui.MainFrame;
-import com.igormaznitsa.sciareto.ui.MapUtils;
 import com.igormaznitsa.sciareto.ui.SystemUtils;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.swing.SwingUtilities;
 import org.apache.commons.io.FileUtils;
 import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
@@ -54,6 +57,8 @@ public class NodeProject extends NodeFileOrFolder {
   private volatile boolean knowledgeFolderPresented;
   private final AtomicBoolean loading = new AtomicBoolean(true);
   private final AtomicReference<Disposable> loadDispose = new AtomicReference<>();
+  private ProjectLinkIndex linkIndex;
+  private ProjectFolderWatcher watcher;
   
   public NodeProject(@Nonnull final NodeProjectGroup group, @Nonnull final File folder) throws IOException {
     super(group, true, folder.getName(), PrefUtils.isShowHiddenFilesAndFolders(), !Files.isWritable(folder.toPath()));
@@ -99,24 +104,26 @@ public class NodeProject extends NodeFileOrFolder {
     return (NodeProjectGroup) this.parent;
   }
 
+  @Nonnull
+  public synchronized ProjectLinkIndex getLinkIndex() {
+    ProjectLinkIndex result = this.linkIndex;
+    if (result == null || !result.getProjectFolder().equals(this.folder)) {
+      result = new ProjectLinkIndex(this.folder);
+      this.linkIndex = result;
+    }
+    return result;
+  }
+
   @Nonnull
   @MustNotContainNull
   public List<File> findAffectedFiles(@Nonnull final File changedFile) {
-    final File baseFolder = makeFileForNode();
-    final boolean isfolder = changedFile.isDirectory();
-
-    final List<File> result = new ArrayList<>();
-    FileUtils.listFiles(baseFolder, new String[]{"mmd", "MMD"}, true).forEach((mindMapFile) -> {
-      try {
-        final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, StandardCharsets.UTF_8))); //NOI18N
-        if (!MapUtils.findTopicsRelatedToFile(baseFolder, changedFile, map).isEmpty()) {
-          result.add(mindMapFile);
-        }
-      } catch (IOException ex) {
-        LOGGER.error("Can't process mind map file", ex); //NOI18N
+    final ProjectLinkIndex index = getLinkIndex();
+    synchronized (this) {
+      if (this.watcher == null) {
+        index.markStale();
       }
-    });
-    return result;
+    }
+    return index.findMapsLinkedTo(changedFile);
   }
 
   @Nonnull
@@ -131,7 +138,8 @@ public class NodeProject extends NodeFileOrFolder {
       try {
         final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(file, "UTF-8"))); //NOI18N
         if (map.deleteAllLinksToFile(baseFolder, fileURI)) {
-          SystemUtils.saveUTFText(file, map.packToString());
+          SystemUtils.saveMindMap(file, map, null);
+          getLinkIndex().notifyMapSaved(file, map);
           affectedFiles.add(file);
         }
       } catch (IOException ex) {
@@ -159,6 +167,7 @@ public class NodeProject extends NodeFileOrFolder {
               time.set(System.currentTimeMillis());
             })
             .flatMap(p -> super.readSubtree(addHiddenFilesAndFolders))
+            .doOnSuccess(p -> startWatcher(addHiddenFilesAndFolders))
             .doFinally(signalType -> {
               Collections.sort(this.children, this);
               LOGGER.info(String.format("Project %s reloaded, spent %d ms", this.toString(), System.currentTimeMillis() - time.get()));
@@ -183,7 +192,8 @@ public class NodeProject extends NodeFileOrFolder {
       try {
         final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(file, StandardCharsets.UTF_8)));
         if (map.replaceAllLinksToFile(baseFolder, oldFileURI, newFileURI)) {
-          SystemUtils.saveUTFText(file, map.packToString());
+          SystemUtils.saveMindMap(file, map, null);
+          getLinkIndex().notifyMapSaved(file, map);
           affectedFiles.add(file);
         }
       } catch (IOException ex) {
@@ -194,6 +204,122 @@ public class NodeProject extends NodeFileOrFolder {
     return affectedFiles;
   }
 
+  private synchronized void startWatcher(final boolean showHiddenFiles) {
+    stopWatcher();
+    // changes made while watcher was stopped are unknown
+    getLinkIndex().markStale();
+    try {
+      this.watcher = new ProjectFolderWatcher(this.folder.toPath(), path -> isVisible(path, showHiddenFiles),
+          (changed, modified, overflow) -> {
+            getLinkIndex().notifyFilesChanged(changed, modified, overflow);
+            SwingUtilities.invokeLater(() -> applyFolderChanges(changed, modified, overflow, showHiddenFiles));
+          });
+    } catch (IOException ex) {
+      LOGGER.error("Can't start watcher for project folder : " + this.folder, ex); //NOI18N
+    }
+  }
+
+  private synchronized void stopWatcher() {
+    if (this.watcher != null) {
+      this.watcher.close();
+      this.watcher = null;
+    }
+  }
+
+  @Override
+  protected void onDispose() {
+    stopWatcher();
+  }
+
+  private boolean isVisible(@Nonnull final Path path, final boolean showHiddenFiles) {
+    if (showHiddenFiles) {
+      return true;
+    }
+    final String fileName = path.getFileName().toString();
+    boolean hidden;
+    try {
+      hidden = Files.isHidden(path);
+    } catch (IOException ex) {
+      hidden = fileName.startsWith("."); //NOI18N
+    }
+    return !hidden || (Context.KNOWLEDGE_FOLDER.equals(fileName) && path.getParent().equals(this.folder.toPath()));
+  }
+
+  @Nullable
+  private NodeFileOrFolder findNodeForPath(@Nonnull final Path path) {
+    NodeFileOrFolder result = this;
+    for (final Path name : this.folder.toPath().relativize(path)) {
+      if (name.toString().isEmpty()) {
+        continue;
+      }
+      result = result.findChild(name.toString());
+      if (result == null) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  @UiThread
+  private void applyFolderChanges(@Nonnull @MustNotContainNull final Set<Path> changed, @Nonnull @MustNotContainNull final Set<Path> modified, final boolean overflow, final boolean showHiddenFiles) {
+    if (this.isDisposed() || this.isLoading()) {
+      return;
+    }
+
+    final NodeProjectGroup group = this.getGroup();
+    if (overflow) {
+      LOGGER.info("Some file events lost, refresh project " + this); //NOI18N
+      group.startProjectFolderRefresh(this);
+      return;
+    }
+
+    final Path projectPath = this.folder.toPath();
+
+    for (final Path path : changed) {
+      if (!path.startsWith(projectPath) || path.equals(projectPath)) {
+        continue;
+      }
+      final NodeFileOrFolder parentNode = findNodeForPath(path.getParent());
+      if (parentNode == null || parentNode.isLeaf()) {
+        continue;
+      }
+
+      NodeFileOrFolder node = parentNode.findChild(path.getFileName().toString());
+      final boolean exists = Files.exists(path);
+      if (node != null && (!exists || node.folderFlag != Files.isDirectory(path))) {
+        group.deleteNode(node, true);
+        node = null;
+      }
+
+      if (exists && node == null && isVisible(path, showHiddenFiles)) {
+        try {
+          final NodeFileOrFolder newNode = group.addChild(parentNode, showHiddenFiles, path.toFile());
+          if (newNode.folderFlag) {
+            newNode.readSubtree(showHiddenFiles)
+                .subscribeOn(MainFrame.REACTOR_SCHEDULER)
+                .subscribe(n -> SwingUtilities.invokeLater(() -> {
+                  if (!n.isDisposed()) {
+                    group.notifyNodeStructureChanged(n);
+                  }
+                }));
+          }
+        } catch (IOException ex) {
+          LOGGER.error("Can't add node for created file : " + path, ex); //NOI18N
+        }
+      }
+    }
+
+    for (final Path path : modified) {
+      if (path.startsWith(projectPath) && !path.equals(projectPath)) {
+        final NodeFileOrFolder node = findNodeForPath(path);
+        if (node != null) {
+          node.resetReadOnlyFlag();
+          group.notifyNodeChanged(node);
+        }
+      }
+    }
+  }
+
   public void cancelLoading() {
     final Disposable disposable = this.loadDispose.getAndSet(null);
     if (disposable != null) {
@@ -245,6 +245,26 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
     });
   }
 
+  @UiThread
+  void notifyNodeChanged(@Nonnull final NodeFileOrFolder node) {
+    final NodeFileOrFolder parentNode = node.getNodeParent();
+    final int index = node.getIndexAtParent();
+    if (parentNode != null && index >= 0) {
+      final TreeModelEvent event = new TreeModelEvent(this, parentNode.makeTreePath(), new int[]{index}, new Object[]{node});
+      for (final TreeModelListener l : this.listeners) {
+        l.treeNodesChanged(event);
+      }
+    }
+  }
+
+  @UiThread
+  void notifyNodeStructureChanged(@Nonnull final NodeFileOrFolder node) {
+    final TreeModelEvent event = new TreeModelEvent(this, node.makeTreePath());
+    for (final TreeModelListener l : this.listeners) {
+      l.treeStructureChanged(event);
+    }
+  }
+
   @Nullable
   public NodeProject findProjectForFile(@Nonnull final File file) {
     final Path filepath = Paths.toPath(file);
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+
+/**
+ * Watcher of project folder changes. All folders of the project are
+ * registered in a watch service and events are collected in batches, a batch
+ * is closed when there are no new events during short delay, so that mass
+ * changes (for instance git checkout) are reported together. Paths are
+ * reported without event type, the listener must check current state of
+ * every path.
+ */
+public final class ProjectFolderWatcher implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectFolderWatcher.class);
+
+  private static final long QUIET_DELAY_MS = 300L;
+  private static final long MAX_BATCH_DELAY_MS = 3000L;
+
+  public interface Listener {
+
+    /**
+     * Called in watcher thread for batch of changes.
+     *
+     * @param changed created or deleted paths, sorted so that parent precedes
+     * its children
+     * @param modified modified paths
+     * @param overflow true if some events have been lost and full rescan is
+     * needed
+     */
+    void onFolderChanges(@Nonnull Set<Path> changed, @Nonnull Set<Path> modified, boolean overflow);
+  }
+
+  private final Path root;
+  private final WatchService watchService;
+  private final Predicate<Path> folderFilter;
+  private final Listener listener;
+  private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+  private final Thread thread;
+
+  /**
+   * Start watching of folder.
+   *
+   * @param root root folder to watch
+   * @param folderFilter filter of sub-folders to be registered
+   * @param listener listener of changes
+   * @throws IOException if watch service can't be created
+   */
+  public ProjectFolderWatcher(@Nonnull final Path root, @Nonnull final Predicate<Path> folderFilter, @Nonnull final Listener listener) throws IOException {
+    this.root = root;
+    this.folderFilter = folderFilter;
+    this.listener = listener;
+    this.watchService = root.getFileSystem().newWatchService();
+    this.thread = new Thread(this::run, "SciaRetoFolderWatcher-" + root.getFileName()); //NOI18N
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  @Nonnull
+  public Path getRoot() {
+    return this.root;
+  }
+
+  private void registerTree(@Nonnull final Path folder) {
+    try {
+      Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+        @Override
+        @Nonnull
+        public FileVisitResult preVisitDirectory(@Nonnull final Path dir, @Nonnull final BasicFileAttributes attrs) throws IOException {
+          if (!dir.equals(root) && !folderFilter.test(dir)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          try {
+            keys.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+          } catch (IOException ex) {
+            LOGGER.warn("Can't register folder for watching : " + dir + " (" + ex.getMessage() + ')'); //NOI18N
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        @Nonnull
+        public FileVisitResult visitFileFailed(@Nonnull final Path file, @Nonnull final IOException exc) throws IOException {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException ex) {
+      LOGGER.warn("Can't walk folder for watching : " + folder); //NOI18N
+    }
+  }
+
+  private boolean processKey(@Nonnull final WatchKey key, @Nonnull final Set<Path> changed, @Nonnull final Set<Path> modified) {
+    boolean overflow = false;
+    final Path folder = this.keys.get(key);
+    if (folder != null) {
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        final WatchEvent.Kind<?> kind = event.kind();
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+          overflow = true;
+        } else {
+          final Path path = folder.resolve((Path) event.context());
+          if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            modified.add(path);
+          } else {
+            changed.add(path);
+            if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path) && this.folderFilter.test(path)) {
+              registerTree(path);
+            }
+          }
+        }
+      }
+    }
+    if (!key.reset()) {
+      this.keys.remove(key);
+    }
+    return overflow;
+  }
+
+  private void run() {
+    registerTree(this.root);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        WatchKey key = this.watchService.take();
+
+        final Set<Path> changed = new TreeSet<>();
+        final Set<Path> modified = new TreeSet<>();
+        boolean overflow = false;
+
+        final long batchEnd = System.currentTimeMillis() + MAX_BATCH_DELAY_MS;
+        while (key != null) {
+          overflow |= processKey(key, changed, modified);
+          key = System.currentTimeMillis() < batchEnd ? this.watchService.poll(QUIET_DELAY_MS, TimeUnit.MILLISECONDS) : null;
+        }
+
+        modified.removeAll(changed);
+        if (overflow || !changed.isEmpty() || !modified.isEmpty()) {
+          try {
+            this.listener.onFolderChanges(Collections.unmodifiableSet(changed), Collections.unmodifiableSet(modified), overflow);
+          } catch (Exception ex) {
+            LOGGER.error("Error in folder change listener", ex); //NOI18N
+          }
+        }
+      }
+    } catch (ClosedWatchServiceException | InterruptedException ex) {
+      // watcher is closed
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      this.watchService.close();
+    } catch (IOException ex) {
+      LOGGER.warn("Can't close watch service : " + ex.getMessage()); //NOI18N
+    }
+    this.thread.interrupt();
+  }
+}
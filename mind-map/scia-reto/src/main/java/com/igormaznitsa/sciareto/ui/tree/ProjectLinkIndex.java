@@ -0,0 +1,447 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraFile;
+import com.igormaznitsa.mindmap.model.MMapURI;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapExtraScanner;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.Context;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Index of file links in all mind maps of a project. It keeps for every mind
+ * map file the set of files linked by its topics and the reverse relation, so
+ * that search of maps affected by file rename or delete doesn't need to parse
+ * all project maps. Records are validated by last modification time and size
+ * of map files and only changed maps are parsed again. If the project has
+ * knowledge folder then the index is saved in it and reused between sessions.
+ * <p>
+ * Whole project is walked only for the first query and when the index is
+ * marked as stale, after that queries are answered from the index and only
+ * maps reported as changed by folder watcher are processed again.
+ */
+public final class ProjectLinkIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectLinkIndex.class);
+
+  public static final String INDEX_FILE_NAME = ".mmdLinkIndex"; //NOI18N
+
+  private static final String INDEX_HEADER = "#SciaReto map link index v1"; //NOI18N
+  private static final String PREFIX_MAP = "M\t"; //NOI18N
+  private static final String PREFIX_LINK = "L\t"; //NOI18N
+  private static final String[] MAP_EXTENSIONS = new String[]{"mmd", "MMD"}; //NOI18N
+
+  private static final class MapRecord {
+
+    private final long lastModified;
+    private final long size;
+    private final Set<String> links;
+
+    private MapRecord(final long lastModified, final long size, @Nonnull @MustNotContainNull final Set<String> links) {
+      this.lastModified = lastModified;
+      this.size = size;
+      this.links = links;
+    }
+
+    private boolean isValidFor(final long lastModified, final long size) {
+      return this.lastModified == lastModified && this.size == size;
+    }
+  }
+
+  private final File projectFolder;
+  private final Map<File, MapRecord> records = new HashMap<>();
+  private final Map<Path, Set<File>> reverse = new HashMap<>();
+  private final Set<File> changedMaps = new HashSet<>();
+  private boolean loaded;
+  private boolean changed;
+  private boolean stale = true;
+
+  public ProjectLinkIndex(@Nonnull final File projectFolder) {
+    this.projectFolder = projectFolder;
+  }
+
+  @Nonnull
+  public File getProjectFolder() {
+    return this.projectFolder;
+  }
+
+  @Nonnull
+  public File getIndexFile() {
+    return new File(new File(this.projectFolder, Context.KNOWLEDGE_FOLDER), INDEX_FILE_NAME);
+  }
+
+  /**
+   * Find all project mind maps which have links to the file or, if the file is
+   * folder, to any file inside the folder.
+   *
+   * @param file file or folder, must not be null
+   * @return sorted list of mind map files, must not be null
+   */
+  @Nonnull
+  @MustNotContainNull
+  public synchronized List<File> findMapsLinkedTo(@Nonnull final File file) {
+    if (this.stale) {
+      refresh();
+    } else if (!this.changedMaps.isEmpty()) {
+      refreshChangedMaps();
+    }
+
+    final Path theFile = file.isAbsolute() ? file.toPath() : new File(this.projectFolder, file.getAbsolutePath()).toPath();
+
+    final Set<File> result = new TreeSet<>();
+    if (file.isDirectory()) {
+      for (final Map.Entry<Path, Set<File>> e : this.reverse.entrySet()) {
+        if (e.getKey().startsWith(theFile)) {
+          result.addAll(e.getValue());
+        }
+      }
+    } else {
+      final Set<File> maps = this.reverse.get(theFile);
+      if (maps != null) {
+        result.addAll(maps);
+      }
+    }
+    return new ArrayList<>(result);
+  }
+
+  /**
+   * Replace record for mind map which has been just saved.
+   *
+   * @param mapFile saved mind map file, must not be null
+   * @param map saved mind map, must not be null
+   */
+  public synchronized void notifyMapSaved(@Nonnull final File mapFile, @Nonnull final MindMap map) {
+    if (!mapFile.toPath().startsWith(this.projectFolder.toPath())) {
+      return;
+    }
+    if (!this.loaded) {
+      load();
+    }
+    try {
+      final BasicFileAttributes attrs = Files.readAttributes(mapFile.toPath(), BasicFileAttributes.class);
+      putRecord(mapFile, new MapRecord(attrs.lastModifiedTime().toMillis(), attrs.size(), extractLinks(map)));
+      save();
+    } catch (IOException ex) {
+      LOGGER.error("Can't read attributes of saved mind map : " + mapFile, ex); //NOI18N
+    }
+  }
+
+  /**
+   * Mark the index as stale, the whole project will be walked for the next
+   * query. It should be called if changes of project files can't be tracked.
+   */
+  public synchronized void markStale() {
+    this.stale = true;
+  }
+
+  /**
+   * Register changes of project files reported by folder watcher, changed maps
+   * are processed for the next query.
+   *
+   * @param changed created or deleted paths, must not be null
+   * @param modified modified paths, must not be null
+   * @param overflow true if some events have been lost
+   */
+  public synchronized void notifyFilesChanged(@Nonnull @MustNotContainNull final Set<Path> changed, @Nonnull @MustNotContainNull final Set<Path> modified, final boolean overflow) {
+    if (overflow) {
+      this.stale = true;
+    }
+    if (this.stale) {
+      return;
+    }
+    for (final Path path : changed) {
+      if (isMapFile(path)) {
+        this.changedMaps.add(path.toFile());
+      } else if (Files.isDirectory(path)) {
+        // new folder can contain maps which are not reported separately
+        this.stale = true;
+        return;
+      } else {
+        for (final File mapFile : this.records.keySet()) {
+          if (mapFile.toPath().startsWith(path)) {
+            this.changedMaps.add(mapFile);
+          }
+        }
+      }
+    }
+    for (final Path path : modified) {
+      if (isMapFile(path)) {
+        this.changedMaps.add(path.toFile());
+      }
+    }
+  }
+
+  private static boolean isMapFile(@Nonnull final Path path) {
+    final Path name = path.getFileName();
+    return name != null && FilenameUtils.isExtension(name.toString(), MAP_EXTENSIONS);
+  }
+
+  private void refreshChangedMaps() {
+    for (final File mapFile : this.changedMaps) {
+      try {
+        final BasicFileAttributes attrs = Files.readAttributes(mapFile.toPath(), BasicFileAttributes.class);
+        if (attrs.isRegularFile()) {
+          updateRecord(mapFile, attrs);
+        } else {
+          putRecord(mapFile, null);
+        }
+      } catch (IOException ex) {
+        putRecord(mapFile, null);
+      }
+    }
+    this.changedMaps.clear();
+    save();
+  }
+
+  private void updateRecord(@Nonnull final File mapFile, @Nonnull final BasicFileAttributes attrs) {
+    final long lastModified = attrs.lastModifiedTime().toMillis();
+    final MapRecord record = this.records.get(mapFile);
+    if (record == null || !record.isValidFor(lastModified, attrs.size())) {
+      try {
+        putRecord(mapFile, new MapRecord(lastModified, attrs.size(), scanLinks(mapFile)));
+      } catch (IOException | RuntimeException ex) {
+        LOGGER.error("Can't process mind map file : " + mapFile, ex); //NOI18N
+        putRecord(mapFile, new MapRecord(lastModified, attrs.size(), Collections.<String>emptySet()));
+      }
+    }
+  }
+
+  /**
+   * Make records actual for current state of project mind map files, only new
+   * and changed maps are parsed.
+   */
+  public synchronized void refresh() {
+    if (!this.loaded) {
+      load();
+    }
+    this.stale = false;
+    this.changedMaps.clear();
+
+    final Set<File> found = new HashSet<>();
+    try {
+      Files.walkFileTree(this.projectFolder.toPath(), new SimpleFileVisitor<Path>() {
+        @Override
+        @Nonnull
+        public FileVisitResult visitFile(@Nonnull final Path path, @Nonnull final BasicFileAttributes attrs) throws IOException {
+          if (attrs.isRegularFile() && isMapFile(path)) {
+            final File mapFile = path.toFile();
+            found.add(mapFile);
+            updateRecord(mapFile, attrs);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        @Nonnull
+        public FileVisitResult visitFileFailed(@Nonnull final Path path, @Nonnull final IOException ex) throws IOException {
+          LOGGER.warn("Can't visit file : " + path); //NOI18N
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException ex) {
+      LOGGER.error("Can't walk project folder : " + this.projectFolder, ex); //NOI18N
+    }
+
+    for (final File mapFile : new ArrayList<>(this.records.keySet())) {
+      if (!found.contains(mapFile)) {
+        putRecord(mapFile, null);
+      }
+    }
+
+    save();
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private static Set<String> extractLinks(@Nonnull final MindMap map) {
+    final Set<String> result = new LinkedHashSet<>();
+    for (final Topic t : map) {
+      final ExtraFile linkToFile = (ExtraFile) t.getExtras().get(Extra.ExtraType.FILE);
+      if (linkToFile != null) {
+        result.add(linkToFile.getValue().asString(true, false));
+      }
+    }
+    return result;
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private static Set<String> scanLinks(@Nonnull final File mapFile) throws IOException {
+    final Set<String> result = new LinkedHashSet<>();
+    try (final Reader reader = new InputStreamReader(new FileInputStream(mapFile), StandardCharsets.UTF_8)) {
+      MindMapExtraScanner.scan(reader, EnumSet.of(Extra.ExtraType.FILE), (path, extra) -> {
+        result.add(((ExtraFile) extra).getValue().asString(true, false));
+        return true;
+      });
+    }
+    return result;
+  }
+
+  @Nullable
+  private Path toTargetPath(@Nonnull final String link) {
+    try {
+      return new MMapURI(link).asFile(this.projectFolder).toPath();
+    } catch (URISyntaxException | RuntimeException ex) {
+      LOGGER.warn("Can't convert link to path : " + link); //NOI18N
+      return null;
+    }
+  }
+
+  private void putRecord(@Nonnull final File mapFile, @Nullable final MapRecord record) {
+    final MapRecord old = record == null ? this.records.remove(mapFile) : this.records.put(mapFile, record);
+    if (old != null) {
+      for (final String link : old.links) {
+        final Path target = toTargetPath(link);
+        final Set<File> maps = target == null ? null : this.reverse.get(target);
+        if (maps != null) {
+          maps.remove(mapFile);
+          if (maps.isEmpty()) {
+            this.reverse.remove(target);
+          }
+        }
+      }
+    }
+    if (record != null) {
+      for (final String link : record.links) {
+        final Path target = toTargetPath(link);
+        if (target != null) {
+          Set<File> maps = this.reverse.get(target);
+          if (maps == null) {
+            maps = new HashSet<>();
+            this.reverse.put(target, maps);
+          }
+          maps.add(mapFile);
+        }
+      }
+    }
+    this.changed |= old != null || record != null;
+  }
+
+  private void load() {
+    this.loaded = true;
+    final File indexFile = getIndexFile();
+    if (!indexFile.isFile()) {
+      return;
+    }
+
+    try (final BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      if (!INDEX_HEADER.equals(line)) {
+        LOGGER.warn("Unsupported link index format, ignored : " + indexFile); //NOI18N
+        return;
+      }
+
+      File mapFile = null;
+      long lastModified = 0L;
+      long size = 0L;
+      Set<String> links = null;
+
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(PREFIX_MAP)) {
+          if (mapFile != null) {
+            putRecord(mapFile, new MapRecord(lastModified, size, links));
+          }
+          final String[] fields = line.split("\t"); //NOI18N
+          mapFile = new MMapURI(fields[1]).asFile(this.projectFolder);
+          lastModified = Long.parseLong(fields[2]);
+          size = Long.parseLong(fields[3]);
+          links = new LinkedHashSet<>();
+        } else if (line.startsWith(PREFIX_LINK) && links != null) {
+          links.add(line.substring(PREFIX_LINK.length()));
+        }
+      }
+      if (mapFile != null) {
+        putRecord(mapFile, new MapRecord(lastModified, size, links));
+      }
+      this.changed = false;
+    } catch (IOException | URISyntaxException | RuntimeException ex) {
+      LOGGER.error("Can't load link index, it will be rebuilt : " + indexFile, ex); //NOI18N
+      this.records.clear();
+      this.reverse.clear();
+      this.changed = true;
+    }
+  }
+
+  private void save() {
+    if (!this.changed) {
+      return;
+    }
+
+    final File indexFile = getIndexFile();
+    if (!indexFile.getParentFile().isDirectory()) {
+      return;
+    }
+
+    final File tempFile = new File(indexFile.getParentFile(), INDEX_FILE_NAME + ".tmp"); //NOI18N
+    try {
+      try (final BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+        writer.write(INDEX_HEADER);
+        writer.newLine();
+        for (final Map.Entry<File, MapRecord> e : this.records.entrySet()) {
+          final MapRecord record = e.getValue();
+          writer.write(PREFIX_MAP + new MMapURI(this.projectFolder, e.getKey(), null).asString(true, false) + '\t' + record.lastModified + '\t' + record.size);
+          writer.newLine();
+          for (final String link : record.links) {
+            writer.write(PREFIX_LINK + link);
+            writer.newLine();
+          }
+        }
+      }
+      Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      this.changed = false;
+    } catch (IOException ex) {
+      LOGGER.error("Can't save link index : " + indexFile, ex); //NOI18N
+      FileUtils.deleteQuietly(tempFile);
+    }
+  }
+}
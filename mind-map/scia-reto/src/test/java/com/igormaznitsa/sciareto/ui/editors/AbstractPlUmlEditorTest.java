@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import net.sourceforge.plantuml.SourceStringReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AbstractPlUmlEditorTest {
+
+  private static final String ENGINE = "test";
+  private static final String SCRIPT = "@startuml\n"
+      + "Alice -> Bob : page 1\n"
+      + "newpage\n"
+      + "Alice -> Bob : page 2\n"
+      + "newpage\n"
+      + "Alice -> Bob : page 3\n"
+      + "newpage\n"
+      + "Alice -> Bob : page 4\n"
+      + "newpage\n"
+      + "Alice -> Bob : page 5\n"
+      + "@enduml";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static String pageKey(final int page) {
+    return RenderedImageCache.makeKey(ENGINE, "png", page, SCRIPT);
+  }
+
+  @Test
+  public void testNeighbourPagesArePreRenderedWithSingleRenderThread() throws Exception {
+    final RenderedImageCache cache = new RenderedImageCache(tempFolder.newFolder(), 16L * 1024L * 1024L, Long.MAX_VALUE);
+    final RenderExecutor executor = new RenderExecutor(1);
+    try {
+      final RenderExecutor.Slot slot = executor.makeSlot();
+      final long generation = slot.next();
+
+      final AtomicReference<Exception> error = new AtomicReference<>();
+      final CountDownLatch completed = new CountDownLatch(1);
+      assertTrue(slot.submit(generation, false, () -> {
+        try {
+          AbstractPlUmlEditor.renderPageAsPng(cache, ENGINE, new SourceStringReader(SCRIPT, "UTF-8"), SCRIPT, 2);
+          slot.submit(generation, true, () -> {
+            try {
+              AbstractPlUmlEditor.preRenderPages(cache, ENGINE, SCRIPT, 2, 5, () -> slot.isActual(generation));
+            } catch (Exception ex) {
+              error.set(ex);
+            } finally {
+              completed.countDown();
+            }
+          });
+        } catch (Exception ex) {
+          error.set(ex);
+        }
+      }));
+
+      assertTrue(completed.await(60, TimeUnit.SECONDS));
+      assertNull(error.get());
+      for (int page = 0; page < 5; page++) {
+        assertNotNull("Page " + page, cache.find(pageKey(page)));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testPreRenderStopsForChangedText() throws Exception {
+    final RenderedImageCache cache = new RenderedImageCache(tempFolder.newFolder(), 16L * 1024L * 1024L, Long.MAX_VALUE);
+    AbstractPlUmlEditor.preRenderPages(cache, ENGINE, SCRIPT, 2, 5, () -> false);
+    for (int page = 0; page < 5; page++) {
+      assertNull("Page " + page, cache.find(pageKey(page)));
+    }
+  }
+}
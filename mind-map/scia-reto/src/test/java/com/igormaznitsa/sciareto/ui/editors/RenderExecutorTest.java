@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RenderExecutorTest {
+
+  private RenderExecutor executor;
+
+  @Before
+  public void before() {
+    this.executor = new RenderExecutor(1);
+  }
+
+  @After
+  public void after() throws Exception {
+    this.executor.shutdown();
+    assertTrue(this.executor.awaitTermination(10000L));
+  }
+
+  @Test
+  public void testNewGenerationCancelsRunningAndWaitingRenders() throws Exception {
+    final RenderExecutor.Slot slot = this.executor.makeSlot();
+
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final long first = slot.next();
+    assertTrue(slot.submit(first, false, () -> {
+      started.countDown();
+      try {
+        Thread.sleep(30000L);
+      } catch (InterruptedException ex) {
+        interrupted.countDown();
+      }
+    }));
+
+    final AtomicBoolean waitingExecuted = new AtomicBoolean();
+    final CountDownLatch waitingSkipped = new CountDownLatch(1);
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    assertTrue(slot.submit(first, false, () -> waitingExecuted.set(true), waitingSkipped::countDown));
+
+    final long second = slot.next();
+    assertFalse(slot.isActual(first));
+    assertFalse(slot.submit(first, false, () -> waitingExecuted.set(true)));
+
+    final CountDownLatch secondExecuted = new CountDownLatch(1);
+    final AtomicBoolean secondInterrupted = new AtomicBoolean(true);
+    assertTrue(slot.submit(second, false, () -> {
+      secondInterrupted.set(Thread.currentThread().isInterrupted());
+      secondExecuted.countDown();
+    }));
+
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertTrue(waitingSkipped.await(10, TimeUnit.SECONDS));
+    assertTrue(secondExecuted.await(10, TimeUnit.SECONDS));
+    assertFalse(waitingExecuted.get());
+    assertFalse("Interruption must not be passed to next render", secondInterrupted.get());
+  }
+
+  @Test
+  public void testNewGenerationDoesNotCancelRendersOfOtherSlot() throws Exception {
+    final RenderExecutor.Slot slot = this.executor.makeSlot();
+    final RenderExecutor.Slot otherSlot = this.executor.makeSlot();
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch executed = new CountDownLatch(1);
+    assertTrue(otherSlot.submit(otherSlot.next(), false, () -> {
+      try {
+        assertTrue(release.await(10, TimeUnit.SECONDS));
+        executed.countDown();
+      } catch (InterruptedException ex) {
+        // interrupted render is not executed
+      }
+    }));
+
+    slot.next();
+    release.countDown();
+    assertTrue(executed.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testForegroundRendersAreStartedBeforeBackgroundOnes() throws Exception {
+    final RenderExecutor.Slot slot = this.executor.makeSlot();
+    final RenderExecutor.Slot otherSlot = this.executor.makeSlot();
+    final long generation = slot.next();
+    final long otherGeneration = otherSlot.next();
+
+    final CountDownLatch release = new CountDownLatch(1);
+    assertTrue(slot.submit(generation, false, () -> {
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        // nothing
+      }
+    }));
+
+    final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch done = new CountDownLatch(3);
+    assertTrue(slot.submit(generation, true, () -> {
+      order.add("background");
+      done.countDown();
+    }));
+    assertTrue(otherSlot.submit(otherGeneration, false, () -> {
+      order.add("foreground1");
+      done.countDown();
+    }));
+    assertTrue(slot.submit(generation, false, () -> {
+      order.add("foreground2");
+      done.countDown();
+    }));
+
+    release.countDown();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(3, order.size());
+    assertEquals("foreground1", order.get(0));
+    assertEquals("foreground2", order.get(1));
+    assertEquals("background", order.get(2));
+  }
+}
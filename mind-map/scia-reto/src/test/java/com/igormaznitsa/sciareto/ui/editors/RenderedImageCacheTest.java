@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RenderedImageCacheTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testKeyDependsOnAllParts() {
+    final String key = RenderedImageCache.makeKey("engine", "png", 0, "text");
+    assertEquals(key, RenderedImageCache.makeKey("engine", "png", 0, "text"));
+    assertNotEquals(key, RenderedImageCache.makeKey("engine2", "png", 0, "text"));
+    assertNotEquals(key, RenderedImageCache.makeKey("engine", "svg", 0, "text"));
+    assertNotEquals(key, RenderedImageCache.makeKey("engine", "png", 1, "text"));
+    assertNotEquals(key, RenderedImageCache.makeKey("engine", "png", 0, "text2"));
+  }
+
+  @Test
+  public void testMemoryAndDiskLevels() throws Exception {
+    final File folder = tempFolder.newFolder();
+    final RenderedImageCache cache = new RenderedImageCache(folder, 10L, Long.MAX_VALUE);
+
+    final byte[] first = new byte[] {1, 2, 3, 4, 5, 6};
+    final byte[] second = new byte[] {7, 8, 9, 10, 11, 12};
+
+    assertNull(cache.find("first"));
+    cache.put("first", first);
+    assertSame(first, cache.find("first"));
+
+    cache.put("second", second);
+    assertSame(second, cache.find("second"));
+
+    final byte[] restored = cache.find("first");
+    assertArrayEquals(first, restored);
+
+    final RenderedImageCache otherSession = new RenderedImageCache(folder, 10L, Long.MAX_VALUE);
+    assertArrayEquals(second, otherSession.find("second"));
+  }
+
+  @Test
+  public void testDiskTrimmedToLimit() throws Exception {
+    final File folder = tempFolder.newFolder();
+    final RenderedImageCache cache = new RenderedImageCache(folder, 1024L, Long.MAX_VALUE);
+    for (int i = 0; i < 4; i++) {
+      cache.put("key" + i, new byte[100]);
+      assertTrue(new File(folder, "key" + i + ".bin").setLastModified(1000000L * (i + 1)));
+    }
+
+    final RenderedImageCache otherSession = new RenderedImageCache(folder, 1024L, 250L);
+    otherSession.put("new", new byte[10]);
+    assertNull(otherSession.find("key0"));
+    assertNull(otherSession.find("key1"));
+    assertArrayEquals(new byte[100], otherSession.find("key3"));
+  }
+
+  @Test
+  public void testDiskTrimmedWheneverLimitIsReached() throws Exception {
+    final File folder = tempFolder.newFolder();
+    final RenderedImageCache cache = new RenderedImageCache(folder, 1024L, 1000L);
+    for (int i = 0; i < 50; i++) {
+      cache.put("key" + i, new byte[100]);
+      long total = 0L;
+      for (final File f : folder.listFiles()) {
+        total += f.length();
+      }
+      assertTrue(total <= 1000L);
+    }
+    assertArrayEquals(new byte[100], new RenderedImageCache(folder, 1024L, 1000L).find("key49"));
+  }
+
+  @Test
+  public void testFolderIsCreatedForOwnerOnly() throws Exception {
+    Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    final File folder = new File(tempFolder.getRoot(), "user/cache");
+    final RenderedImageCache cache = new RenderedImageCache(folder, 1024L, Long.MAX_VALUE);
+    cache.put("key", new byte[10]);
+    assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(folder.toPath()));
+    assertTrue(new File(folder, "key.bin").isFile());
+  }
+
+  @Test
+  public void testSymbolicLinkFolderIsNotUsed() throws Exception {
+    final File target = tempFolder.newFolder();
+    final File link = new File(tempFolder.getRoot(), "link");
+    try {
+      Files.createSymbolicLink(link.toPath(), target.toPath());
+    } catch (UnsupportedOperationException | IOException ex) {
+      Assume.assumeNoException(ex);
+    }
+    final RenderedImageCache cache = new RenderedImageCache(link, 1024L, Long.MAX_VALUE);
+    cache.put("key", new byte[10]);
+    assertEquals(0, target.listFiles().length);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TextFileBackuperTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TextFileBackuper backuper;
+
+  @Before
+  public void before() {
+    this.backuper = new TextFileBackuper();
+    this.backuper.start();
+  }
+
+  @After
+  public void after() throws Exception {
+    this.backuper.finish();
+    assertTrue(this.backuper.awaitTermination(10000L));
+  }
+
+  private static String readBackup(final File file) throws Exception {
+    return new TextFileBackuper.Restored(new File(file.getParentFile(), TextFileBackuper.makeBackupFileName(file, 0))).asText();
+  }
+
+  private void waitForWrittenBackups(final long expected) throws Exception {
+    final long end = System.currentTimeMillis() + 10000L;
+    while (this.backuper.getWrittenBackups() < expected && System.currentTimeMillis() < end) {
+      Thread.sleep(20L);
+    }
+    assertEquals(expected, this.backuper.getWrittenBackups());
+  }
+
+  @Test
+  public void testRequestsForSameFileAreCoalesced() throws Exception {
+    final File file = new File(tempFolder.newFolder(), "text.txt");
+    final File other = new File(file.getParentFile(), "other.txt");
+
+    for (int i = 0; i < 10; i++) {
+      this.backuper.add(new TextFileBackuper.BackupContent(file, "content " + i));
+    }
+    this.backuper.add(new TextFileBackuper.BackupContent(other, "other"));
+
+    this.backuper.finish();
+    assertTrue(this.backuper.awaitTermination(10000L));
+
+    assertEquals(2L, this.backuper.getWrittenBackups());
+    assertEquals("content 9", readBackup(file));
+    assertEquals("other", readBackup(other));
+  }
+
+  @Test
+  public void testBackupIsReplacedAndUnchangedContentIsNotWritten() throws Exception {
+    final File file = new File(tempFolder.newFolder(), "text.txt");
+    final File backup0 = new File(file.getParentFile(), TextFileBackuper.makeBackupFileName(file, 0));
+    final File backup1 = new File(file.getParentFile(), TextFileBackuper.makeBackupFileName(file, 1));
+
+    this.backuper.add(new TextFileBackuper.BackupContent(file, "first"));
+    waitForWrittenBackups(1L);
+    assertEquals("first", readBackup(file));
+    assertFalse(backup1.exists());
+
+    this.backuper.add(new TextFileBackuper.BackupContent(file, "second"));
+    waitForWrittenBackups(2L);
+    assertEquals("second", readBackup(file));
+    assertEquals(backup0, TextFileBackuper.findBackupForFile(file));
+    assertFalse(backup1.exists());
+
+    this.backuper.add(new TextFileBackuper.BackupContent(file, "second"));
+    Thread.sleep(1500L);
+    assertEquals(2L, this.backuper.getWrittenBackups());
+    assertEquals("second", readBackup(file));
+
+    this.backuper.add(new TextFileBackuper.BackupContent(file, null));
+    this.backuper.finish();
+    assertTrue(this.backuper.awaitTermination(10000L));
+    assertEquals(2L, this.backuper.getWrittenBackups());
+    assertNull(TextFileBackuper.findBackupForFile(file));
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import static org.junit.Assert.assertEquals;
+
+
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+
+public class TiledImageTest {
+
+  @Test
+  public void testFindLevel() {
+    assertEquals(0, TiledImage.findLevel(10.0f));
+    assertEquals(0, TiledImage.findLevel(1.0f));
+    assertEquals(0, TiledImage.findLevel(0.6f));
+    assertEquals(1, TiledImage.findLevel(0.5f));
+    assertEquals(1, TiledImage.findLevel(0.3f));
+    assertEquals(2, TiledImage.findLevel(0.2f));
+  }
+
+  private static BufferedImage makeHalfColoredImage(final int width, final int height) {
+    final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = result.createGraphics();
+    gfx.setColor(Color.RED);
+    gfx.fillRect(0, 0, width / 2, height);
+    gfx.setColor(Color.BLUE);
+    gfx.fillRect(width / 2, 0, width - width / 2, height);
+    gfx.dispose();
+    return result;
+  }
+
+  private static void assertPaintedCorrectly(final TiledImage image, final float scale) {
+    final int width = image.getScaledWidth(scale);
+    final int height = image.getScaledHeight(scale);
+    final BufferedImage target = new BufferedImage(width + 20, height + 20, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D gfx = target.createGraphics();
+    image.paint(gfx, 10, 10, scale, RenderQuality.SPEED);
+    gfx.dispose();
+
+    assertEquals(0, target.getRGB(5, 5));
+    assertEquals(Color.RED.getRGB(), target.getRGB(10 + width / 4, 10 + height / 2));
+    assertEquals(Color.BLUE.getRGB(), target.getRGB(10 + width * 3 / 4, 10 + height / 2));
+    assertEquals(Color.RED.getRGB(), target.getRGB(11, 11));
+    assertEquals(Color.BLUE.getRGB(), target.getRGB(8 + width, 8 + height));
+    assertEquals(0, target.getRGB(width + 15, height + 15));
+  }
+
+  @Test
+  public void testPaintInDifferentScales() {
+    final TiledImage image = new TiledImage(makeHalfColoredImage(1500, 1000));
+    assertPaintedCorrectly(image, 1.0f);
+    assertPaintedCorrectly(image, 0.2f);
+    assertPaintedCorrectly(image, 0.45f);
+    assertPaintedCorrectly(image, 0.75f);
+    assertPaintedCorrectly(image, 1.3f);
+    assertPaintedCorrectly(image, 0.45f);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileExaminatorTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File makeFile(final int prefixLength, final String text) throws IOException {
+    final byte[] prefix = new byte[prefixLength];
+    Arrays.fill(prefix, (byte) '.');
+    final File result = tempFolder.newFile();
+    FileUtils.writeByteArrayToFile(result, prefix);
+    FileUtils.writeStringToFile(result, text, StandardCharsets.UTF_8, true);
+    return result;
+  }
+
+  private static boolean find(final File file, final int bufferSize, final String text) throws IOException {
+    return new FileExaminator(file).doesContainData(new byte[bufferSize],
+        text.toLowerCase().getBytes(StandardCharsets.UTF_8),
+        text.toUpperCase().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testFindMixedCase() throws Exception {
+    final File file = makeFile(10, "Some HeLLo World text");
+    assertTrue(find(file, 1024, "hello world"));
+    assertTrue(find(file, 1024, "t"));
+    assertFalse(find(file, 1024, "hello worlds"));
+    assertFalse(find(file, 1024, "q"));
+  }
+
+  @Test
+  public void testFindAfterBufferAndAcrossBorder() throws Exception {
+    for (int prefix = 0; prefix < 40; prefix++) {
+      final File file = makeFile(prefix, "abcdef");
+      assertTrue("prefix " + prefix, find(file, 16, "ABCDEF"));
+      assertTrue("prefix " + prefix, find(file, 16, "cdef"));
+      assertFalse("prefix " + prefix, find(file, 16, "abcdeg"));
+    }
+    assertTrue(find(makeFile(3 * 1024 * 1024, "needle"), 1024 * 1024, "NeEdLe"));
+  }
+
+  @Test
+  public void testFindVariantsWithDifferentLength() throws Exception {
+    // long s is two bytes in UTF-8, its upper case S is one byte
+    final byte[] lower = "\u017Fun".toLowerCase().getBytes(StandardCharsets.UTF_8);
+    final byte[] upper = "\u017Fun".toUpperCase().getBytes(StandardCharsets.UTF_8);
+    assertEquals(4, lower.length);
+    assertEquals(3, upper.length);
+    for (int prefix = 0; prefix < 20; prefix++) {
+      assertTrue("prefix " + prefix, new FileExaminator(makeFile(prefix, "the \u017Fun")).doesContainData(new byte[8], lower, upper));
+      assertTrue("prefix " + prefix, new FileExaminator(makeFile(prefix, "THE SUN")).doesContainData(new byte[8], lower, upper));
+      assertFalse("prefix " + prefix, new FileExaminator(makeFile(prefix, "THE SUM \u017Fu")).doesContainData(new byte[8], lower, upper));
+    }
+  }
+}
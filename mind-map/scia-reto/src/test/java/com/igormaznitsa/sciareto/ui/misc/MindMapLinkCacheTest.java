@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import com.igormaznitsa.mindmap.model.MMapURI;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MindMapLinkCacheTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static String makeMap(final String... links) {
+    final StringBuilder buffer = new StringBuilder("Mind Map generated by NB MindMap plugin\n> __version__=`1.1`\n---\n\n# Root\n\n");
+    int index = 0;
+    for (final String link : links) {
+      buffer.append("## Topic").append(index++).append("\n- FILE\n<pre>").append(link).append("</pre>\n\n");
+    }
+    return buffer.toString();
+  }
+
+  @Test
+  public void testLinksCachedUntilFileChanged() throws Exception {
+    final File map = tempFolder.newFile("map.mmd");
+    FileUtils.write(map, makeMap("some.txt"), StandardCharsets.UTF_8);
+
+    final List<MMapURI> links = MindMapLinkCache.getInstance().findFileLinks(map);
+    assertEquals(1, links.size());
+    assertEquals("some.txt", links.get(0).asString(false, false));
+    assertSame(links, MindMapLinkCache.getInstance().findFileLinks(map));
+
+    FileUtils.write(map, makeMap("some.txt", "other.txt"), StandardCharsets.UTF_8);
+    assertTrue(map.setLastModified(map.lastModified() + 2000L));
+    assertEquals(2, MindMapLinkCache.getInstance().findFileLinks(map).size());
+  }
+
+  @Test
+  public void testNotParseableFile() throws Exception {
+    final File map = tempFolder.newFile("wrong.mmd");
+    FileUtils.write(map, "it is not a mind map", StandardCharsets.UTF_8);
+    assertNull(MindMapLinkCache.getInstance().findFileLinks(map));
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NodeFileOrFolderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static NodeFileOrFolder makeRoot(final File folder) {
+    return new NodeFileOrFolder(null, true, folder.getName(), false, false) {
+      @Override
+      public File makeFileForNode() {
+        return folder;
+      }
+    };
+  }
+
+  private static List<String> names(final NodeFileOrFolder node) {
+    final List<String> result = new ArrayList<>();
+    for (final NodeFileOrFolder c : node) {
+      result.add(c.toString());
+    }
+    return result;
+  }
+
+  @Test
+  public void testReadSubtree() throws Exception {
+    final File folder = tempFolder.newFolder("root");
+    assertTrue(new File(folder, "b/c/d").mkdirs());
+    assertTrue(new File(folder, "a").mkdirs());
+    assertTrue(new File(folder, ".hidden").mkdirs());
+    for (int i = 0; i < 100; i++) {
+      assertTrue(new File(folder, "b/c/file" + (99 - i) + ".txt").createNewFile());
+    }
+    assertTrue(new File(folder, "zz.txt").createNewFile());
+    assertTrue(new File(folder, "aa.txt").createNewFile());
+    assertTrue(new File(folder, ".hidden.txt").createNewFile());
+
+    final NodeFileOrFolder root = makeRoot(folder);
+    assertSame(root, root.readSubtree(false).block());
+
+    assertEquals(4, root.getChildCount());
+    assertEquals("[a, b, aa.txt, zz.txt]", names(root).toString());
+    assertEquals(1 + 4 + 1 + 1 + 100, root.size());
+
+    final NodeFileOrFolder c = (NodeFileOrFolder) root.getChildAt(1).getChildAt(0);
+    assertEquals("c", c.toString());
+    assertEquals(101, c.getChildCount());
+    assertEquals("d", c.getChildAt(0).toString());
+    assertEquals("file0.txt", c.getChildAt(1).toString());
+    assertEquals(new File(folder, "b/c"), c.makeFileForNode());
+    assertFalse(c.isReadOnly());
+
+    root.readSubtree(true).block();
+    assertEquals("[.hidden, a, b, .hidden.txt, aa.txt, zz.txt]", names(root).toString());
+  }
+
+  @Test
+  public void testReadSubtree_UnreadableFolderIsFolderWithoutAccess() throws Exception {
+    final File folder = tempFolder.newFolder("root");
+    final File locked = new File(folder, "locked");
+    assertTrue(new File(locked, "inner").mkdirs());
+    assertTrue(new File(folder, "file.txt").createNewFile());
+
+    final Path lockedPath = locked.toPath();
+    final Set<PosixFilePermission> permissions;
+    try {
+      permissions = Files.getPosixFilePermissions(lockedPath);
+      Files.setPosixFilePermissions(lockedPath, EnumSet.noneOf(PosixFilePermission.class));
+    } catch (UnsupportedOperationException ex) {
+      Assume.assumeNoException(ex);
+      return;
+    }
+
+    try {
+      Assume.assumeFalse("Permissions are not applied for the user", Files.isReadable(lockedPath));
+
+      final NodeFileOrFolder root = makeRoot(folder);
+      root.readSubtree(false).block();
+
+      assertEquals("[locked, file.txt]", names(root).toString());
+      final NodeFileOrFolder lockedNode = (NodeFileOrFolder) root.getChildAt(0);
+      assertTrue(lockedNode.getAllowsChildren());
+      assertTrue(lockedNode.hasNoAccess());
+      assertEquals(0, lockedNode.getChildCount());
+      assertFalse(((NodeFileOrFolder) root.getChildAt(1)).hasNoAccess());
+    } finally {
+      Files.setPosixFilePermissions(lockedPath, permissions);
+    }
+  }
+}
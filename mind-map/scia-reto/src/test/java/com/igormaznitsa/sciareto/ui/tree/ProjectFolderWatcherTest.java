@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectFolderWatcherTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static boolean isReported(final Set<Path> collected, final long timeoutMs, final Path... paths) throws InterruptedException {
+    final long end = System.currentTimeMillis() + timeoutMs;
+    synchronized (collected) {
+      while (true) {
+        boolean all = true;
+        for (final Path p : paths) {
+          all &= collected.contains(p);
+        }
+        if (all) {
+          return true;
+        }
+        final long remaining = end - System.currentTimeMillis();
+        if (remaining <= 0L) {
+          return false;
+        }
+        collected.wait(remaining);
+      }
+    }
+  }
+
+  private static void waitFor(final Set<Path> collected, final Path... paths) throws InterruptedException {
+    if (!isReported(collected, TimeUnit.SECONDS.toMillis(30), paths)) {
+      synchronized (collected) {
+        for (final Path p : paths) {
+          assertTrue("Expected change of " + p + " in " + collected, collected.contains(p));
+        }
+      }
+    }
+  }
+
+  private static void waitForWatching(final Path folder, final Set<Path> collected) throws Exception {
+    // folders are registered by the watcher thread, create probe files until one is reported
+    final long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+    int attempt = 0;
+    while (true) {
+      final Path probe = Files.createFile(folder.resolve("probe" + (attempt++) + ".tmp"));
+      if (isReported(collected, 200L, probe)) {
+        break;
+      }
+      assertTrue("Folder is not watched : " + folder, System.currentTimeMillis() < end);
+    }
+    // let the watcher report the rest of probes
+    waitFor(collected, folder.resolve("probe" + (attempt - 1) + ".tmp"));
+    synchronized (collected) {
+      collected.clear();
+    }
+  }
+
+  @Test
+  public void testCreateAndDeleteInNewFolder() throws Exception {
+    final Path root = tempFolder.newFolder("project").toPath();
+    final Path hidden = Files.createDirectory(root.resolve(".hidden"));
+
+    final Set<Path> collected = new HashSet<>();
+    try (final ProjectFolderWatcher watcher = new ProjectFolderWatcher(root, p -> !p.getFileName().toString().startsWith("."), (changed, modified, overflow) -> {
+      synchronized (collected) {
+        collected.addAll(changed);
+        collected.notifyAll();
+      }
+    })) {
+      waitForWatching(root, collected);
+      final Path file = Files.createFile(root.resolve("file.txt"));
+      final Path folder = Files.createDirectory(root.resolve("folder"));
+      waitFor(collected, file, folder);
+
+      // new folder is registered before its creation is reported
+      final Path ignored = Files.createFile(hidden.resolve("ignored.txt"));
+      final Path nested = Files.createFile(folder.resolve("nested.txt"));
+      final Path marker = Files.createFile(root.resolve("marker.txt"));
+      waitFor(collected, nested, marker);
+      synchronized (collected) {
+        assertFalse(collected.contains(ignored));
+        collected.clear();
+      }
+
+      Files.delete(file);
+      waitFor(collected, file);
+    }
+  }
+}
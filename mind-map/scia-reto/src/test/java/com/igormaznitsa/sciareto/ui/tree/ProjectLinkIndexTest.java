@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2018 Igor Maznitsa.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.sciareto.Context;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectLinkIndexTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static String makeMap(final String... links) {
+    final StringBuilder buffer = new StringBuilder("Mind Map generated by NB MindMap plugin\n> __version__=`1.1`\n---\n\n# Root\n\n");
+    int index = 0;
+    for (final String link : links) {
+      buffer.append("## Topic").append(index++).append("\n- FILE\n<pre>").append(link).append("</pre>\n\n");
+    }
+    return buffer.toString();
+  }
+
+  private static File writeMap(final File file, final String text) throws IOException {
+    FileUtils.write(file, text, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  public void testFindMapsLinkedTo_FileAndFolder() throws Exception {
+    final File project = tempFolder.newFolder("project");
+    final File docs = new File(project, "docs");
+    assertTrue(docs.mkdirs());
+    final File readme = new File(docs, "readme.txt");
+    FileUtils.write(readme, "text", StandardCharsets.UTF_8);
+
+    final File map1 = writeMap(new File(project, "map1.mmd"), makeMap("docs/readme.txt"));
+    final File map2 = writeMap(new File(docs, "map2.mmd"), makeMap("docs/other.txt", "map1.mmd"));
+    writeMap(new File(project, "map3.mmd"), makeMap());
+
+    final ProjectLinkIndex index = new ProjectLinkIndex(project);
+    assertEquals(Collections.singletonList(map1), index.findMapsLinkedTo(readme));
+    assertEquals(Collections.singletonList(map2), index.findMapsLinkedTo(map1));
+    assertEquals(Arrays.asList(map2, map1), index.findMapsLinkedTo(docs));
+    assertTrue(index.findMapsLinkedTo(new File(project, "map3.mmd")).isEmpty());
+  }
+
+  @Test
+  public void testChangedAndRemovedMapsAreDetected() throws Exception {
+    final File project = tempFolder.newFolder("project");
+    final File target = new File(project, "target.txt");
+    FileUtils.write(target, "text", StandardCharsets.UTF_8);
+
+    final File map1 = writeMap(new File(project, "map1.mmd"), makeMap("target.txt"));
+    final File map2 = writeMap(new File(project, "map2.mmd"), makeMap());
+
+    final ProjectLinkIndex index = new ProjectLinkIndex(project);
+    assertEquals(Collections.singletonList(map1), index.findMapsLinkedTo(target));
+
+    writeMap(map2, makeMap("target.txt", "some.txt"));
+    index.notifyFilesChanged(Collections.<Path>emptySet(), Collections.singleton(map2.toPath()), false);
+    assertEquals(Arrays.asList(map1, map2), index.findMapsLinkedTo(target));
+
+    assertTrue(map1.delete());
+    index.notifyFilesChanged(Collections.singleton(map1.toPath()), Collections.<Path>emptySet(), false);
+    assertEquals(Collections.singletonList(map2), index.findMapsLinkedTo(target));
+  }
+
+  @Test
+  public void testProjectWalkedOnlyForStaleIndex() throws Exception {
+    final File project = tempFolder.newFolder("project");
+    final File target = new File(project, "target.txt");
+    FileUtils.write(target, "text", StandardCharsets.UTF_8);
+    final File folder = new File(project, "folder");
+    assertTrue(folder.mkdirs());
+
+    final File map1 = writeMap(new File(project, "map1.mmd"), makeMap("target.txt"));
+    final File map2 = writeMap(new File(folder, "map2.mmd"), makeMap("target.txt"));
+
+    final ProjectLinkIndex index = new ProjectLinkIndex(project);
+    assertEquals(new HashSet<>(Arrays.asList(map1, map2)), new HashSet<>(index.findMapsLinkedTo(target)));
+
+    final File map3 = writeMap(new File(project, "map3.mmd"), makeMap("target.txt"));
+    assertEquals("Not notified change must not be visible", new HashSet<>(Arrays.asList(map1, map2)), new HashSet<>(index.findMapsLinkedTo(target)));
+
+    FileUtils.deleteDirectory(folder);
+    index.notifyFilesChanged(Collections.singleton(folder.toPath()), Collections.<Path>emptySet(), false);
+    assertEquals(new HashSet<>(Collections.singletonList(map1)), new HashSet<>(index.findMapsLinkedTo(target)));
+
+    index.notifyFilesChanged(Collections.<Path>emptySet(), Collections.<Path>emptySet(), true);
+    assertEquals(new HashSet<>(Arrays.asList(map1, map3)), new HashSet<>(index.findMapsLinkedTo(target)));
+
+    final File newFolder = new File(project, "new");
+    assertTrue(newFolder.mkdirs());
+    final File map4 = writeMap(new File(newFolder, "map4.mmd"), makeMap("target.txt"));
+    index.notifyFilesChanged(Collections.singleton(newFolder.toPath()), Collections.<Path>emptySet(), false);
+    assertEquals(new HashSet<>(Arrays.asList(map1, map3, map4)), new HashSet<>(index.findMapsLinkedTo(target)));
+
+    assertTrue(map3.delete());
+    index.markStale();
+    assertEquals(new HashSet<>(Arrays.asList(map1, map4)), new HashSet<>(index.findMapsLinkedTo(target)));
+  }
+
+  @Test
+  public void testIndexSavedInKnowledgeFolder() throws Exception {
+    final File project = tempFolder.newFolder("project");
+    assertTrue(new File(project, Context.KNOWLEDGE_FOLDER).mkdirs());
+    final File target = new File(project, "target.txt");
+    FileUtils.write(target, "text", StandardCharsets.UTF_8);
+
+    final File map = writeMap(new File(project, "map.mmd"), makeMap("target.txt"));
+
+    final ProjectLinkIndex index = new ProjectLinkIndex(project);
+    assertFalse(index.getIndexFile().exists());
+    assertEquals(new HashSet<>(Collections.singletonList(map)), new HashSet<>(index.findMapsLinkedTo(target)));
+    assertTrue(index.getIndexFile().isFile());
+
+    final String text = makeMap("other.txt");
+    writeMap(map, text);
+    index.notifyMapSaved(map, new MindMap(new StringReader(text)));
+    final long savedIndexModified = index.getIndexFile().lastModified();
+
+    final ProjectLinkIndex loaded = new ProjectLinkIndex(project);
+    assertTrue(loaded.findMapsLinkedTo(target).isEmpty());
+    assertEquals(Collections.singletonList(map), loaded.findMapsLinkedTo(new File(project, "other.txt")));
+    assertEquals(savedIndexModified, loaded.getIndexFile().lastModified());
+  }
+}